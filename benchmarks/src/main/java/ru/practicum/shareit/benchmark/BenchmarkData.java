@@ -0,0 +1,110 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds entity graphs for the benchmarks from a fixed seed and a fixed clock, so every run and every fork
+ * measures exactly the same data.
+ */
+public class BenchmarkData {
+    public static final long SEED = 20220801L;
+    public static final LocalDateTime NOW = LocalDateTime.of(2022, 8, 1, 12, 0);
+
+    private static final String[] NAMES = {"Дрель", "Отвертка", "Лобзик", "Стремянка", "Палатка", "Велосипед", "Drill"};
+    private static final String[] DESCRIPTIONS = {
+            "Простая дрель", "Аккумуляторная отвертка", "Лобзик по дереву", "Алюминиевая стремянка на 6 ступеней",
+            "Трехместная палатка", "Горный велосипед", "Drill for drilling drillable things"
+    };
+
+    private final Random random;
+
+    public BenchmarkData() {
+        this(SEED);
+    }
+
+    public BenchmarkData(long seed) {
+        random = new Random(seed);
+    }
+
+    public List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+
+        for (long id = 1; id <= count; id++) {
+            users.add(new User(id, "user" + id + "@mail.ru", "user " + id, null));
+        }
+        return users;
+    }
+
+    // every third item answers a request
+    public List<Item> items(int count, List<User> owners) {
+        List<Item> items = new ArrayList<>(count);
+
+        for (long id = 1; id <= count; id++) {
+            int text = random.nextInt(NAMES.length);
+            ItemRequest request = null;
+            if (id % 3 == 0) {
+                request = ItemRequest.builder()
+                        .id(id / 3)
+                        .description("need " + NAMES[text])
+                        .created(NOW.minusDays(random.nextInt(30)))
+                        .user(pick(owners))
+                        .build();
+            }
+
+            items.add(new Item(id, pick(owners), NAMES[text], DESCRIPTIONS[text], random.nextInt(10) > 0, request, null));
+        }
+        return items;
+    }
+
+    // starts are spread a month around NOW, so the list has past, current and future bookings
+    public List<Booking> bookings(int count, List<Item> items, List<User> bookers) {
+        List<Booking> bookings = new ArrayList<>(count);
+        Booking.Status[] statuses = Booking.Status.values();
+
+        for (long id = 1; id <= count; id++) {
+            LocalDateTime start = NOW.plusHours(random.nextInt(24 * 60) - 24 * 30);
+
+            LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+
+            bookings.add(new Booking(id, start, end, statuses[random.nextInt(statuses.length)], pick(bookers), pick(items),
+                    null, Booking.Phase.at(start, end, NOW)));
+        }
+        return bookings;
+    }
+
+    // what findLastAndNextBookings returns: up to one last and one next booking per item
+    public List<ItemBookingPointer> pointers(List<Item> items) {
+        List<ItemBookingPointer> pointers = new ArrayList<>();
+        long bookingId = 1;
+
+        for (Item item : items) {
+            if (random.nextBoolean())
+                pointers.add(new Pointer(item.getId(), bookingId++, (long) random.nextInt(1000) + 1, ItemBookingPointer.LAST));
+            if (random.nextBoolean())
+                pointers.add(new Pointer(item.getId(), bookingId++, (long) random.nextInt(1000) + 1, ItemBookingPointer.NEXT));
+        }
+        return pointers;
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    @Data
+    private static class Pointer implements ItemBookingPointer {
+        private final Long itemId;
+        private final Long bookingId;
+        private final Long bookerId;
+        private final String pointer;
+    }
+}
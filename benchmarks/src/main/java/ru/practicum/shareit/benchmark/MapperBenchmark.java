@@ -0,0 +1,60 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of the list endpoints: GET /bookings and /bookings/owner, GET /items, and the last and
+ * next booking grouping GET /items does for the owner.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<Booking> bookings;
+    private List<Item> items;
+    private List<ItemBookingPointer> pointers;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData();
+        List<User> users = data.users(Math.max(size / 10, 1));
+
+        items = data.items(size, users);
+        bookings = data.bookings(size, items, users);
+        pointers = data.pointers(items);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingResponseDtoListOf() {
+        return BookingMapper.responseDtoListOf(bookings);
+    }
+
+    @Benchmark
+    public List<ItemDto> itemListOf() {
+        return ItemMapper.listOf(items);
+    }
+
+    @Benchmark
+    public List<ItemDto> itemListWithLastAndNextBookings() {
+        List<ItemDto> itemsDto = ItemMapper.listOf(items);
+        ItemMapper.setLastAndNextBookings(itemsDto, pointers);
+        return itemsDto;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.patch.PatchApplier;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.beans.PropertyDescriptor;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a PATCH payload to a stored entity with {@link PatchApplier} and with the BeanUtils based copy the
+ * services used before. Run with -prof gc to compare allocation rates as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatchBenchmark {
+    private static final PatchApplier<User> USER_PATCH = PatchApplier.of(User.class);
+    private static final PatchApplier<Item> ITEM_PATCH = PatchApplier.of(Item.class);
+
+    private User userPatch;
+    private Item itemPatch;
+    private User owner;
+    private ItemRequest request;
+
+    @Setup
+    public void setUp() {
+        userPatch = User.builder().id(1L).name("ivan").build();
+        itemPatch = Item.builder().id(1L).description("Drill for drilling drillable things").isAvailable(false).build();
+        owner = new User(1L, "zimablue@gmail.com", "zima", null);
+        request = ItemRequest.builder().id(1L).description("need a drill").user(owner).build();
+    }
+
+    @Benchmark
+    public User userPatchApplier() {
+        return USER_PATCH.apply(userPatch, storedUser());
+    }
+
+    @Benchmark
+    public User userBeanUtils() {
+        User target = storedUser();
+        copyNonNullProperties(userPatch, target);
+        return target;
+    }
+
+    @Benchmark
+    public Item itemPatchApplier() {
+        return ITEM_PATCH.apply(itemPatch, storedItem());
+    }
+
+    @Benchmark
+    public Item itemBeanUtils() {
+        Item target = storedItem();
+        copyNonNullProperties(itemPatch, target);
+        return target;
+    }
+
+    private User storedUser() {
+        return new User(1L, "zimablue@gmail.com", "zima", null);
+    }
+
+    private Item storedItem() {
+        return new Item(1L, owner, "drill", "drilly-drilly-drill", true, request, null);
+    }
+
+    // the copy UserServiceImpl and ItemServiceImpl did on every PATCH before PatchApplier
+    private static void copyNonNullProperties(Object src, Object target) {
+        BeanUtils.copyProperties(src, target, getNullPropertyNames(src));
+    }
+
+    private static String[] getNullPropertyNames(Object source) {
+        final BeanWrapper src = new BeanWrapperImpl(source);
+        PropertyDescriptor[] pds = src.getPropertyDescriptors();
+
+        Set<String> emptyNames = new HashSet<>();
+        for (PropertyDescriptor pd : pds) {
+            Object srcValue = src.getPropertyValue(pd.getName());
+            if (srcValue == null) emptyNames.add(pd.getName());
+        }
+        String[] result = new String[emptyNames.size()];
+        return emptyNames.toArray(result);
+    }
+}
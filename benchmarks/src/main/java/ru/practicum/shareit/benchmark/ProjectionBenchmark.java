@@ -0,0 +1,158 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of GET /bookings and of GET /items for the owner, read as managed entities the way the services did
+ * and as the projections they select now. Run with -prof gc: gc.alloc.rate.norm is the heap one page costs. The
+ * entity reads run in a transaction, so their time includes the flush at commit that dirty checks every loaded
+ * entity; flushBookingEntities measures that flush alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    private static final long BOOKER_ID = 1;
+    private static final long OWNER_ID = 2;
+    private static final String BOOKINGS = "select b from Booking as b " +
+            "join fetch b.user " +
+            "join fetch b.item as i " +
+            "join fetch i.user " +
+            "left join fetch i.request " +
+            "where b.user.id = ?1 " +
+            "order by b.start desc, b.id desc";
+    private static final String ITEMS = "select i from Item as i " +
+            "join fetch i.user " +
+            "left join fetch i.request " +
+            "where i.user.id = ?1 " +
+            "order by i.id";
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private BookingRepository bookingRepository;
+    private ItemRepository itemRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=benchmark",
+                        "--spring.datasource.password=benchmark",
+                        "--logging.level.root=WARN");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+
+        seed(context.getBean(JdbcTemplate.class));
+        transactionTemplate.executeWithoutResult(status -> context.getBean(BookingViewRepository.class).insertMissing());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // the booker has every booking and the owner every item, each item answering a request of the booker;
+    // the database is fresh, so the identity columns number the users, requests and items from 1
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("insert into users (email, name) values ('booker@mail.ru', 'booker')");
+        jdbcTemplate.execute("insert into users (email, name) values ('owner@mail.ru', 'owner')");
+        jdbcTemplate.execute("insert into requests (description, created, creator_id) " +
+                "select concat('need ', x), dateadd('MINUTE', -x, timestamp '2022-08-01 12:00:00'), " + BOOKER_ID +
+                " from system_range(1, " + rows + ")");
+        jdbcTemplate.execute("insert into items (owner_id, name, description, is_available, request_id) " +
+                "select " + OWNER_ID + ", concat('item ', x), concat('description ', x), true, x " +
+                "from system_range(1, " + rows + ")");
+        jdbcTemplate.execute("insert into bookings (id, start_time, end_time, status, phase, user_id, item_id) " +
+                "select x, dateadd('HOUR', x, timestamp '2022-08-01 12:00:00'), " +
+                "dateadd('HOUR', x + 1, timestamp '2022-08-01 12:00:00'), 'APPROVED', 'COMPLETED', " + BOOKER_ID + ", x " +
+                "from system_range(1, " + rows + ")");
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingEntities() {
+        return transactionTemplate.execute(status -> BookingMapper.responseDtoListOf(entityManager
+                .createQuery(BOOKINGS, Booking.class)
+                .setParameter(1, BOOKER_ID)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingRows() {
+        return transactionTemplate.execute(status -> BookingMapper.responseDtoListOfRows(bookingRepository
+                .findBookings(BookingQuery.of(BOOKER_ID, false).build())));
+    }
+
+    @Benchmark
+    public List<ItemDto> itemEntities() {
+        return transactionTemplate.execute(status -> ItemMapper.listOf(entityManager
+                .createQuery(ITEMS, Item.class)
+                .setParameter(1, OWNER_ID)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<ItemDto> itemRows() {
+        return transactionTemplate.execute(status -> ItemMapper.listOfRows(itemRepository.findRowsByOwnerId(OWNER_ID)));
+    }
+
+    @Benchmark
+    public void flushBookingEntities(LoadedBookings loaded) {
+        loaded.entityManager.flush();
+    }
+
+    // a page of bookings loaded into a fresh persistence context before each flush
+    @State(Scope.Thread)
+    public static class LoadedBookings {
+        private EntityManager entityManager;
+
+        @Setup(Level.Invocation)
+        public void load(ProjectionBenchmark benchmark) {
+            entityManager = benchmark.entityManagerFactory.createEntityManager();
+            entityManager.getTransaction().begin();
+            entityManager.createQuery(BOOKINGS, Booking.class)
+                    .setParameter(1, BOOKER_ID)
+                    .getResultList();
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+    }
+}
@@ -1,91 +1,82 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory serverRequestFactory, ServerTransport serverTransport, ResponseCache serverResponseCache,
+            MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                serverTransport,
+                serverResponseCache,
+                meterRegistry
         );
     }
 
-    public ResponseEntity<Object> bookItem(long userId, BookingRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> bookItem(long userId, BookingRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> acceptOrDeclineBooking(long userId, long bookingId, Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> bookItems(long userId, BookingBatchRequestDto batchDto) {
+        return post("/batch", userId, batchDto);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> acceptOrDeclineBooking(long userId, long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
 
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        // the booking does not tell which item it is for, but only the owner who approves it sees its bookings
+        return evictingFor(patch("/" + bookingId + "?approved={approved}", userId, parameters, null), userId, "/items");
     }
 
-    public ResponseEntity<Object> getBooking(long userId, long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getUserBookings(long userId, String state, Integer from, Integer size, boolean isOwner) {
-        String ownerPath = "";
-        Map<String, Object> parameters;
+    public CompletableFuture<ResponseEntity<Object>> getUserBookings(long userId, String state, Integer from, Integer size, String cursor,
+                                                  boolean isOwner) {
+        StringBuilder path = new StringBuilder(isOwner ? "/owner" : "").append("?state={state}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
 
-        if (isOwner) {
-            ownerPath = "/owner";
+        if (from != null) {
+            path.append("&from={from}");
+            parameters.put("from", from);
         }
-
-        if (from != null && size != null) {
-            parameters = Map.of(
-                    "state", state,
-                    "from", from,
-                    "size", size
-            );
-        } else if (from == null && size == null) {
-            parameters = Map.of(
-                    "state", state
-            );
-        } else if (size == null) {
-            parameters = Map.of(
-                    "state", state,
-                    "from", from
-            );
-        } else {
-            parameters = Map.of(
-                    "state", state,
-                    "size", size
-            );
+        if (size != null) {
+            path.append("&size={size}");
+            parameters.put("size", size);
         }
-
-        if (parameters.containsKey("state") && parameters.containsKey("from") && parameters.containsKey("size")) {
-
-            return get(ownerPath + "?state={state}&from={from}&size={size}", userId, parameters);
-
-        } else if (!parameters.containsKey("from") && !parameters.containsKey("size")) {
-
-            return get(ownerPath + "?state={state}", userId, parameters);
-
-        } else if (!parameters.containsKey("size")) {
-
-            return get(ownerPath + "?state={state}&from={from}", userId, parameters);
-
-        } else {
-            return get(ownerPath + "?state={state}&size={size}", userId, parameters);
+        if (cursor != null) {
+            path.append("&cursor={cursor}");
+            parameters.put("cursor", cursor);
         }
+
+        return get(path.toString(), userId, parameters);
     }
 }
@@ -6,10 +6,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,14 +22,21 @@ public class BookingController {
 	private final BookingClient bookingClient;
 
 	@PostMapping
-	public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+	public CompletableFuture<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
 			@RequestBody @Valid BookingRequestDto requestDto) {
 		log.info("Create booking by user id {}", userId);
 		return bookingClient.bookItem(userId, requestDto);
 	}
 
+	@PostMapping("/batch")
+	public CompletableFuture<ResponseEntity<Object>> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestBody @Valid BookingBatchRequestDto batchDto) {
+		log.info("Create {} bookings by user id {}", batchDto.getBookings().size(), userId);
+		return bookingClient.bookItems(userId, batchDto);
+	}
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> acceptOrDeclineBooking(@RequestHeader(name = "X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> acceptOrDeclineBooking(@RequestHeader(name = "X-Sharer-User-Id") long userId,
                                                      @PathVariable long bookingId,
                                                      @RequestParam boolean approved) {
         if (approved) {
@@ -39,27 +48,29 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getOneBooking(@RequestHeader(name = "X-Sharer-User-id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getOneBooking(@RequestHeader(name = "X-Sharer-User-id") long userId,
                                                 @PathVariable long bookingId) {
         log.info("Get booking id {} by user id {}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAllUserBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllUserBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
                                                        @RequestParam(defaultValue = "ALL") String state,
                                                        @Positive @RequestParam(required = false) Integer from,
-                                                       @Positive @RequestParam(required = false) Integer size) {
-        log.info("Get all user bookings state {} user id {} from {} size {}", state, userId, from, size);
-        return bookingClient.getUserBookings(userId, state, from, size, false);
+                                                       @Positive @RequestParam(required = false) Integer size,
+                                                       @RequestParam(required = false) String cursor) {
+        log.info("Get all user bookings state {} user id {} from {} size {} cursor {}", state, userId, from, size, cursor);
+        return bookingClient.getUserBookings(userId, state, from, size, cursor, false);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllOwnerBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllOwnerBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
                                                         @RequestParam(defaultValue = "ALL") String state,
                                                         @Positive @RequestParam(required = false) Integer from,
-                                                        @Positive @RequestParam(required = false) Integer size) {
-        log.info("Get all owner bookings state {} user id {} from {} size {}", state, userId, from, size);
-        return bookingClient.getUserBookings(userId, state, from, size, true);
+                                                        @Positive @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) String cursor) {
+        log.info("Get all owner bookings state {} user id {} from {} size {} cursor {}", state, userId, from, size, cursor);
+        return bookingClient.getUserBookings(userId, state, from, size, cursor, true);
     }
 }
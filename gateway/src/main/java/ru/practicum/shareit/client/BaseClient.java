@@ -1,98 +1,215 @@
 package ru.practicum.shareit.client;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
+    static final String METRIC = "shareit.gateway.client";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
     protected final RestTemplate rest;
+    private final ServerTransport transport;
+    private final ResponseCache responseCache;
+    private final MeterRegistry meterRegistry;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, ServerTransport transport, ResponseCache responseCache, MeterRegistry meterRegistry) {
         this.rest = rest;
+        this.transport = transport;
+        this.responseCache = responseCache;
+        this.meterRegistry = meterRegistry;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected CompletableFuture<ResponseEntity<Object>> cachedGet(String path, @Nullable Long userId) {
+        return cachedGet(path, userId, null);
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> cachedGet(String path, @Nullable Long userId, @Nullable Map<String, Object> parameters) {
+        URI uri;
+        try {
+            uri = expand(path, parameters);
+        } catch (RuntimeException e) {
+            return timed(Timer.start(meterRegistry), HttpMethod.GET, path, CompletableFuture.failedFuture(e));
+        }
+
+        return responseCache.get(uri, userId, etag -> {
+            HttpHeaders headers = defaultHeaders(userId);
+            if (etag != null)
+                headers.setIfNoneMatch(etag);
+            return send(HttpMethod.GET, path, uri, new HttpEntity<>(headers));
+        });
+    }
+
+    /**
+     * Evicts the cached responses of other resources a write changes as well, once it has been answered.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> evicting(CompletableFuture<ResponseEntity<Object>> write, String... serverPaths) {
+        return write.whenComplete((response, e) -> responseCache.invalidate(serverPaths));
+    }
+
+    /**
+     * Evicts the cached responses the given user read for other resources a write changes, once it has been answered.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> evictingFor(CompletableFuture<ResponseEntity<Object>> write, long userId,
+                                                                    String... serverPaths) {
+        return write.whenComplete((response, e) -> responseCache.invalidateFor(userId, serverPaths));
+    }
+
+    /**
+     * Expires the cached responses of other resources a write may have changed, once it has been answered, so the
+     * server's ETag decides on the next read which of them are loaded again.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> expiring(CompletableFuture<ResponseEntity<Object>> write, String... serverPaths) {
+        return write.whenComplete((response, e) -> responseCache.expire(serverPaths));
+    }
+
+    /**
+     * Gets a response whose body is handed on as an {@link org.springframework.core.io.InputStreamResource} over the
+     * server's body, so it reaches the caller while the server is still writing it.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> stream(String path, long userId, Map<String, Object> parameters,
+                                                               MediaType accept) {
+        URI uri;
+        try {
+            uri = expand(path, parameters);
+        } catch (RuntimeException e) {
+            return timed(Timer.start(meterRegistry), HttpMethod.GET, path, CompletableFuture.failedFuture(e));
+        }
+
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(accept));
+        return send(HttpMethod.GET, path, () -> transport.stream(HttpMethod.GET, uri, new HttpEntity<>(headers)));
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        URI uri;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            uri = expand(path, parameters);
+        } catch (RuntimeException e) {
+            return timed(Timer.start(meterRegistry), method, path, CompletableFuture.failedFuture(e));
         }
-        return prepareGatewayResponse(shareitServerResponse);
+
+        CompletableFuture<ResponseEntity<Object>> shareitServerResponse = send(method, path, uri, requestEntity);
+        if (method == HttpMethod.GET)
+            return shareitServerResponse;
+
+        // evicted once the server has answered, a read started before that is not cached either
+        return shareitServerResponse.whenComplete((response, e) -> responseCache.invalidate(uri.getRawPath()));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> send(HttpMethod method, String path, URI uri, HttpEntity<?> requestEntity) {
+        return send(method, path, () -> transport.exchange(method, uri, requestEntity));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> send(HttpMethod method, String path,
+                                                          Supplier<CompletableFuture<ResponseEntity<Object>>> exchange) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        CompletableFuture<ResponseEntity<Object>> shareitServerResponse;
+        try {
+            shareitServerResponse = exchange.get();
+        } catch (RuntimeException e) {
+            shareitServerResponse = CompletableFuture.failedFuture(e);
+        }
+        return timed(sample, method, path, shareitServerResponse);
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> timed(Timer.Sample sample, HttpMethod method, String path,
+                                                           CompletableFuture<ResponseEntity<Object>> shareitServerResponse) {
+        return shareitServerResponse.whenComplete((response, e) -> sample.stop(Timer.builder(METRIC)
+                .description("Time spent waiting for shareit-server")
+                .tag("client", getClass().getSimpleName())
+                .tag("method", method.name())
+                .tag("uri", uriOf(path))
+                .tag("status", response == null ? "IO_ERROR" : String.valueOf(response.getStatusCodeValue()))
+                .register(meterRegistry)));
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+    }
+
+    static String uriOf(String path) {
+        int query = path.indexOf('?');
+        String uri = ID_SEGMENT.matcher(query < 0 ? path : path.substring(0, query)).replaceAll("/{id}");
+        return uri.isEmpty() ? "/" : uri;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -104,18 +221,4 @@ public class BaseClient {
         }
         return headers;
     }
-
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
-        }
-
-        return responseBuilder.build();
-    }
 }
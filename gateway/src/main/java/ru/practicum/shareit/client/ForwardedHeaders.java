@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+final class ForwardedHeaders {
+    // describe the server's connection, not the response the gateway writes
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "keep-alive", "transfer-encoding", "upgrade");
+
+    private ForwardedHeaders() {
+    }
+
+    /**
+     * Server response headers the gateway may copy to its own response. Content-Length only holds while the body
+     * is copied byte for byte, so it is dropped when the body is parsed and written again.
+     */
+    static HttpHeaders of(Map<String, List<String>> serverHeaders, boolean sameBody) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            String lowerCaseName = name.toLowerCase();
+            if (!HOP_BY_HOP.contains(lowerCaseName) && (sameBody || !"content-length".equals(lowerCaseName)))
+                headers.addAll(name, values);
+        });
+        return headers;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpEntity;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking transport on the JDK {@link HttpClient}. The request thread is given back to Tomcat as soon as the
+ * request is sent, so the number of calls in flight is limited by memory rather than by the worker pool.
+ * <p>
+ * Responses are mapped the way {@link RestTemplateServerTransport} maps them, including the server's headers on
+ * successful responses, and I/O failures surface as {@link ResourceAccessException}. In passthrough mode the future
+ * completes as soon as the response headers arrive and the body is streamed while the gateway writes it.
+ */
+@RequiredArgsConstructor
+public class HttpClientServerTransport implements ServerTransport {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration readTimeout;
+    private final boolean passthrough;
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpEntity<?> request) {
+        if (passthrough)
+            return stream(method, uri, request);
+
+        return httpClient.sendAsync(requestOf(method, uri, request), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, e) -> {
+                    if (e != null)
+                        throw failureOf(method, uri, e);
+                    return responseOf(response);
+                });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> stream(HttpMethod method, URI uri, HttpEntity<?> request) {
+        return httpClient.sendAsync(requestOf(method, uri, request), HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, e) -> {
+                    if (e != null)
+                        throw failureOf(method, uri, e);
+                    return ResponseEntity.status(response.statusCode())
+                            .headers(ForwardedHeaders.of(response.headers().map(), true))
+                            .body(new InputStreamResource(response.body()));
+                });
+    }
+
+    private HttpRequest requestOf(HttpMethod method, URI uri, HttpEntity<?> request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .method(method.name(), bodyOf(request.getBody()));
+        request.getHeaders().forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+        return builder.build();
+    }
+
+    private HttpRequest.BodyPublisher bodyOf(Object body) {
+        if (body == null)
+            return HttpRequest.BodyPublishers.noBody();
+
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write request body", e);
+        }
+    }
+
+    private ResponseEntity<Object> responseOf(HttpResponse<byte[]> response) {
+        byte[] body = response.body();
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.statusCode());
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300)
+            return body.length > 0 ? responseBuilder.body(body) : responseBuilder.build();
+
+        responseBuilder.headers(ForwardedHeaders.of(response.headers().map(), false));
+
+        if (body.length == 0)
+            return responseBuilder.build();
+        try {
+            return responseBuilder.body(objectMapper.readValue(body, Object.class));
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Could not read shareit-server response", e, null);
+        }
+    }
+
+    private static RuntimeException failureOf(HttpMethod method, URI uri, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+        if (cause instanceof IOException)
+            return new ResourceAccessException(String.format("I/O error on %s request for \"%s\": %s",
+                    method, uri, cause.getMessage()), (IOException) cause);
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
+}
@@ -0,0 +1,339 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited cache of shareit-server GET responses, keyed by the full request URI and the
+ * {@code X-Sharer-User-Id} the response was read for. The least recently used entry is dropped once the cache
+ * is full.
+ * <p>
+ * Responses marked {@code no-store} are not kept, {@code max-age} shortens the time to live and {@code no-cache}
+ * keeps the entry only for revalidation. An expired entry with an ETag is revalidated with {@code If-None-Match},
+ * and a {@code 304} puts it back for another time to live.
+ * <p>
+ * Writes evict the resource they went to together with everything above and below it, so a POST to
+ * {@code /items/5/comment} drops {@code /items/5}. Writes that change other resources evict them only for the
+ * user who reads them differently now, or expire them so the server's ETag tells which ones actually changed.
+ * A response is only cached if nothing was evicted or expired while it was loaded, so a read that overlaps a
+ * write never puts the old representation back.
+ * <p>
+ * Every hit gets its own response: the headers are read-only and a parsed body is made unmodifiable once, while
+ * buffered bytes are copied for each caller.
+ */
+public class ResponseCache implements MeterBinder {
+    private final boolean enabled;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(boolean enabled, int maxSize, Duration ttl) {
+        this(enabled, maxSize, ttl, Clock.systemUTC());
+    }
+
+    ResponseCache(boolean enabled, int maxSize, Duration ttl, Clock clock) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Answers from the cache or calls {@code exchange}, which gets the ETag to send as {@code If-None-Match},
+     * or {@code null} for an unconditional request.
+     */
+    public CompletableFuture<ResponseEntity<Object>> get(URI uri, @Nullable Long userId,
+            Function<String, CompletableFuture<ResponseEntity<Object>>> exchange) {
+        if (!enabled)
+            return exchange.apply(null);
+
+        Key key = new Key(uri.toString(), userId);
+        Entry cached;
+        long loadGeneration;
+        synchronized (this) {
+            cached = entries.get(key);
+
+            if (cached != null && cached.getExpiresAt().isAfter(clock.instant())) {
+                hits.increment();
+                return CompletableFuture.completedFuture(cached.response());
+            }
+            if (cached != null && cached.getEtag() == null) {
+                entries.remove(key);
+                evictions.increment();
+                cached = null;
+            }
+            loadGeneration = generation;
+        }
+
+        if (cached == null) {
+            misses.increment();
+            return exchange.apply(null).thenApply(response -> store(key, uri, response, loadGeneration));
+        }
+
+        Entry revalidated = cached;
+        return exchange.apply(revalidated.getEtag()).thenApply(response -> {
+            if (response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+                misses.increment();
+                return store(key, uri, response, loadGeneration);
+            }
+
+            revalidations.increment();
+            discardBody(response);
+            Instant expiresAt = expiresAt(response.getHeaders());
+            if (expiresAt != null)
+                put(key, new Entry(uri.getRawPath(), revalidated.getStatus(), revalidated.getHeaders(),
+                        revalidated.getBody(), revalidated.getEtag(), expiresAt), loadGeneration);
+            return revalidated.response();
+        });
+    }
+
+    /**
+     * Evicts every response for the given server path, for the paths below it and for the paths above it.
+     */
+    public void invalidate(String... paths) {
+        evict(null, paths);
+    }
+
+    /**
+     * Evicts the responses the given user read for the paths, the way {@link #invalidate(String...)} does for all.
+     */
+    public void invalidateFor(long userId, String... paths) {
+        evict(userId, paths);
+    }
+
+    /**
+     * Expires the responses for the paths rather than evicting them. A response with an ETag is revalidated on its
+     * next read and only loaded again if the server's representation has changed; the others are evicted.
+     */
+    public void expire(String... paths) {
+        if (!enabled)
+            return;
+
+        synchronized (this) {
+            generation++;
+            Instant now = clock.instant();
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> cached = iterator.next();
+                if (!related(cached.getValue().getPath(), paths))
+                    continue;
+
+                if (cached.getValue().getEtag() == null) {
+                    iterator.remove();
+                    evictions.increment();
+                } else if (cached.getValue().getExpiresAt().isAfter(now)) {
+                    cached.setValue(cached.getValue().expiredAt(now));
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("cache", "responses");
+
+        Gauge.builder("cache.size", this, ResponseCache::size)
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", hits, LongAdder::doubleValue)
+                .tags(tags).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+                .tags(tags).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", revalidations, LongAdder::doubleValue)
+                .tags(tags).tag("result", "revalidated")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::doubleValue)
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::doubleValue)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void evict(@Nullable Long userId, String... paths) {
+        if (!enabled)
+            return;
+
+        synchronized (this) {
+            generation++;
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> cached = iterator.next();
+
+                if ((userId == null || userId.equals(cached.getKey().getUserId())) && related(cached.getValue().getPath(), paths)) {
+                    iterator.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private ResponseEntity<Object> store(Key key, URI uri, ResponseEntity<Object> response, long loadGeneration) {
+        if (response.getStatusCode() != HttpStatus.OK)
+            return response;
+
+        Instant expiresAt = expiresAt(response.getHeaders());
+        String etag = response.getHeaders().getETag();
+        if (expiresAt == null || (etag == null && !expiresAt.isAfter(clock.instant())))
+            return response;
+
+        // a streamed body can be read only once, the cache keeps its bytes and hands out copies of them
+        Entry entry = new Entry(uri.getRawPath(), response.getStatusCode(), readOnly(response.getHeaders()),
+                unmodifiable(bodyOf(response.getBody())), etag, expiresAt);
+        put(key, entry, loadGeneration);
+        return entry.response();
+    }
+
+    private synchronized void put(Key key, Entry entry, long loadGeneration) {
+        if (loadGeneration != generation)
+            return;
+
+        entries.put(key, entry);
+        puts.increment();
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // null when the response must not be stored at all
+    @Nullable
+    private Instant expiresAt(HttpHeaders headers) {
+        Duration maxAge = ttl;
+        String cacheControl = headers.getCacheControl();
+
+        if (cacheControl != null) {
+            for (String directive : cacheControl.toLowerCase().split(",")) {
+                directive = directive.trim();
+
+                if (directive.equals("no-store"))
+                    return null;
+                if (directive.equals("no-cache"))
+                    maxAge = Duration.ZERO;
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        Duration serverMaxAge = Duration.ofSeconds(Long.parseLong(directive.substring("max-age=".length())));
+                        if (serverMaxAge.compareTo(maxAge) < 0)
+                            maxAge = serverMaxAge;
+                    } catch (NumberFormatException ignored) {
+                        maxAge = Duration.ZERO;
+                    }
+                }
+            }
+        }
+        return clock.instant().plus(maxAge);
+    }
+
+    private static boolean related(String cached, String... paths) {
+        for (String path : paths) {
+            if (cached.equals(path) || cached.startsWith(path + "/") || path.startsWith(cached + "/"))
+                return true;
+        }
+        return false;
+    }
+
+    private static HttpHeaders readOnly(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> copy.put(name, List.copyOf(values)));
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    // parsed JSON is made of maps, lists and immutable values
+    private static Object unmodifiable(Object body) {
+        if (body instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<?, ?>) body).forEach((name, value) -> copy.put(name, unmodifiable(value)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (body instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            ((List<?>) body).forEach(value -> copy.add(unmodifiable(value)));
+            return Collections.unmodifiableList(copy);
+        }
+        return body;
+    }
+
+    private static Object bodyOf(Object body) {
+        if (!(body instanceof Resource))
+            return body;
+
+        try (InputStream stream = ((Resource) body).getInputStream()) {
+            return stream.readAllBytes();
+        } catch (IOException e) {
+            throw new ResourceAccessException(String.format("I/O error reading shareit-server response: %s", e.getMessage()), e);
+        }
+    }
+
+    private static void discardBody(ResponseEntity<Object> response) {
+        if (response.getBody() instanceof Resource)
+            bodyOf(response.getBody());
+    }
+
+    @Data
+    private static class Key {
+        private final String uri;
+        private final Long userId;
+    }
+
+    @Data
+    private static class Entry {
+        private final String path;
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final Object body;
+        private final String etag;
+        private final Instant expiresAt;
+
+        ResponseEntity<Object> response() {
+            return ResponseEntity.status(status).headers(headers).body(body instanceof byte[] ? ((byte[]) body).clone() : body);
+        }
+
+        Entry expiredAt(Instant now) {
+            return new Entry(path, status, headers, body, etag, now);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ResponseCacheConfiguration {
+    @Bean
+    public ResponseCache serverResponseCache(@Value("${shareit-server.cache.enabled:true}") boolean enabled,
+                                             @Value("${shareit-server.cache.max-size:10000}") int maxSize,
+                                             @Value("${shareit-server.cache.ttl:30s}") Duration ttl) {
+        return new ResponseCache(enabled, maxSize, ttl);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+@RequiredArgsConstructor
+public class RestTemplateServerTransport implements ServerTransport {
+    private final RestTemplate rest;
+    private final ObjectMapper objectMapper;
+    private final boolean passthrough;
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpEntity<?> request) {
+        if (passthrough)
+            return stream(method, uri, request);
+
+        ResponseEntity<Object> shareitServerResponse;
+        try {
+            shareitServerResponse = rest.exchange(uri, method, request, Object.class);
+        } catch (HttpStatusCodeException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray()));
+        }
+        return CompletableFuture.completedFuture(prepareGatewayResponse(shareitServerResponse));
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> stream(HttpMethod method, URI uri, HttpEntity<?> request) {
+        return CompletableFuture.completedFuture(passthrough(method, uri, request));
+    }
+
+    // RestTemplate closes the response once it is read, so the request goes through the factory and the open
+    // stream is handed on; writing the InputStreamResource closes it and releases the pooled connection
+    private ResponseEntity<Object> passthrough(HttpMethod method, URI uri, HttpEntity<?> request) {
+        try {
+            ClientHttpRequest serverRequest = rest.getRequestFactory().createRequest(uri, method);
+            serverRequest.getHeaders().putAll(request.getHeaders());
+            if (request.getBody() != null)
+                serverRequest.getBody().write(objectMapper.writeValueAsBytes(request.getBody()));
+
+            ClientHttpResponse serverResponse = serverRequest.execute();
+            return ResponseEntity.status(serverResponse.getRawStatusCode())
+                    .headers(ForwardedHeaders.of(serverResponse.getHeaders(), true))
+                    .body(new InputStreamResource(serverResponse.getBody()));
+        } catch (IOException e) {
+            throw new ResourceAccessException(String.format("I/O error on %s request for \"%s\": %s",
+                    method, uri, e.getMessage()), e);
+        }
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+
+        if (response.hasBody()) {
+            return responseBuilder.body(response.getBody());
+        }
+
+        return responseBuilder.build();
+    }
+}
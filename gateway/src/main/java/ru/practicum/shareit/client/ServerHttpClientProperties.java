@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class ServerHttpClientProperties {
+    private int maxTotal = 200;
+    private int maxPerRoute = 100;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    // how long a call waits for a free pooled connection
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+    // kept below Tomcat's 20s keep-alive timeout so the server does not close connections under us
+    private Duration keepAlive = Duration.ofSeconds(15);
+    private Duration idleTimeout = Duration.ofSeconds(15);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
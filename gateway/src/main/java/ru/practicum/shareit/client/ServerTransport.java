@@ -0,0 +1,28 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the gateway's requests to shareit-server. Which implementation is used is set with
+ * {@code shareit-server.transport}: {@code blocking} calls the server on the request thread, {@code async} releases
+ * the thread until the response arrives.
+ * <p>
+ * Responses keep the server's status. Successful bodies are parsed JSON and error bodies are the raw bytes the
+ * server sent. With {@code shareit-server.passthrough} enabled nothing is parsed: every response carries the
+ * server's headers and an {@link org.springframework.core.io.InputStreamResource} over its body, which the gateway
+ * copies to the caller as is.
+ */
+public interface ServerTransport {
+    CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpEntity<?> request);
+
+    /**
+     * Exchanges as in passthrough mode whatever {@code shareit-server.passthrough} is set to, for responses that are
+     * copied to the caller while the server is still writing them.
+     */
+    CompletableFuture<ResponseEntity<Object>> stream(HttpMethod method, URI uri, HttpEntity<?> request);
+}
@@ -1,61 +1,91 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory serverRequestFactory, ServerTransport serverTransport, ResponseCache serverResponseCache,
+            MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                serverTransport,
+                serverResponseCache,
+                meterRegistry
         );
     }
 
-    public ResponseEntity<Object> addItem(long userId, ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> addItem(long userId, ItemDto itemDto) {
 
-        return post("", userId, itemDto);
+        if (itemDto.getRequestId() == null)
+            return post("", userId, itemDto);
+        return evicting(post("", userId, itemDto), "/requests/" + itemDto.getRequestId());
     }
 
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemUserDto) {
-        return patch("/" + itemId, userId, itemUserDto);
+    public CompletableFuture<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemDto itemUserDto) {
+        return evicting(patch("/" + itemId, userId, itemUserDto), "/items/search");
     }
 
 
-    public ResponseEntity<Object> getItem(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getItem(long itemId, long userId) {
+        return cachedGet("/" + itemId, userId);
     }
 
 
-    public ResponseEntity<Object> getUserItems(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserItems(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> findItem(long userId, String text) {
-        Map<String, Object> parameters = Map.of(
-                "text", text
-        );
+    public CompletableFuture<ResponseEntity<Object>> findItem(long userId, String text, Integer from, Integer size, String cursor) {
+        StringBuilder path = new StringBuilder("/search?text={text}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+
+        if (from != null) {
+            path.append("&from={from}");
+            parameters.put("from", from);
+        }
+        if (size != null) {
+            path.append("&size={size}");
+            parameters.put("size", size);
+        }
+        if (cursor != null) {
+            path.append("&cursor={cursor}");
+            parameters.put("cursor", cursor);
+        }
+
+        return cachedGet(path.toString(), userId, parameters);
+    }
 
-        return get("/search?text={text}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> streamItems(long userId, String text) {
+        return stream("/search?text={text}", userId, Map.of("text", text), MediaType.APPLICATION_NDJSON);
     }
 
-    public ResponseEntity<Object> postComment(long userId, long itemId, CommentRequestDto commentRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> postComment(long userId, long itemId, CommentRequestDto commentRequestDto) {
         return post("/" + itemId + "/comment", userId, commentRequestDto);
     }
 }
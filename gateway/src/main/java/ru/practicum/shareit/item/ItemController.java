@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -11,23 +12,27 @@ import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/items")
+@Validated
 @RequiredArgsConstructor
 @Slf4j
 public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> addItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                   @Validated({ItemIdConstraint.class, ItemCreateConstraint.class}) @Valid @RequestBody ItemDto itemUserDto) {
         log.info("Create new item userid {} name {}", userId, itemUserDto.getName());
         return itemClient.addItem(userId, itemUserDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@PathVariable long itemId,
+    public CompletableFuture<ResponseEntity<Object>> updateItem(@PathVariable long itemId,
                               @RequestHeader("X-Sharer-User-Id") long userId,
                               @Valid @RequestBody ItemDto itemUserDto) {
         log.info("Update item id {}", itemId);
@@ -35,27 +40,37 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@PathVariable long itemId,
+    public CompletableFuture<ResponseEntity<Object>> getItem(@PathVariable long itemId,
                            @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get item id {}", itemId);
         return itemClient.getItem(itemId, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get user {} items", userId);
         return itemClient.getUserItems(userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @RequestParam(name = "text") String text) {
-        log.info("Search item text {}", text);
-        return itemClient.findItem(userId, text);
+    public CompletableFuture<ResponseEntity<Object>> searchItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                             @RequestParam(name = "text") String text,
+                                             @PositiveOrZero @RequestParam(required = false) Integer from,
+                                             @Positive @RequestParam(required = false) Integer size,
+                                             @RequestParam(required = false) String cursor) {
+        log.info("Search item text {} from {} size {} cursor {}", text, from, size, cursor);
+        return itemClient.findItem(userId, text, from, size, cursor);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ResponseEntity<Object>> streamItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @RequestParam(name = "text") String text) {
+        log.info("Stream items text {}", text);
+        return itemClient.streamItems(userId, text);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> postComment(@RequestHeader(name = "X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> postComment(@RequestHeader(name = "X-Sharer-User-Id") long userId,
                                           @PathVariable long itemId,
                                           @Valid @RequestBody CommentRequestDto commentRequestDto) {
         log.info("Post comment userid {} itemid {}", userId, itemId);
@@ -1,71 +1,71 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory serverRequestFactory, ServerTransport serverTransport, ResponseCache serverResponseCache,
+            MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                serverTransport,
+                serverResponseCache,
+                meterRegistry
         );
     }
 
-    public ResponseEntity<Object> addNewRequest(long userId, ItemRequestDto itemRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> addNewRequest(long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
 
-    public ResponseEntity<Object> getRequest(long userId, long requestId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getRequest(long userId, long requestId) {
+        return cachedGet("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> getUserRequests(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserRequests(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters;
-        if (from != null && size != null) {
-            parameters = Map.of(
-                    "from", from,
-                    "size", size
-            );
-        } else if (from == null && size != null) {
-            parameters = Map.of(
-                    "size", size
-            );
-        } else if (from != null) {
-            parameters = Map.of(
-                    "from", from
-            );
-        } else {
-            parameters = Map.of();
-        }
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(long userId, Integer from, Integer size, String cursor) {
+        StringBuilder path = new StringBuilder("/all");
+        Map<String, Object> parameters = new HashMap<>();
 
-        if (parameters.containsKey("from") && parameters.containsKey("size")) {
-            return get("/all?from={from}&size={size}", userId, parameters);
-        } else if (!parameters.containsKey("from") && parameters.containsKey("size")) {
-            return get("/all?size={size}", userId, parameters);
-        } else if (parameters.containsKey("from")) {
-            return get("/all?from={from}", userId, parameters);
-        } else {
-            return get("/all", userId);
+        if (from != null) {
+            path.append(parameters.isEmpty() ? "?" : "&").append("from={from}");
+            parameters.put("from", from);
+        }
+        if (size != null) {
+            path.append(parameters.isEmpty() ? "?" : "&").append("size={size}");
+            parameters.put("size", size);
         }
+        if (cursor != null) {
+            path.append(parameters.isEmpty() ? "?" : "&").append("cursor={cursor}");
+            parameters.put("cursor", cursor);
+        }
+
+        return get(path.toString(), userId, parameters);
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/requests")
@@ -16,31 +17,32 @@ public class ItemRequestController {
     private final ItemRequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> addNewItemRequest(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> addNewItemRequest(@RequestHeader(value = "X-Sharer-User-Id") long userId,
                                             @Valid @RequestBody ItemRequestDto itemRequestDto) {
         log.info("Create new item request by user id {}", userId);
         return requestClient.addNewRequest(userId, itemRequestDto);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequest(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getItemRequest(@RequestHeader(value = "X-Sharer-User-Id") long userId,
                                          @PathVariable long requestId) {
         log.info("Get item request id {} by user id {}", requestId, userId);
         return requestClient.getRequest(userId, requestId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUserRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllUserRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId) {
         log.info("Get all user requests user id {}", userId);
         return requestClient.getUserRequests(userId);
     }
 
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId,
                                                @RequestParam(required = false) Integer from,
-                                               @RequestParam(required = false) Integer size) {
-        log.info("Get all requests by user id {} from {} size {}", userId, from, size);
-        return requestClient.getAllRequests(userId, from, size);
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(required = false) String cursor) {
+        log.info("Get all requests by user id {} from {} size {} cursor {}", userId, from, size, cursor);
+        return requestClient.getAllRequests(userId, from, size, cursor);
     }
 }
\ No newline at end of file
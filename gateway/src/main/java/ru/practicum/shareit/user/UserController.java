@@ -11,6 +11,7 @@ import ru.practicum.shareit.user.constraints.UserIdConstraint;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/users")
@@ -21,32 +22,32 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping()
-    public ResponseEntity<Object> createNewUser(@Validated({UserIdConstraint.class, UserCreateConstraint.class}) @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> createNewUser(@Validated({UserIdConstraint.class, UserCreateConstraint.class}) @RequestBody UserDto userDto) {
         log.info("Create new user name {} email {}", userDto.getName(), userDto.getEmail());
         return userClient.newUser(userDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         log.info("Get all users");
         return userClient.getAllUsers();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUser(@PathVariable long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUser(@PathVariable long userId) {
         log.info("Get user id {}", userId);
         return userClient.getUser(userId);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> patchUser(@PathVariable long userId,
+    public CompletableFuture<ResponseEntity<Object>> patchUser(@PathVariable long userId,
                                             @Validated(UserIdConstraint.class) @Valid @RequestBody UserDto userDto) {
         log.info("Patch user id {}", userId);
         return userClient.patchUser(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(@PathVariable long userId) {
         log.info("Delete user id {}", userId);
         return userClient.deleteUser(userId);
     }
@@ -11,6 +11,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -19,10 +23,14 @@ import ru.practicum.shareit.user.dto.UserDto;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(controllers = BookingController.class)
 class BookingControllerTest {
@@ -89,9 +97,9 @@ class BookingControllerTest {
 
         Mockito
                 .when(bookingClient.bookItem(bookerDto.getId(), bookingRequestDto))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(post("/bookings")
+        performAsync(post("/bookings")
                         .header("X-Sharer-User-Id", String.valueOf(bookerDto.getId()))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -102,6 +110,51 @@ class BookingControllerTest {
 
     }
 
+    @Test
+    void bookItems() throws Exception {
+        BookingBatchRequestDto batchDto = BookingBatchRequestDto.builder()
+                .bookings(List.of(bookingRequestDto))
+                .build();
+        ResponseEntity<Object> responseEntity = ResponseEntity.ok(mapper.writeValueAsString(
+                List.of(Map.of("status", 200, "booking", bookingResponseDto))));
+
+        Mockito
+                .when(bookingClient.bookItems(bookerDto.getId(), batchDto))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
+
+        performAsync(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", String.valueOf(bookerDto.getId()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(batchDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].booking.id").value(1L));
+    }
+
+    @Test
+    void bookItemsValidatesEveryEntry() throws Exception {
+        bookingRequestDto.setEnd(LocalDateTime.now().minusDays(1));
+        BookingBatchRequestDto batchDto = BookingBatchRequestDto.builder()
+                .bookings(List.of(bookingRequestDto))
+                .build();
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", String.valueOf(bookerDto.getId()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(batchDto)))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", String.valueOf(bookerDto.getId()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookings\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(bookingClient);
+    }
+
     @Test
     void acceptOrDeclineBooking() throws Exception {
         bookingResponseDto.setStatus("APPROVED");
@@ -109,9 +162,9 @@ class BookingControllerTest {
 
         Mockito
                 .when(bookingClient.acceptOrDeclineBooking(ownerDto.getId(), 1L, true))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(patch("/bookings/{bookingId}", bookingResponseDto.getId())
+        performAsync(patch("/bookings/{bookingId}", bookingResponseDto.getId())
                         .header("X-Sharer-User-Id", ownerDto.getId())
                         .param("approved", String.valueOf(true)))
                 .andExpect(status().isOk())
@@ -125,9 +178,9 @@ class BookingControllerTest {
 
         Mockito
                 .when(bookingClient.getBooking(bookerDto.getId(), bookingResponseDto.getId()))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/bookings/{bookingId}", bookingResponseDto.getId())
+        performAsync(get("/bookings/{bookingId}", bookingResponseDto.getId())
                         .header("X-Sharer-User-Id", bookerDto.getId()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
@@ -152,10 +205,10 @@ class BookingControllerTest {
         ResponseEntity<Object> responseEntity = ResponseEntity.ok(mapper.writeValueAsString(expectedList));
 
         Mockito
-                .when(bookingClient.getUserBookings(bookerDto.getId(), "ALL", 1, 10, false))
-                .thenReturn(responseEntity);
+                .when(bookingClient.getUserBookings(bookerDto.getId(), "ALL", 1, 10, null, false))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/bookings")
+        performAsync(get("/bookings")
                         .header("X-Sharer-User-Id", bookerDto.getId())
                         .param("state", "ALL")
                         .param("from", String.valueOf(1))
@@ -183,10 +236,10 @@ class BookingControllerTest {
         ResponseEntity<Object> responseEntity = ResponseEntity.ok(mapper.writeValueAsString(expectedList));
 
         Mockito
-                .when(bookingClient.getUserBookings(bookerDto.getId(), "ALL", 1, 10, true))
-                .thenReturn(responseEntity);
+                .when(bookingClient.getUserBookings(bookerDto.getId(), "ALL", 1, 10, null, true))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/bookings/owner")
+        performAsync(get("/bookings/owner")
                         .header("X-Sharer-User-Id", bookerDto.getId())
                         .param("state", "ALL")
                         .param("from", String.valueOf(1))
@@ -195,4 +248,34 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(expectedList.get(0).getId()))
                 .andExpect(jsonPath("$[1].id").value(expectedList.get(1).getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllUserBookingsWithCursor() throws Exception {
+        List<BookingResponseDto> expectedList = List.of(bookingResponseDto);
+
+        ResponseEntity<Object> responseEntity = ResponseEntity.ok()
+                .header("X-Next-Cursor", "next")
+                .body(mapper.writeValueAsString(expectedList));
+
+        Mockito
+                .when(bookingClient.getUserBookings(bookerDto.getId(), "ALL", null, 1, "current", false))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
+
+        performAsync(get("/bookings")
+                        .header("X-Sharer-User-Id", bookerDto.getId())
+                        .param("state", "ALL")
+                        .param("size", String.valueOf(1))
+                        .param("cursor", "current"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(expectedList.get(0).getId()));
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mvc.perform(asyncDispatch(result));
+    }
+}
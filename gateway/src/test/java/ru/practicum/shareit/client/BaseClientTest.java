@@ -0,0 +1,175 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+    MeterRegistry meterRegistry;
+    MockRestServiceServer server;
+    TestClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:9090/bookings"))
+                .build();
+
+        meterRegistry = new SimpleMeterRegistry();
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest, new RestTemplateServerTransport(rest, new ObjectMapper(), false),
+                new ResponseCache(true, 100, Duration.ofMinutes(1)), meterRegistry);
+    }
+
+    @Test
+    void callsAreTimedPerEndpointAndStatus() {
+        server.expect(requestTo("http://localhost:9090/bookings/5")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://localhost:9090/bookings/7")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://localhost:9090/bookings/5?approved=true")).andExpect(method(HttpMethod.PATCH))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+
+        client.get("/5", 1L);
+        client.get("/7", 1L);
+        client.patch("/5?approved={approved}", 1L, Map.of("approved", true), null);
+
+        server.verify();
+        Assertions.assertEquals(2, meterRegistry.get(BaseClient.METRIC)
+                .tags("client", "TestClient", "method", "GET", "uri", "/{id}", "status", "200")
+                .timer().count());
+        Assertions.assertEquals(1, meterRegistry.get(BaseClient.METRIC)
+                .tags("client", "TestClient", "method", "PATCH", "uri", "/{id}", "status", "400")
+                .timer().count());
+    }
+
+    @Test
+    void failedCallsAreTimed() {
+        server.expect(requestTo("http://localhost:9090/bookings")).andRespond(request -> {
+            throw new IOException("Connection refused");
+        });
+
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> client.post("", 1L, Map.of()).join());
+
+        Assertions.assertTrue(e.getCause() instanceof ResourceAccessException);
+
+        Assertions.assertEquals(1, meterRegistry.get(BaseClient.METRIC)
+                .tags("method", "POST", "uri", "/", "status", "IO_ERROR")
+                .timer().count());
+    }
+
+    @Test
+    void cachedGetsAreServedUntilTheResourceIsWritten() {
+        server.expect(ExpectedCount.twice(), requestTo("http://localhost:9090/bookings/5")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"id\":5}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://localhost:9090/bookings/5")).andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess());
+
+        Object first = client.cachedGet("/5", 1L).join().getBody();
+        Object second = client.cachedGet("/5", 1L).join().getBody();
+        client.patch("/5", 1L, Map.of()).join();
+        client.cachedGet("/5", 1L).join();
+
+        server.verify();
+        Assertions.assertEquals(Map.of("id", 5), first);
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(2, meterRegistry.get(BaseClient.METRIC)
+                .tags("method", "GET", "uri", "/{id}", "status", "200")
+                .timer().count());
+    }
+
+    @Test
+    void cachedGetsAreKeptPerUser() {
+        server.expect(ExpectedCount.twice(), requestTo("http://localhost:9090/bookings/5")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        client.cachedGet("/5", 1L).join();
+        client.cachedGet("/5", 2L).join();
+        client.cachedGet("/5", 1L).join();
+
+        server.verify();
+    }
+
+    @Test
+    void expiredResponsesAreRevalidatedWithTheirEtag() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"3\"");
+        headers.setCacheControl("no-cache");
+        server.expect(requestTo("http://localhost:9090/bookings/5")).andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess("{\"id\":5}", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo("http://localhost:9090/bookings/5")).andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers));
+
+        client.cachedGet("/5", 1L).join();
+        ResponseEntity<Object> revalidated = client.cachedGet("/5", 1L).join();
+
+        server.verify();
+        Assertions.assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        Assertions.assertEquals(Map.of("id", 5), revalidated.getBody());
+        Assertions.assertEquals("\"3\"", revalidated.getHeaders().getETag());
+    }
+
+    @Test
+    void streamedGetsPassTheBodyThroughAndAreTimed() throws IOException {
+        server.expect(requestTo("http://localhost:9090/bookings/search?text=drill")).andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess("{\"id\":5}\n", MediaType.APPLICATION_NDJSON));
+
+        ResponseEntity<Object> response = client.stream("/search?text={text}", 1L, Map.of("text", "drill"),
+                MediaType.APPLICATION_NDJSON).join();
+
+        server.verify();
+        Assertions.assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        try (InputStream body = ((InputStreamResource) response.getBody()).getInputStream()) {
+            Assertions.assertEquals("{\"id\":5}\n", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        Assertions.assertEquals(1, meterRegistry.get(BaseClient.METRIC)
+                .tags("method", "GET", "uri", "/search", "status", "200")
+                .timer().count());
+    }
+
+    @Test
+    void uriOf() {
+        Assertions.assertEquals("/", BaseClient.uriOf(""));
+        Assertions.assertEquals("/{id}", BaseClient.uriOf("/12"));
+        Assertions.assertEquals("/{id}/comment", BaseClient.uriOf("/12/comment"));
+        Assertions.assertEquals("/owner", BaseClient.uriOf("/owner?state={state}&from={from}"));
+        Assertions.assertEquals("/search", BaseClient.uriOf("/search?text={text}"));
+    }
+
+    static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest, ServerTransport transport, ResponseCache responseCache, MeterRegistry meterRegistry) {
+            super(rest, transport, responseCache, meterRegistry);
+        }
+    }
+}
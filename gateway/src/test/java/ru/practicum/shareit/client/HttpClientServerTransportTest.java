@@ -0,0 +1,139 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+class HttpClientServerTransportTest {
+    HttpServer server;
+    HttpClientServerTransport transport;
+    String receivedBody;
+    String receivedUserId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/bookings", exchange -> {
+            receivedBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            receivedUserId = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+
+            byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("X-Next-Cursor", "next");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/bookings/404", exchange -> {
+            byte[] body = "{\"error\":\"Booking id 404 not found\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(404, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        transport = transport(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void successfulResponseIsParsedWithHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Sharer-User-Id", "1");
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.POST, uri("/bookings"),
+                new HttpEntity<>(Map.of("itemId", 2), headers)).join();
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals(List.of(Map.of("id", 1)), response.getBody());
+        Assertions.assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+        Assertions.assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+        Assertions.assertEquals("{\"itemId\":2}", receivedBody);
+        Assertions.assertEquals("1", receivedUserId);
+    }
+
+    @Test
+    void errorResponseKeepsRawBody() {
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, uri("/bookings/404"), HttpEntity.EMPTY).join();
+
+        Assertions.assertEquals(404, response.getStatusCodeValue());
+        Assertions.assertEquals("{\"error\":\"Booking id 404 not found\"}",
+                new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void passthroughStreamsBodyAndHeaders() throws IOException {
+        ResponseEntity<Object> response = transport(true).exchange(HttpMethod.GET, uri("/bookings"), HttpEntity.EMPTY).join();
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals("[{\"id\":1}]", bodyOf(response));
+        Assertions.assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertEquals(10, response.getHeaders().getContentLength());
+
+        response = transport(true).exchange(HttpMethod.GET, uri("/bookings/404"), HttpEntity.EMPTY).join();
+
+        Assertions.assertEquals(404, response.getStatusCodeValue());
+        Assertions.assertEquals("{\"error\":\"Booking id 404 not found\"}", bodyOf(response));
+    }
+
+    @Test
+    void streamPassesBodyThroughWithoutPassthroughMode() throws IOException {
+        ResponseEntity<Object> response = transport.stream(HttpMethod.GET, uri("/bookings"), HttpEntity.EMPTY).join();
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals("[{\"id\":1}]", bodyOf(response));
+        Assertions.assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    void connectionFailureIsResourceAccessException() {
+        URI uri = uri("/bookings");
+        server.stop(0);
+
+        CompletionException e = Assertions.assertThrows(CompletionException.class,
+                () -> transport.exchange(HttpMethod.GET, uri, HttpEntity.EMPTY).join());
+
+        Assertions.assertTrue(e.getCause() instanceof ResourceAccessException);
+    }
+
+    private HttpClientServerTransport transport(boolean passthrough) {
+        return new HttpClientServerTransport(HttpClient.newHttpClient(), new ObjectMapper(), Duration.ofSeconds(5), passthrough);
+    }
+
+    private String bodyOf(ResponseEntity<Object> response) throws IOException {
+        try (InputStream body = ((InputStreamResource) response.getBody()).getInputStream()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+}
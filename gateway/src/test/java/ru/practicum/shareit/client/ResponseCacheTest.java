@@ -0,0 +1,252 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+class ResponseCacheTest {
+    static final URI ITEM = URI.create("http://localhost:9090/items/5");
+
+    MutableClock clock;
+    ResponseCache cache;
+    List<String> calls;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        cache = new ResponseCache(true, 2, Duration.ofSeconds(30), clock);
+        calls = new ArrayList<>();
+    }
+
+    @Test
+    void responsesExpireAfterTtl() {
+        get(ITEM, 1L, ok("a"));
+        get(ITEM, 1L, ok("b"));
+        clock.advance(Duration.ofSeconds(31));
+        Object body = get(ITEM, 1L, ok("c")).getBody();
+
+        Assertions.assertEquals(2, calls.size());
+        Assertions.assertEquals("c", body);
+    }
+
+    @Test
+    void leastRecentlyUsedResponseIsDroppedWhenFull() {
+        URI second = URI.create("http://localhost:9090/items/6");
+        URI third = URI.create("http://localhost:9090/items/7");
+
+        get(ITEM, 1L, ok("a"));
+        get(second, 1L, ok("b"));
+        get(ITEM, 1L, ok("a"));
+        get(third, 1L, ok("c"));
+        get(ITEM, 1L, ok("a"));
+        get(second, 1L, ok("b"));
+
+        Assertions.assertEquals(List.of(ITEM.toString(), second.toString(), third.toString(), second.toString()), calls);
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    void queryParametersArePartOfTheKey() {
+        get(URI.create("http://localhost:9090/items/search?text=drill"), 1L, ok("a"));
+        get(URI.create("http://localhost:9090/items/search?text=saw"), 1L, ok("b"));
+        get(URI.create("http://localhost:9090/items/search?text=drill"), 1L, ok("a"));
+
+        Assertions.assertEquals(2, calls.size());
+    }
+
+    @Test
+    void cacheControlIsHonoured() {
+        get(ITEM, 1L, ok("a", "no-store", null));
+        get(ITEM, 1L, ok("b", "max-age=5", null));
+        get(ITEM, 1L, ok("c"));
+        clock.advance(Duration.ofSeconds(6));
+        get(ITEM, 1L, ok("d"));
+
+        Assertions.assertEquals(3, calls.size());
+    }
+
+    @Test
+    void notModifiedKeepsTheCachedBody() {
+        get(ITEM, 1L, ok("a", "max-age=0", "\"1\""));
+        ResponseEntity<Object> revalidated = get(ITEM, 1L, etag -> {
+            Assertions.assertEquals("\"1\"", etag);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        });
+        get(ITEM, 1L, ok("b"));
+
+        Assertions.assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        Assertions.assertEquals("a", revalidated.getBody());
+        Assertions.assertEquals(2, calls.size());
+    }
+
+    @Test
+    void writesEvictTheResourceAndEverythingAboveAndBelowIt() {
+        URI search = URI.create("http://localhost:9090/items/search?text=drill");
+        URI user = URI.create("http://localhost:9090/users/5");
+        cache = new ResponseCache(true, 10, Duration.ofSeconds(30), clock);
+
+        get(ITEM, 1L, ok("a"));
+        get(search, 1L, ok("b"));
+        get(user, null, ok("c"));
+
+        cache.invalidate("/items/5/comment");
+        Assertions.assertEquals(2, cache.size());
+
+        cache.invalidate("/items");
+        Assertions.assertEquals(1, cache.size());
+
+        cache.invalidate("/users/50");
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    void writesOfAUserEvictOnlyTheResponsesTheyRead() {
+        cache = new ResponseCache(true, 10, Duration.ofSeconds(30), clock);
+
+        get(ITEM, 1L, ok("a"));
+        get(ITEM, 2L, ok("b"));
+
+        cache.invalidateFor(1L, "/items");
+        get(ITEM, 1L, ok("c"));
+        get(ITEM, 2L, ok("d"));
+
+        Assertions.assertEquals(List.of(ITEM.toString(), ITEM.toString(), ITEM.toString()), calls);
+    }
+
+    @Test
+    void expiredResponsesAreRevalidatedAndTheOthersEvicted() {
+        URI search = URI.create("http://localhost:9090/items/search?text=drill");
+        cache = new ResponseCache(true, 10, Duration.ofSeconds(30), clock);
+
+        get(ITEM, 1L, ok("a", null, "\"1\""));
+        get(search, 1L, ok("b"));
+
+        cache.expire("/items");
+        Assertions.assertEquals(1, cache.size());
+
+        ResponseEntity<Object> revalidated = get(ITEM, 1L, etag -> {
+            Assertions.assertEquals("\"1\"", etag);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        });
+        get(ITEM, 1L, ok("c"));
+
+        Assertions.assertEquals("a", revalidated.getBody());
+        Assertions.assertEquals(List.of(ITEM.toString(), search.toString(), ITEM.toString()), calls);
+    }
+
+    @Test
+    void hitsDoNotShareMutableState() {
+        URI other = URI.create("http://localhost:9090/items/6");
+        get(ITEM, 1L, ok(new LinkedHashMap<>(Map.of("comments", new ArrayList<>(List.of("a"))))));
+        get(other, 1L, etag -> CompletableFuture.completedFuture(
+                ResponseEntity.ok(new InputStreamResource(new ByteArrayInputStream(new byte[]{1, 2})))));
+
+        ResponseEntity<Object> hit = get(ITEM, 1L, ok("b"));
+        Map<?, ?> body = (Map<?, ?>) hit.getBody();
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> hit.getHeaders().add("X-Next-Cursor", "next"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> ((List<?>) body.get("comments")).clear());
+        Assertions.assertNotSame(get(other, 1L, ok("c")).getBody(), get(other, 1L, ok("c")).getBody());
+        Assertions.assertEquals(2, calls.size());
+    }
+
+    @Test
+    void responseReadDuringAWriteIsNotCached() {
+        CompletableFuture<ResponseEntity<Object>> pending = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> response = cache.get(ITEM, 1L, etag -> pending);
+
+        cache.invalidate("/items/5");
+        pending.complete(ResponseEntity.ok("old"));
+
+        Assertions.assertEquals("old", response.join().getBody());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void streamedBodiesAreBufferedOnce() {
+        Function<String, CompletableFuture<ResponseEntity<Object>>> stream = etag -> {
+            calls.add(ITEM.toString());
+            return CompletableFuture.completedFuture(ResponseEntity.ok(new InputStreamResource(new ByteArrayInputStream(new byte[]{1, 2}))));
+        };
+
+        Object first = cache.get(ITEM, 1L, stream).join().getBody();
+        Object second = cache.get(ITEM, 1L, stream).join().getBody();
+
+        Assertions.assertArrayEquals(new byte[]{1, 2}, (byte[]) first);
+        Assertions.assertArrayEquals(new byte[]{1, 2}, (byte[]) second);
+        Assertions.assertEquals(1, calls.size());
+    }
+
+    @Test
+    void disabledCacheAlwaysCallsTheServer() {
+        cache = new ResponseCache(false, 10, Duration.ofSeconds(30), clock);
+
+        get(ITEM, 1L, ok("a"));
+        get(ITEM, 1L, ok("a"));
+
+        Assertions.assertEquals(2, calls.size());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    private ResponseEntity<Object> get(URI uri, Long userId, Function<String, CompletableFuture<ResponseEntity<Object>>> exchange) {
+        return cache.get(uri, userId, etag -> {
+            calls.add(uri.toString());
+            return exchange.apply(etag);
+        }).join();
+    }
+
+    private static Function<String, CompletableFuture<ResponseEntity<Object>>> ok(Object body) {
+        return ok(body, null, null);
+    }
+
+    private static Function<String, CompletableFuture<ResponseEntity<Object>>> ok(Object body, String cacheControl, String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (cacheControl != null)
+            response.header("Cache-Control", cacheControl);
+        if (etag != null)
+            response.eTag(etag);
+
+        ResponseEntity<Object> entity = response.body(body);
+        return ignored -> CompletableFuture.completedFuture(entity);
+    }
+
+    static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2022-08-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
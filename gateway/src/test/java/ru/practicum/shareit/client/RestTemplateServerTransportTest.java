@@ -0,0 +1,97 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RestTemplateServerTransportTest {
+    static final URI BOOKINGS = URI.create("http://localhost:9090/bookings");
+
+    RestTemplate rest;
+    MockRestServiceServer server;
+    HttpEntity<Object> request;
+
+    @BeforeEach
+    void setUp() {
+        rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Sharer-User-Id", "1");
+        request = new HttpEntity<>(Map.of("itemId", 2), headers);
+    }
+
+    @Test
+    void parsedResponse() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Next-Cursor", "next");
+        server.expect(requestTo(BOOKINGS)).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("[{\"id\":1}]", MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> response = transport(false).exchange(HttpMethod.POST, BOOKINGS, request).join();
+
+        Assertions.assertEquals(List.of(Map.of("id", 1)), response.getBody());
+        Assertions.assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    void passthroughResponse() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Next-Cursor", "next");
+        server.expect(requestTo(BOOKINGS)).andExpect(method(HttpMethod.POST))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andExpect(content().json("{\"itemId\":2}"))
+                .andRespond(withSuccess("[{\"id\":1}]", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo(BOOKINGS)).andExpect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON).body("{\"error\":\"booked\"}"));
+
+        ResponseEntity<Object> response = transport(true).exchange(HttpMethod.POST, BOOKINGS, request).join();
+
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals("[{\"id\":1}]", bodyOf(response));
+        Assertions.assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+
+        response = transport(true).exchange(HttpMethod.POST, BOOKINGS, request).join();
+
+        Assertions.assertEquals(409, response.getStatusCodeValue());
+        Assertions.assertEquals("{\"error\":\"booked\"}", bodyOf(response));
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        server.verify();
+    }
+
+    private RestTemplateServerTransport transport(boolean passthrough) {
+        return new RestTemplateServerTransport(rest, new ObjectMapper(), passthrough);
+    }
+
+    private String bodyOf(ResponseEntity<Object> response) throws IOException {
+        try (InputStream body = ((InputStreamResource) response.getBody()).getInputStream()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class ServerHttpClientConfigurationTest {
+    static final int CONCURRENT_CALLS = 8;
+
+    ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ServerHttpClientConfiguration.class)
+            .withBean(RestTemplateBuilder.class, RestTemplateBuilder::new)
+            .withBean(ObjectMapper.class)
+            .withPropertyValues("shareit-server.http.max-total=20", "shareit-server.http.max-per-route=10");
+
+    HttpServer server;
+    CountDownLatch allInFlight;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        allInFlight = new CountDownLatch(CONCURRENT_CALLS);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(CONCURRENT_CALLS * 2));
+        server.createContext("/items", exchange -> {
+            allInFlight.countDown();
+            try {
+                exchange.sendResponseHeaders(allInFlight.await(5, TimeUnit.SECONDS) ? 200 : 503, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void poolIsConfigured() {
+        contextRunner.run(context -> {
+            PoolingHttpClientConnectionManager connectionManager = context.getBean(PoolingHttpClientConnectionManager.class);
+
+            Assertions.assertEquals(20, connectionManager.getMaxTotal());
+            Assertions.assertEquals(10, connectionManager.getDefaultMaxPerRoute());
+            Assertions.assertTrue(context.getBean(ServerTransport.class) instanceof RestTemplateServerTransport);
+        });
+    }
+
+    @Test
+    void asyncTransportIsSelectable() {
+        contextRunner
+                .withPropertyValues("shareit-server.transport=async")
+                .run(context -> Assertions.assertTrue(context.getBean(ServerTransport.class) instanceof HttpClientServerTransport));
+    }
+
+    @Test
+    void callsToOneRouteDoNotQueueBehindEachOther() {
+        contextRunner.run(context -> {
+            RestTemplate rest = new RestTemplate(context.getBean(ClientHttpRequestFactory.class));
+            String url = "http://localhost:" + server.getAddress().getPort() + "/items";
+            ExecutorService callers = Executors.newFixedThreadPool(CONCURRENT_CALLS);
+
+            try {
+                List<Future<Integer>> statuses = new ArrayList<>();
+                for (int i = 0; i < CONCURRENT_CALLS; i++) {
+                    statuses.add(callers.submit(() -> rest.getForEntity(url, Void.class).getStatusCodeValue()));
+                }
+                for (Future<Integer> status : statuses) {
+                    Assertions.assertEquals(200, status.get(10, TimeUnit.SECONDS));
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            context.getBean(MeterBinder.class).bindTo(meterRegistry);
+
+            Assertions.assertEquals(CONCURRENT_CALLS, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                    .tags("httpclient", ServerHttpClientConfiguration.POOL_NAME, "state", "available")
+                    .gauge().value());
+            Assertions.assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                    .tags("state", "leased")
+                    .gauge().value());
+            Assertions.assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.pending")
+                    .gauge().value());
+        });
+    }
+}
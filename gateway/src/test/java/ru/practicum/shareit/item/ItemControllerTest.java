@@ -7,20 +7,25 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ItemController.class)
 class ItemControllerTest {
@@ -67,9 +72,9 @@ class ItemControllerTest {
 
         Mockito
                 .when(itemClient.addItem(ownerDto.getId(), itemRequestDto))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(post("/items")
+        performAsync(post("/items")
                         .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId()))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -93,9 +98,9 @@ class ItemControllerTest {
 
         Mockito
                 .when(itemClient.updateItem(ownerDto.getId(), newItemDto.getId(), newItemDto))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(patch("/items/{itemId}", newItemDto.getId())
+        performAsync(patch("/items/{itemId}", newItemDto.getId())
                         .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId()))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -112,9 +117,9 @@ class ItemControllerTest {
 
         Mockito
                 .when(itemClient.getItem(itemResponseDto.getId(), itemResponseDto.getUserId()))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/items/{itemId}", itemResponseDto.getId())
+        performAsync(get("/items/{itemId}", itemResponseDto.getId())
                         .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId())))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(itemResponseDto.getId()))
@@ -139,9 +144,9 @@ class ItemControllerTest {
 
         Mockito
                 .when(itemClient.getUserItems(ownerDto.getId()))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/items")
+        performAsync(get("/items")
                         .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId())))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(itemResponseDto.getId()))
@@ -155,10 +160,10 @@ class ItemControllerTest {
         ResponseEntity<Object> responseEntity = ResponseEntity.ok(mapper.writeValueAsString(List.of(itemResponseDto)));
 
         Mockito
-                .when(itemClient.findItem(ownerDto.getId(), "drill"))
-                .thenReturn(responseEntity);
+                .when(itemClient.findItem(ownerDto.getId(), "drill", null, null, null))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/items/search")
+        performAsync(get("/items/search")
                         .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId()))
                         .param("text", "drill"))
                 .andExpect(status().isOk())
@@ -166,6 +171,46 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].name").value(itemResponseDto.getName()));
     }
 
+    @Test
+    void searchItemWithCursor() throws Exception {
+        ResponseEntity<Object> responseEntity = ResponseEntity.ok()
+                .header("X-Next-Cursor", "next")
+                .body(mapper.writeValueAsString(List.of(itemResponseDto)));
+
+        Mockito
+                .when(itemClient.findItem(ownerDto.getId(), "drill", null, 1, "cursor"))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
+
+        performAsync(get("/items/search")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId()))
+                        .param("text", "drill")
+                        .param("size", "1")
+                        .param("cursor", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(itemResponseDto.getId()));
+    }
+
+    @Test
+    void streamItems() throws Exception {
+        String body = mapper.writeValueAsString(itemResponseDto) + "\n";
+        ResponseEntity<Object> responseEntity = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(new InputStreamResource(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+
+        Mockito
+                .when(itemClient.streamItems(ownerDto.getId(), "drill"))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
+
+        performAsync(get("/items/search")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId()))
+                        .param("text", "drill")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(body));
+    }
+
     @Test
     void postComment() throws Exception {
         CommentRequestDto commentRequestDto = CommentRequestDto.builder()
@@ -181,9 +226,9 @@ class ItemControllerTest {
 
         Mockito
                 .when(itemClient.postComment(ownerDto.getId(), itemResponseDto.getId(), commentRequestDto))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(post("/items/{itemId}/comment", itemResponseDto.getId())
+        performAsync(post("/items/{itemId}/comment", itemResponseDto.getId())
                         .header("X-Sharer-User-Id", String.valueOf(ownerDto.getId()))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -193,4 +238,12 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.text").value(commentResponseDto.getText()))
                 .andExpect(jsonPath("$.authorName").value(ownerDto.getName()));
     }
-}
\ No newline at end of file
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mvc.perform(asyncDispatch(result));
+    }
+}
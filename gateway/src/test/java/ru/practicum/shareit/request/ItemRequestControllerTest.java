@@ -10,18 +10,25 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(controllers = ItemRequestController.class)
 class ItemRequestControllerTest {
@@ -65,9 +72,9 @@ class ItemRequestControllerTest {
 
         Mockito
                 .when(itemRequestClient.addNewRequest(requesterDto.getId(), itemRequestRequest))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(post("/requests")
+        performAsync(post("/requests")
                         .header("X-Sharer-User-Id", String.valueOf(requesterDto.getId()))
                         .contentType(MediaType.APPLICATION_JSON)
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -83,9 +90,9 @@ class ItemRequestControllerTest {
 
         Mockito
                 .when(itemRequestClient.getRequest(requesterDto.getId(), itemRequestResponse.getId()))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/requests/{requestId}", itemRequestResponse.getId())
+        performAsync(get("/requests/{requestId}", itemRequestResponse.getId())
                         .header("X-Sharer-User-Id", String.valueOf(requesterDto.getId())))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(itemRequestResponse.getId()))
@@ -108,9 +115,9 @@ class ItemRequestControllerTest {
 
         Mockito
                 .when(itemRequestClient.getUserRequests(requesterDto.getId()))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/requests")
+        performAsync(get("/requests")
                         .header("X-Sharer-User-Id", String.valueOf(requesterDto.getId())))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(itemRequestResponse.getId()))
@@ -128,10 +135,10 @@ class ItemRequestControllerTest {
         ResponseEntity<Object> responseEntity = ResponseEntity.ok(mapper.writeValueAsString(expectedList));
 
         Mockito
-                .when(itemRequestClient.getAllRequests(requesterDto.getId(), 0, 1))
-                .thenReturn(responseEntity);
+                .when(itemRequestClient.getAllRequests(requesterDto.getId(), 0, 1, null))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/requests/all")
+        performAsync(get("/requests/all")
                         .header("X-Sharer-User-Id", String.valueOf(requesterDto.getId()))
                         .param("from", String.valueOf(0))
                         .param("size", String.valueOf(1)))
@@ -139,4 +146,31 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id").value(itemRequestResponse.getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRequestsWithCursor() throws Exception {
+        ResponseEntity<Object> responseEntity = ResponseEntity.ok()
+                .header("X-Next-Cursor", "next")
+                .body(mapper.writeValueAsString(List.of(itemRequestResponse)));
+
+        Mockito
+                .when(itemRequestClient.getAllRequests(requesterDto.getId(), null, 1, "cursor"))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
+
+        performAsync(get("/requests/all")
+                        .header("X-Sharer-User-Id", String.valueOf(requesterDto.getId()))
+                        .param("size", String.valueOf(1))
+                        .param("cursor", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(itemRequestResponse.getId()));
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mvc.perform(asyncDispatch(result));
+    }
+}
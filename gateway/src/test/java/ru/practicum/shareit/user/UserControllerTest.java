@@ -10,15 +10,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(controllers = UserController.class)
 class UserControllerTest {
@@ -54,9 +59,9 @@ class UserControllerTest {
 
         Mockito
                 .when(userClient.newUser(userRequestDto))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(post("/users")
+        performAsync(post("/users")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(mapper.writeValueAsString(userRequestDto)))
@@ -82,9 +87,9 @@ class UserControllerTest {
 
         Mockito
                 .when(userClient.getAllUsers())
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/users"))
+        performAsync(get("/users"))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id").value(userResponseDto.getId()))
                 .andExpect(jsonPath("$[1].id").value(newUserResponseDto.getId()));
@@ -96,9 +101,9 @@ class UserControllerTest {
 
         Mockito
                 .when(userClient.getUser(userResponseDto.getId()))
-                .thenReturn(responseEntity);
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(get("/users/{userId}", userResponseDto.getId()))
+        performAsync(get("/users/{userId}", userResponseDto.getId()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(userResponseDto.getId()))
                 .andExpect(jsonPath("$.name").value(userResponseDto.getName()))
@@ -110,10 +115,10 @@ class UserControllerTest {
         ResponseEntity<Object> responseEntity = ResponseEntity.ok(mapper.writeValueAsString(userResponseDto));
 
         Mockito
-                .when(userClient.patchUser(userResponseDto.getId(), userResponseDto))
-                .thenReturn(responseEntity);
+                .when(userClient.patchUser(userResponseDto.getId(), userRequestDto))
+                .thenReturn(CompletableFuture.completedFuture(responseEntity));
 
-        mvc.perform(patch("/users/{userId}", userResponseDto.getId())
+        performAsync(patch("/users/{userId}", userResponseDto.getId())
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(mapper.writeValueAsString(userRequestDto)))
@@ -132,4 +137,12 @@ class UserControllerTest {
                 .verify(userClient, Mockito.times(1))
                 .deleteUser(userResponseDto.getId());
     }
-}
\ No newline at end of file
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Data;
+
+/**
+ * Ids the replayed calls pick from. Items are kept together with their owners, so booking calls can pick a
+ * booker that does not own the item.
+ */
+@Data
+public class Dataset {
+    private final long[] userIds;
+    private final long[] itemIds;
+    private final long[] itemOwnerIds;
+}
@@ -0,0 +1,220 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingPointersRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Fills the database through the server repositories before the server reports ready, so the availability and
+ * search indexes load the seeded rows on startup. Everything is derived from the booking count and the random
+ * seed: a user per 20 bookings, an item per 10, a request per 5 items, and a comment on every tenth finished
+ * booking. Bookings of an item never overlap and mostly lie in the past, as on a live service.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatasetSeeder implements ApplicationRunner {
+    static final String[] NAMES = {"Дрель", "Отвертка", "Лобзик", "Стремянка", "Палатка", "Велосипед", "Перфоратор",
+            "Шуруповерт", "Байдарка", "Спальник", "Проектор", "Самокат"};
+    static final String[] ADJECTIVES = {"аккумуляторная", "ударная", "складная", "походная", "детская", "электрическая",
+            "ручная", "профессиональная"};
+
+    private static final int CHUNK = 1000;
+    private static final int BOOKINGS_PER_USER = 20;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int ITEMS_PER_REQUEST = 5;
+    private static final int COMMENT_EVERY = 10;
+
+    private final LoadTestProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final UserRepository userRepository;
+    private final ItemRequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final ItemBookingPointersRepository pointersRepository;
+    private final CommentRepository commentRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Getter
+    private Dataset dataset;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        dataset = properties.isSeed() ? seed() : transactionTemplate.execute(status -> load());
+    }
+
+    private Dataset seed() {
+        Random random = new Random(properties.getRandomSeed());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        int bookings = properties.getBookings();
+        long started = System.nanoTime();
+
+        long[] userIds = saveInChunks(Math.max(bookings / BOOKINGS_PER_USER, 2), i -> User.builder()
+                .name("user " + i)
+                .email("loadtest" + i + "@mail.ru")
+                .build(), userRepository::saveAll, User::getId);
+
+        long[] requestIds = saveInChunks(Math.max(bookings / BOOKINGS_PER_ITEM / ITEMS_PER_REQUEST, 1), i -> ItemRequest.builder()
+                .description("Нужна " + pick(random, NAMES).toLowerCase())
+                .created(now.minusHours(random.nextInt(24 * 365)))
+                .user(reference(User.class, pick(random, userIds)))
+                .build(), requestRepository::saveAll, ItemRequest::getId);
+
+        long[] itemOwnerIds = new long[Math.max(bookings / BOOKINGS_PER_ITEM, 1)];
+        long[] itemIds = saveInChunks(itemOwnerIds.length, i -> {
+            itemOwnerIds[i] = pick(random, userIds);
+            String name = pick(random, NAMES);
+
+            return Item.builder()
+                    .user(reference(User.class, itemOwnerIds[i]))
+                    .name(name)
+                    .description(name + " " + pick(random, ADJECTIVES) + ", " + pick(random, ADJECTIVES))
+                    .isAvailable(random.nextInt(10) > 0)
+                    .request(random.nextInt(ITEMS_PER_REQUEST) == 0 ? reference(ItemRequest.class, pick(random, requestIds)) : null)
+                    .build();
+        }, itemRepository::saveAll, Item::getId);
+
+        // every item timeline starts a year ago and advances with each of its bookings
+        LocalDateTime origin = now.minusDays(365);
+        long[] nextFreeHour = new long[itemIds.length];
+        long[] commentItemIds = new long[bookings / COMMENT_EVERY + 1];
+        long[] commentUserIds = new long[commentItemIds.length];
+        LocalDateTime[] commentCreated = new LocalDateTime[commentItemIds.length];
+        int[] comments = {0};
+
+        saveInChunks(bookings, i -> {
+            int item = random.nextInt(itemIds.length);
+            long booker = bookerOf(random, userIds, itemOwnerIds[item]);
+            LocalDateTime start = origin.plusHours(nextFreeHour[item] + random.nextInt(24 * 30));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(24 * 7));
+            nextFreeHour[item] = ChronoUnit.HOURS.between(origin, end);
+
+            if (end.isBefore(now) && i % COMMENT_EVERY == 0) {
+                commentItemIds[comments[0]] = itemIds[item];
+                commentUserIds[comments[0]] = booker;
+                commentCreated[comments[0]++] = end.plusHours(1);
+            }
+            return new Booking(null, start, end, statusOf(random),
+                    reference(User.class, booker), reference(Item.class, itemIds[item]), null, null);
+        }, bookingRepository::saveAll, Booking::getId);
+        // bookings are saved past the service, so the listing read model and the item pointers are filled afterwards
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingViewRepository.insertMissing();
+            pointersRepository.insertMissing(LocalDateTime.now());
+        });
+
+        saveInChunks(comments[0], i -> Comment.builder()
+                .item(reference(Item.class, commentItemIds[i]))
+                .user(reference(User.class, commentUserIds[i]))
+                .text("Спасибо, все отлично")
+                .created(commentCreated[i])
+                .build(), commentRepository::saveAll, Comment::getId);
+
+        log.info("Seeded {} users, {} requests, {} items, {} bookings and {} comments in {} s", userIds.length,
+                requestIds.length, itemIds.length, bookings, comments[0], (System.nanoTime() - started) / 1_000_000_000);
+        return new Dataset(userIds, itemIds, itemOwnerIds);
+    }
+
+    private Dataset load() {
+        long[] userIds = entityManager.createQuery("select u.id from User as u order by u.id", Long.class)
+                .getResultStream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        List<Object[]> items = entityManager.createQuery("select i.id, i.user.id from Item as i order by i.id", Object[].class)
+                .getResultList();
+
+        long[] itemIds = new long[items.size()];
+        long[] itemOwnerIds = new long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            itemIds[i] = (Long) items.get(i)[0];
+            itemOwnerIds[i] = (Long) items.get(i)[1];
+        }
+        log.info("Replaying against {} users and {} items already in the database", userIds.length, itemIds.length);
+        return new Dataset(userIds, itemIds, itemOwnerIds);
+    }
+
+    // saves count entities chunk by chunk, each chunk in its own transaction with a cleared persistence context
+    private <T> long[] saveInChunks(int count, IntFunction<T> factory, Function<List<T>, Iterable<T>> saveAll,
+                                    Function<T, Long> id) {
+        long[] ids = new long[count];
+
+        for (int from = 0; from < count; from += CHUNK) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(from + CHUNK, count);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                List<T> chunk = new ArrayList<>(chunkEnd - chunkStart);
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    chunk.add(factory.apply(i));
+                }
+
+                int i = chunkStart;
+                for (T saved : saveAll.apply(chunk)) {
+                    ids[i++] = id.apply(saved);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            if (chunkEnd % (CHUNK * 100) == 0)
+                log.info("Seeded {} of {}", chunkEnd, count);
+        }
+        return ids;
+    }
+
+    private <T> T reference(Class<T> type, long id) {
+        return entityManager.getReference(type, id);
+    }
+
+    private static long bookerOf(Random random, long[] userIds, long ownerId) {
+        long booker = pick(random, userIds);
+        while (booker == ownerId) {
+            booker = pick(random, userIds);
+        }
+        return booker;
+    }
+
+    private static Booking.Status statusOf(Random random) {
+        int roll = random.nextInt(20);
+        if (roll < 14)
+            return Booking.Status.APPROVED;
+        return roll < 17 ? Booking.Status.WAITING : Booking.Status.REJECTED;
+    }
+
+    private static long pick(Random random, long[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every latency of an endpoint measured after the warmup, so percentiles are exact rather than bucketed.
+ */
+public class EndpointStats {
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    public synchronized void record(long latencyNanos, boolean failed) {
+        if (count == latencies.length)
+            latencies = Arrays.copyOf(latencies, count * 2);
+
+        latencies[count++] = latencyNanos;
+        if (failed)
+            errors++;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    // nearest-rank percentile in milliseconds, 0 when nothing was recorded
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0)
+            return 0;
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+}
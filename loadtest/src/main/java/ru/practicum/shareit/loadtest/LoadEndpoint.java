@@ -0,0 +1,125 @@
+package ru.practicum.shareit.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Gateway calls the load test can replay, each building a request for a random user or item of the dataset.
+ */
+public enum LoadEndpoint {
+    CREATE_BOOKING("create-booking") {
+        @Override
+        HttpRequest.Builder request(String targetUrl, Dataset dataset, Random random) {
+            int item = random.nextInt(dataset.getItemIds().length);
+            long booker = pick(random, dataset.getUserIds());
+            while (booker == dataset.getItemOwnerIds()[item]) {
+                booker = pick(random, dataset.getUserIds());
+            }
+            LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(400).plusHours(random.nextInt(24 * 365));
+            String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                    dataset.getItemIds()[item], start, start.plusHours(1 + random.nextInt(72)));
+
+            return HttpRequest.newBuilder(URI.create(targetUrl + "/bookings"))
+                    .header(USER_HEADER, String.valueOf(booker))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+    BOOKINGS("bookings") {
+        @Override
+        HttpRequest.Builder request(String targetUrl, Dataset dataset, Random random) {
+            return get(targetUrl + "/bookings?state=" + pick(random, STATES), pick(random, dataset.getUserIds()));
+        }
+    },
+    OWNER_BOOKINGS("owner-bookings") {
+        @Override
+        HttpRequest.Builder request(String targetUrl, Dataset dataset, Random random) {
+            return get(targetUrl + "/bookings/owner?state=" + pick(random, STATES), pick(random, dataset.getItemOwnerIds()));
+        }
+    },
+    ITEMS("items") {
+        @Override
+        HttpRequest.Builder request(String targetUrl, Dataset dataset, Random random) {
+            return get(targetUrl + "/items", pick(random, dataset.getItemOwnerIds()));
+        }
+    },
+    SEARCH("search") {
+        @Override
+        HttpRequest.Builder request(String targetUrl, Dataset dataset, Random random) {
+            String text = random.nextBoolean() ? pick(random, DatasetSeeder.NAMES) : pick(random, DatasetSeeder.ADJECTIVES);
+
+            return get(targetUrl + "/items/search?from=0&size=20&text=" + URLEncoder.encode(text, StandardCharsets.UTF_8),
+                    pick(random, dataset.getUserIds()));
+        }
+    },
+    REQUESTS_ALL("requests-all") {
+        @Override
+        HttpRequest.Builder request(String targetUrl, Dataset dataset, Random random) {
+            return get(targetUrl + "/requests/all?from=0&size=20", pick(random, dataset.getUserIds()));
+        }
+    };
+
+    static final String USER_HEADER = "X-Sharer-User-Id";
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+
+    private final String name;
+
+    LoadEndpoint(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    abstract HttpRequest.Builder request(String targetUrl, Dataset dataset, Random random);
+
+    public static LoadEndpoint of(String name) {
+        for (LoadEndpoint endpoint : values()) {
+            if (endpoint.name.equals(name))
+                return endpoint;
+        }
+        throw new IllegalArgumentException(String.format("Unknown load test endpoint %s", name));
+    }
+
+    // "create-booking:1,bookings:4" to endpoint weights, an endpoint without a weight counts once
+    public static Map<LoadEndpoint, Integer> mixOf(String mix) {
+        Map<LoadEndpoint, Integer> weights = new EnumMap<>(LoadEndpoint.class);
+
+        for (String entry : mix.split(",")) {
+            if (entry.isBlank())
+                continue;
+
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight > 0)
+                weights.merge(of(parts[0].trim()), weight, Integer::sum);
+        }
+        if (weights.isEmpty())
+            throw new IllegalArgumentException(String.format("Load test mix '%s' has no endpoints", mix));
+        return weights;
+    }
+
+    private static HttpRequest.Builder get(String url, long userId) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header(USER_HEADER, String.valueOf(userId))
+                .GET();
+    }
+
+    private static long pick(Random random, long[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
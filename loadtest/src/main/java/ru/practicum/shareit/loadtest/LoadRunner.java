@@ -0,0 +1,131 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the configured mix from a fixed number of closed-loop workers. Each worker sends its next call as
+ * soon as the previous one completes; calls finished during the warmup are not recorded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoadRunner {
+    private static final String HEADER = "endpoint,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms";
+
+    private final LoadTestProperties properties;
+    private final DatasetSeeder seeder;
+
+    public Map<LoadEndpoint, EndpointStats> run() {
+        Map<LoadEndpoint, Integer> mix = LoadEndpoint.mixOf(properties.getMix());
+        Map<LoadEndpoint, EndpointStats> stats = new EnumMap<>(LoadEndpoint.class);
+        mix.keySet().forEach(endpoint -> stats.put(endpoint, new EndpointStats()));
+
+        List<LoadEndpoint> weighted = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(endpoint);
+            }
+        });
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(LoadEndpoint.TIMEOUT)
+                .build();
+        long warmupEnd = System.nanoTime() + properties.getWarmup().toNanos();
+        long end = warmupEnd + properties.getDuration().toNanos();
+
+        log.info("Replaying {} against {} with {} threads for {} after {} warmup", mix, properties.getTargetUrl(),
+                properties.getThreads(), properties.getDuration(), properties.getWarmup());
+
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getThreads());
+        for (int worker = 0; worker < properties.getThreads(); worker++) {
+            Random random = new Random(properties.getRandomSeed() + worker);
+            workers.execute(() -> replay(client, weighted, stats, random, warmupEnd, end));
+        }
+
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(end - System.nanoTime() + LoadEndpoint.TIMEOUT.toNanos() * 2, TimeUnit.NANOSECONDS))
+                workers.shutdownNow();
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        report(stats);
+        return stats;
+    }
+
+    private void replay(HttpClient client, List<LoadEndpoint> weighted, Map<LoadEndpoint, EndpointStats> stats,
+                        Random random, long warmupEnd, long end) {
+        Dataset dataset = seeder.getDataset();
+
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            LoadEndpoint endpoint = weighted.get(random.nextInt(weighted.size()));
+            HttpRequest request = endpoint.request(properties.getTargetUrl(), dataset, random)
+                    .timeout(LoadEndpoint.TIMEOUT)
+                    .build();
+
+            long started = System.nanoTime();
+            boolean failed;
+            try {
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (started >= warmupEnd)
+                stats.get(endpoint).record(System.nanoTime() - started, failed);
+        }
+    }
+
+    private void report(Map<LoadEndpoint, EndpointStats> stats) {
+        double seconds = properties.getDuration().toMillis() / 1000.0;
+        List<String> rows = new ArrayList<>();
+
+        log.info(String.format("%-16s %10s %8s %10s %9s %9s %9s", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms"));
+        stats.forEach((endpoint, endpointStats) -> {
+            double throughput = endpointStats.getCount() / seconds;
+            double p50 = endpointStats.percentileMillis(50);
+            double p99 = endpointStats.percentileMillis(99);
+            double max = endpointStats.percentileMillis(100);
+
+            log.info(String.format("%-16s %10d %8d %10.1f %9.2f %9.2f %9.2f", endpoint.getName(), endpointStats.getCount(),
+                    endpointStats.getErrors(), throughput, p50, p99, max));
+            rows.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f", endpoint.getName(),
+                    endpointStats.getCount(), endpointStats.getErrors(), throughput, p50, p99, max));
+        });
+
+        if (properties.getReportFile() == null || properties.getReportFile().isBlank())
+            return;
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Path.of(properties.getReportFile()), StandardCharsets.UTF_8))) {
+            writer.println(HEADER);
+            rows.forEach(writer::println);
+        } catch (IOException e) {
+            log.warn("Failed to write load test report to {}", properties.getReportFile(), e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.loadtest")
+public class LoadTestProperties {
+    private boolean seed = true;
+    private int bookings = 10_000;
+    private long randomSeed = 20220801L;
+
+    private String targetUrl = "http://localhost:8080";
+    private int threads = 16;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    // endpoint names with relative weights, see LoadEndpoint
+    private String mix = "create-booking:1,bookings:4,owner-bookings:1,items:2,search:2,requests-all:1";
+    private String reportFile;
+}
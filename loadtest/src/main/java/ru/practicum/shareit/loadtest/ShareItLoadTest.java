@@ -0,0 +1,25 @@
+package ru.practicum.shareit.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.ShareItServer;
+
+/**
+ * Starts the server with the loadtest profile, seeds the database through its repositories while the context
+ * starts and, once the server is ready, replays the configured mix of calls against the target url.
+ * The gateway has to be running separately and point at this server, unless the target is the server itself.
+ */
+@Configuration
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class ShareItLoadTest {
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ShareItServer.class, ShareItLoadTest.class);
+        application.setAdditionalProfiles("loadtest");
+
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            context.getBean(LoadRunner.class).run();
+        }
+    }
+}
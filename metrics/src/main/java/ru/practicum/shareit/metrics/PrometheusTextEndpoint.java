@@ -0,0 +1,143 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@code /actuator/prometheus} in the Prometheus text exposition format, rendered from the meters of the
+ * application registry. Timers and distribution summaries become summaries whose quantiles are the percentiles
+ * configured with {@code management.metrics.distribution.percentiles.*}, plus a {@code _max} gauge; the
+ * percentile gauges Micrometer registers next to them are not repeated.
+ * <p>
+ * Shared by gateway and server, which both pick it up by component scanning. Steps back as soon as
+ * micrometer-registry-prometheus is on the classpath and Spring Boot exposes its own scrape endpoint under the same id.
+ */
+@Component
+@WebEndpoint(id = "prometheus")
+@ConditionalOnMissingClass("io.micrometer.prometheus.PrometheusMeterRegistry")
+@RequiredArgsConstructor
+public class PrometheusTextEndpoint {
+    static final String CONTENT_TYPE = "text/plain;version=0.0.4;charset=utf-8";
+
+    private final MeterRegistry registry;
+
+    @ReadOperation(produces = CONTENT_TYPE)
+    public String scrape() {
+        Map<String, Family> families = new TreeMap<>();
+
+        for (Meter meter : registry.getMeters()) {
+            if (meter.getId().syntheticAssociation() != null)
+                continue;
+
+            meter.use(
+                    gauge -> family(families, name(meter, null), "gauge").add(meter, "", null, gauge.value()),
+                    counter -> family(families, name(meter, "total"), "counter").add(meter, "", null, counter.count()),
+                    timer -> summary(families, meter, name(meter, "seconds"), timer.takeSnapshot(), TimeUnit.SECONDS),
+                    summary -> summary(families, meter, name(meter, null), summary.takeSnapshot(), null),
+                    longTaskTimer -> {
+                        String name = name(meter, "seconds");
+                        family(families, name + "_active_count", "gauge").add(meter, "", null, longTaskTimer.activeTasks());
+                        family(families, name + "_duration_sum", "gauge").add(meter, "", null, longTaskTimer.duration(TimeUnit.SECONDS));
+                        family(families, name + "_max", "gauge").add(meter, "", null, longTaskTimer.max(TimeUnit.SECONDS));
+                    },
+                    timeGauge -> family(families, name(meter, "seconds"), "gauge").add(meter, "", null, timeGauge.value(TimeUnit.SECONDS)),
+                    functionCounter -> family(families, name(meter, "total"), "counter").add(meter, "", null, functionCounter.count()),
+                    functionTimer -> {
+                        Family family = family(families, name(meter, "seconds"), "summary");
+                        family.add(meter, "_count", null, functionTimer.count());
+                        family.add(meter, "_sum", null, functionTimer.totalTime(TimeUnit.SECONDS));
+                    },
+                    other -> {
+                        for (Measurement measurement : other.measure()) {
+                            String statistic = measurement.getStatistic().getTagValueRepresentation().toLowerCase();
+                            family(families, name(meter, null) + "_" + statistic, "untyped").add(meter, "", null, measurement.getValue());
+                        }
+                    });
+        }
+
+        StringBuilder text = new StringBuilder();
+        families.forEach((name, family) -> {
+            text.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            family.samples.forEach(sample -> text.append(name).append(sample).append('\n'));
+        });
+        return text.toString();
+    }
+
+    private static void summary(Map<String, Family> families, Meter meter, String name, HistogramSnapshot snapshot, TimeUnit unit) {
+        Family family = family(families, name, "summary");
+
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            double value = unit == null ? percentile.value() : percentile.value(unit);
+            family.add(meter, "", "quantile=\"" + number(percentile.percentile()) + "\"", value);
+        }
+        family.add(meter, "_count", null, snapshot.count());
+        family.add(meter, "_sum", null, unit == null ? snapshot.total() : snapshot.total(unit));
+
+        family(families, name + "_max", "gauge").add(meter, "", null, unit == null ? snapshot.max() : snapshot.max(unit));
+    }
+
+    private static Family family(Map<String, Family> families, String name, String type) {
+        return families.computeIfAbsent(name, ignored -> new Family(type));
+    }
+
+    private static String name(Meter meter, String suffix) {
+        String name = sanitize(meter.getId().getName());
+        String unit = suffix != null ? suffix : meter.getId().getBaseUnit();
+
+        if (unit != null && !name.endsWith("_" + unit))
+            name = name + "_" + sanitize(unit);
+        return name;
+    }
+
+    private static String sanitize(String name) {
+        String sanitized = name.replaceAll("[^a-zA-Z0-9_:]", "_");
+        return Character.isDigit(sanitized.charAt(0)) ? "_" + sanitized : sanitized;
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value))
+            return "NaN";
+        if (Double.isInfinite(value))
+            return value > 0 ? "+Inf" : "-Inf";
+        return Double.toString(value);
+    }
+
+    private static class Family {
+        private final String type;
+        private final List<String> samples = new ArrayList<>();
+
+        private Family(String type) {
+            this.type = type;
+        }
+
+        private void add(Meter meter, String suffix, String extraLabel, double value) {
+            List<String> labels = new ArrayList<>();
+            for (Tag tag : meter.getId().getTagsAsIterable()) {
+                String escaped = tag.getValue()
+                        .replace("\\", "\\\\")
+                        .replace("\"", "\\\"")
+                        .replace("\n", "\\n");
+                labels.add(sanitize(tag.getKey()) + "=\"" + escaped + "\"");
+            }
+            if (extraLabel != null)
+                labels.add(extraLabel);
+
+            samples.add(suffix + (labels.isEmpty() ? "" : "{" + String.join(",", labels) + "}") + " " + number(value));
+        }
+    }
+}
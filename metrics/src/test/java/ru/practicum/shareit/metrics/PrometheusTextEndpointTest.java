@@ -0,0 +1,41 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class PrometheusTextEndpointTest {
+    @Test
+    void scrape() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Counter.builder("shareit.calls").tag("path", "/items \"x\"").register(registry).increment(3);
+        Gauge.builder("shareit.heap", () -> 2048).baseUnit("bytes").register(registry);
+        Timer timer = Timer.builder("shareit.call").tag("method", "get").publishPercentiles(0.5).register(registry);
+        timer.record(Duration.ofMillis(100));
+        timer.record(Duration.ofMillis(300));
+
+        List<String> lines = new ArrayList<>(List.of(new PrometheusTextEndpoint(registry).scrape().split("\n")));
+        String median = lines.remove(1);
+
+        Assertions.assertTrue(median.startsWith("shareit_call_seconds{method=\"get\",quantile=\"0.5\"} "));
+        Assertions.assertEquals(0.1, Double.parseDouble(median.substring(median.lastIndexOf(' ') + 1)), 0.01);
+        Assertions.assertEquals(List.of(
+                "# TYPE shareit_call_seconds summary",
+                "shareit_call_seconds_count{method=\"get\"} 2.0",
+                "shareit_call_seconds_sum{method=\"get\"} 0.4",
+                "# TYPE shareit_call_seconds_max gauge",
+                "shareit_call_seconds_max{method=\"get\"} 0.3",
+                "# TYPE shareit_calls_total counter",
+                "shareit_calls_total{path=\"/items \\\"x\\\"\"} 3.0",
+                "# TYPE shareit_heap_bytes gauge",
+                "shareit_heap_bytes 2048.0"), lines);
+    }
+}
@@ -2,10 +2,16 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.Versioned;
 
 import java.util.List;
 
@@ -14,6 +20,8 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class BookingController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
 
     @PostMapping()
@@ -24,6 +32,13 @@ public class BookingController {
         return bookingService.bookItem(bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> bookNewItems(@RequestHeader(name = "X-Sharer-User-Id") long userId,
+                                                    @RequestBody BookingBatchRequestDto batchDto) {
+        log.info("Creating {} bookings by user id {}", batchDto.getBookings().size(), userId);
+        return bookingService.bookItems(userId, batchDto.getBookings());
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto acceptOrDeclineBooking(@RequestHeader(name = "X-Sharer-User-Id") long userId,
                                                      @PathVariable long bookingId,
@@ -38,26 +53,58 @@ public class BookingController {
 
     @GetMapping("/{bookingId}")
     public BookingResponseDto getOneBooking(@RequestHeader(name = "X-Sharer-User-id") long userId,
-                                            @PathVariable long bookingId) {
+                                            @PathVariable long bookingId,
+                                            WebRequest request) {
         log.info("Geting booking id {} by user id {}", bookingId, userId);
-        return bookingService.getBooking(userId, bookingId);
+        return bodyOf(bookingService.getVersionedBooking(userId, bookingId), request);
     }
 
     @GetMapping()
-    public List<BookingResponseDto> getAllUserBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
-                                                       @RequestParam(defaultValue = "ALL") String state,
-                                                       @RequestParam(required = false) Integer from,
-                                                       @RequestParam(required = false) Integer size) {
-        log.info("Getting all user bookings state {} user id {} from {} size {}", state, userId, from, size);
-        return bookingService.getUserBookings(userId, state, false, from, size);
+    public ResponseEntity<List<BookingResponseDto>> getAllUserBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
+                                                                       @RequestParam(defaultValue = "ALL") String state,
+                                                                       @RequestParam(required = false) Integer from,
+                                                                       @RequestParam(required = false) Integer size,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       WebRequest request) {
+        log.info("Getting all user bookings state {} user id {} from {} size {} cursor {}", state, userId, from, size, cursor);
+        return bookingsResponse(userId, state, false, from, size, cursor, request);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getAllOwnerBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
-                                                        @RequestParam(defaultValue = "ALL") String state,
-                                                        @RequestParam(required = false) Integer from,
-                                                        @RequestParam(required = false) Integer size) {
-        log.info("Getting all owner bookings state {} user id {} from {} size {}", state, userId, from, size);
-        return bookingService.getUserBookings(userId, state, true, from, size);
+    public ResponseEntity<List<BookingResponseDto>> getAllOwnerBookings(@RequestHeader(name = "X-Sharer-User-id") long userId,
+                                                                        @RequestParam(defaultValue = "ALL") String state,
+                                                                        @RequestParam(required = false) Integer from,
+                                                                        @RequestParam(required = false) Integer size,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        WebRequest request) {
+        log.info("Getting all owner bookings state {} user id {} from {} size {} cursor {}", state, userId, from, size, cursor);
+        return bookingsResponse(userId, state, true, from, size, cursor, request);
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> bookingsResponse(long userId, String state, boolean isOwner,
+                                                                      Integer from, Integer size, String cursor,
+                                                                      WebRequest request) {
+        if (cursor == null) {
+            List<BookingResponseDto> bookings = bodyOf(bookingService.getVersionedUserBookings(userId, state, isOwner, from, size), request);
+            return bookings == null ? null : ResponseEntity.ok(bookings);
+        }
+
+        BookingPageDto page = bodyOf(bookingService.getVersionedUserBookingsPage(userId, state, isOwner, cursor, size), request);
+        if (page == null)
+            return null;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null)
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+
+        return response.body(page.getBookings());
+    }
+
+    // null tells Spring MVC the response is complete: a 304 with the ETag and no body
+    private static <T> T bodyOf(Versioned<T> versioned, WebRequest request) {
+        if (request.checkNotModified(versioned.getEtag()))
+            return null;
+        return versioned.getBody();
     }
 }
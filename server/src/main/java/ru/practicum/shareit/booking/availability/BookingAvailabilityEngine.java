@@ -0,0 +1,197 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.exceptions.BookingConflictException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index of the approved and waiting bookings of every item, checked before a booking is created. Intervals that
+ * have ended can no longer overlap a new booking, so they are pruned every prune-interval and from the timeline of
+ * an item whenever it is reserved.
+ * <p>
+ * The index lives in this JVM and sees only the bookings loaded at startup and those created through it since.
+ * With several server instances it is a fast first check, not a guarantee: the only protection across instances is
+ * the NOT EXISTS condition of BookingRepository.approveIfWaiting, which the database evaluates on approval.
+ */
+@Component
+@Slf4j
+public class BookingAvailabilityEngine {
+    static final List<Booking.Status> BLOCKING_STATUSES = List.of(Booking.Status.APPROVED, Booking.Status.WAITING);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, IntervalTree> timelines = new ConcurrentHashMap<>();
+    private final Duration pruneInterval;
+    private ScheduledExecutorService executor;
+
+    public BookingAvailabilityEngine(BookingRepository bookingRepository,
+                                     @Value("${shareit.bookings.availability.prune-interval:1h}") Duration pruneInterval) {
+        this.bookingRepository = bookingRepository;
+        this.pruneInterval = pruneInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        load();
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "booking-availability");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(() -> prune(LocalDateTime.now()), pruneInterval.toMillis(),
+                    pruneInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    public void load() {
+        timelines.clear();
+
+        List<Booking> bookings = bookingRepository.findAllByStatusInAndEndAfter(BLOCKING_STATUSES, LocalDateTime.now());
+        for (Booking booking : bookings) {
+            timelineOf(booking.getItem().getId()).insert(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+        log.info("Loaded {} active bookings for {} items into availability index", bookings.size(), timelines.size());
+    }
+
+    public boolean isAvailable(long itemId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree timeline = timelines.get(itemId);
+        if (timeline == null)
+            return true;
+
+        synchronized (timeline) {
+            return !timeline.overlaps(start, end);
+        }
+    }
+
+    /**
+     * Checks a batch of new bookings at once: a booking is available when its interval is free in the index and
+     * does not overlap an available booking of the same item earlier in the list. Each item is locked once.
+     */
+    public List<Boolean> isAvailable(List<Booking> bookings) {
+        Boolean[] available = new Boolean[bookings.size()];
+        Map<Long, List<Integer>> byItem = new LinkedHashMap<>();
+        for (int i = 0; i < bookings.size(); i++)
+            byItem.computeIfAbsent(bookings.get(i).getItem().getId(), id -> new ArrayList<>()).add(i);
+
+        byItem.forEach((itemId, indexes) -> {
+            IntervalTree batch = new IntervalTree();
+            IntervalTree timeline = timelines.getOrDefault(itemId, batch);
+
+            synchronized (timeline) {
+                for (int i : indexes) {
+                    Booking booking = bookings.get(i);
+                    available[i] = !timeline.overlaps(booking.getStart(), booking.getEnd()) &&
+                            !batch.overlaps(booking.getStart(), booking.getEnd());
+                    if (available[i])
+                        batch.insert(i, booking.getStart(), booking.getEnd());
+                }
+            }
+        });
+        return Arrays.asList(available);
+    }
+
+    public void reserve(Booking booking) {
+        long itemId = booking.getItem().getId();
+        IntervalTree timeline = timelineOf(itemId);
+
+        synchronized (timeline) {
+            timeline.removeEndedBefore(LocalDateTime.now());
+            if (timeline.overlaps(booking.getStart(), booking.getEnd()))
+                throw new BookingConflictException(String.format("Item id %d is already booked for %s - %s",
+                        itemId, booking.getStart(), booking.getEnd()));
+
+            timeline.insert(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+        onRollback(() -> remove(itemId, booking.getId(), booking.getStart()));
+    }
+
+    public void release(Booking booking) {
+        long itemId = booking.getItem().getId();
+
+        if (remove(itemId, booking.getId(), booking.getStart()))
+            onRollback(() -> insert(itemId, booking.getId(), booking.getStart(), booking.getEnd()));
+    }
+
+    // drops the intervals that ended before the given time; the empty timelines stay, one per booked item
+    int prune(LocalDateTime dateTime) {
+        int pruned = 0;
+        for (IntervalTree timeline : timelines.values()) {
+            synchronized (timeline) {
+                pruned += timeline.removeEndedBefore(dateTime);
+            }
+        }
+        log.debug("Pruned {} ended bookings from availability index", pruned);
+        return pruned;
+    }
+
+    int size() {
+        int size = 0;
+        for (IntervalTree timeline : timelines.values()) {
+            synchronized (timeline) {
+                size += timeline.size();
+            }
+        }
+        return size;
+    }
+
+    private IntervalTree timelineOf(long itemId) {
+        return timelines.computeIfAbsent(itemId, id -> new IntervalTree());
+    }
+
+    private void insert(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree timeline = timelineOf(itemId);
+        synchronized (timeline) {
+            timeline.insert(bookingId, start, end);
+        }
+    }
+
+    private boolean remove(long itemId, long bookingId, LocalDateTime start) {
+        IntervalTree timeline = timelines.get(itemId);
+        if (timeline == null)
+            return false;
+
+        synchronized (timeline) {
+            return timeline.remove(bookingId, start);
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK)
+                    action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+
+/**
+ * Outcome of one entry of a batch booking request: the status the entry would have got as a single
+ * {@code POST /bookings}, with the created booking or the error message.
+ */
+@Data
+@Builder
+public class BookingBatchResultDto {
+    private int status;
+
+    @Nullable
+    private BookingResponseDto booking;
+
+    @Nullable
+    private String error;
+
+    public static BookingBatchResultDto created(BookingResponseDto booking) {
+        return BookingBatchResultDto.builder()
+                .status(HttpStatus.OK.value())
+                .booking(booking)
+                .build();
+    }
+
+    public static BookingBatchResultDto failed(HttpStatus status, String error) {
+        return BookingBatchResultDto.builder()
+                .status(status.value())
+                .error(error)
+                .build();
+    }
+}
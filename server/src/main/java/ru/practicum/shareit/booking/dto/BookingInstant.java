@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// a booking and one of its instants, the start or the end, as loaded by BookingLifecycleScheduler
+@Getter
+@AllArgsConstructor
+public class BookingInstant {
+    private final Long bookingId;
+    private final LocalDateTime at;
+}
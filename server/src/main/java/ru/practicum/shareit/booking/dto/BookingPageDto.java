@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BookingPageDto {
+    private List<BookingResponseDto> bookings;
+
+    @Nullable
+    private String nextCursor;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+
+// the columns a listed booking is shown and tagged with, selected by BookingQuery instead of the entities
+@Getter
+@Builder
+@AllArgsConstructor
+public class BookingRow {
+    private final Long bookingId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final Booking.Status status;
+    private final Long bookingVersion;
+    private final Long bookerId;
+    private final String bookerName;
+    private final String bookerEmail;
+    private final Long bookerVersion;
+    private final Long itemId;
+    private final String itemName;
+    private final String itemDescription;
+    private final Boolean itemAvailable;
+    private final Long itemRequestId;
+    private final Long itemVersion;
+    private final Long ownerId;
+}
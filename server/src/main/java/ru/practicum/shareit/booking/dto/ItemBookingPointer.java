@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface ItemBookingPointer {
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    Long getItemId();
+
+    Long getBookingId();
+
+    Long getBookerId();
+
+    String getPointer();
+}
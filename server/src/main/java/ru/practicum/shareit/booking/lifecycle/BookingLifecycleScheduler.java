@@ -0,0 +1,238 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingInstant;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.booking.timer.TimingWheel;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves bookings through their phases: from UPCOMING to ACTIVE at the start and to COMPLETED at the end.
+ * Starts and ends falling within the horizon are loaded from the bookings onto a hierarchical timing wheel,
+ * never more than max-pending at a time, and topped up as the wheel turns, so memory does not grow with the
+ * number of future bookings. Bookings created inside the loaded window are put on the wheel on commit while there
+ * is room under the cap. Every top-up also sweeps the bookings that fell due without a timer, after downtime or
+ * beyond the cap. Listings do not wait for either: BookingQuery checks the start and end of bookings left behind.
+ */
+@Component
+@Slf4j
+public class BookingLifecycleScheduler {
+    static final int CHUNK = 1000;
+    private static final List<Booking.Phase> BEFORE_ACTIVE = List.of(Booking.Phase.UPCOMING);
+    private static final List<Booking.Phase> BEFORE_COMPLETED = List.of(Booking.Phase.UPCOMING, Booking.Phase.ACTIVE);
+
+    private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration tick;
+    private final Duration horizon;
+    private final int maxPending;
+    private final TimingWheel<Transition> wheel;
+    // read and written under the lock of the scheduler, together with the size of the wheel it is checked against
+    private LocalDateTime loadedUntil;
+    private ScheduledExecutorService executor;
+
+    public BookingLifecycleScheduler(BookingRepository bookingRepository,
+                                     BookingViewRepository bookingViewRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shareit.bookings.lifecycle.tick:1s}") Duration tick,
+                                     @Value("${shareit.bookings.lifecycle.horizon:1h}") Duration horizon,
+                                     @Value("${shareit.bookings.lifecycle.max-pending:100000}") int maxPending,
+                                     @Value("${shareit.bookings.lifecycle.wheel-size:64}") int wheelSize,
+                                     @Value("${shareit.bookings.lifecycle.wheel-levels:3}") int wheelLevels) {
+        if (maxPending < 2)
+            throw new IllegalArgumentException("At least two pending booking transitions are needed");
+
+        this.bookingRepository = bookingRepository;
+        this.bookingViewRepository = bookingViewRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tick = tick;
+        this.horizon = horizon;
+        this.maxPending = maxPending;
+        this.wheel = new TimingWheel<>(tick.toMillis(), wheelSize, wheelLevels, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refill(LocalDateTime.now());
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "booking-lifecycle");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::advance, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    /**
+     * Puts the start and the end of a new booking on the wheel once the creating transaction commits, if they
+     * fall inside the window already loaded and the wheel is not full; later ones are picked up by a top-up
+     * and the others by its sweep.
+     */
+    public void track(Booking booking) {
+        long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+
+        afterCommit(() -> schedule(bookingId, start, end));
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    void advance() {
+        List<Transition> due = wheel.advanceTo(System.currentTimeMillis());
+
+        try {
+            if (!due.isEmpty())
+                apply(due);
+
+            refillIfDue(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Unable to move {} bookings to their next phase", due.size(), e);
+            for (Transition transition : due)
+                wheel.schedule(transition, System.currentTimeMillis() + tick.toMillis());
+        }
+    }
+
+    // tops up once half of the loaded window has passed, if there is room for a start and an end
+    private synchronized void refillIfDue(LocalDateTime now) {
+        if (wheel.size() > maxPending - 2)
+            return;
+        if (loadedUntil == null || !now.plus(horizon.dividedBy(2)).isBefore(loadedUntil))
+            refill(now);
+    }
+
+    synchronized void refill(LocalDateTime now) {
+        int[] swept = transactionTemplate.execute(status -> {
+            int started = bookingRepository.startDue(now);
+            bookingViewRepository.startDue(now);
+            int completed = bookingRepository.completeDue(now);
+            bookingViewRepository.completeDue(now);
+            return new int[]{started, completed};
+        });
+
+        LocalDateTime from = loadedUntil == null || loadedUntil.isBefore(now) ? now : loadedUntil;
+        LocalDateTime until = now.plus(horizon);
+        int room = (maxPending - wheel.size()) / 2;
+        if (room <= 0) {
+            log.debug("Swept {} started and {} ended bookings, no room to schedule more", swept[0], swept[1]);
+            return;
+        }
+
+        List<BookingInstant> starts = bookingRepository.findStartsBetween(from, until, PageRequest.of(0, room));
+        List<BookingInstant> ends = bookingRepository.findEndsBetween(from, until, PageRequest.of(0, room));
+
+        // a full page means the cap cut the stream short: the window stops at the last instant loaded, and
+        // bookings sharing that instant beyond the page are left to the next sweep
+        LocalDateTime loaded = until;
+        if (starts.size() == room && !starts.isEmpty())
+            loaded = min(loaded, starts.get(starts.size() - 1).getAt());
+        if (ends.size() == room && !ends.isEmpty())
+            loaded = min(loaded, ends.get(ends.size() - 1).getAt());
+
+        int scheduled = schedule(starts, Booking.Phase.ACTIVE, loaded) + schedule(ends, Booking.Phase.COMPLETED, loaded);
+        loadedUntil = loaded;
+
+        log.debug("Swept {} started and {} ended bookings, scheduled {} transitions up to {}",
+                swept[0], swept[1], scheduled, loaded);
+    }
+
+    private void apply(List<Transition> due) {
+        Map<Booking.Phase, List<Long>> byPhase = new EnumMap<>(Booking.Phase.class);
+        for (Transition transition : due)
+            byPhase.computeIfAbsent(transition.phase, phase -> new ArrayList<>()).add(transition.bookingId);
+
+        transactionTemplate.executeWithoutResult(status -> byPhase.forEach((phase, bookingsId) -> {
+            for (int from = 0; from < bookingsId.size(); from += CHUNK) {
+                List<Long> chunk = bookingsId.subList(from, Math.min(from + CHUNK, bookingsId.size()));
+
+                bookingRepository.movePhase(chunk, phase, phase == Booking.Phase.ACTIVE ? BEFORE_ACTIVE : BEFORE_COMPLETED);
+                bookingViewRepository.updatePhases(chunk);
+            }
+        }));
+    }
+
+    private synchronized void schedule(long bookingId, LocalDateTime start, LocalDateTime end) {
+        // before the first load the window is empty, that load finds the booking itself
+        if (loadedUntil == null)
+            return;
+
+        if (!start.isAfter(loadedUntil) && wheel.size() < maxPending)
+            wheel.schedule(new Transition(bookingId, Booking.Phase.ACTIVE), millisOf(start));
+        if (!end.isAfter(loadedUntil) && wheel.size() < maxPending)
+            wheel.schedule(new Transition(bookingId, Booking.Phase.COMPLETED), millisOf(end));
+    }
+
+    private int schedule(List<BookingInstant> instants, Booking.Phase phase, LocalDateTime until) {
+        int scheduled = 0;
+        for (BookingInstant instant : instants) {
+            if (instant.getAt().isAfter(until))
+                break;
+
+            wheel.schedule(new Transition(instant.getBookingId(), phase), millisOf(instant.getAt()));
+            scheduled++;
+        }
+        return scheduled;
+    }
+
+    private static long millisOf(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @RequiredArgsConstructor
+    private static class Transition {
+        private final long bookingId;
+        private final Booking.Phase phase;
+    }
+}
@@ -1,9 +1,13 @@
 package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingRow;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.util.List;
@@ -25,10 +29,43 @@ public class BookingMapper {
         return bookings.stream().map(BookingMapper::responseDtoOf).collect(Collectors.toList());
     }
 
+    public static BookingResponseDto responseDtoOf(BookingRow row) {
+        return BookingResponseDto.builder()
+                .id(row.getBookingId())
+                .start(row.getStart())
+                .end(row.getEnd())
+                .status(row.getStatus().toString())
+                .booker(UserDto.builder()
+                        .id(row.getBookerId())
+                        .email(row.getBookerEmail())
+                        .name(row.getBookerName())
+                        .build())
+                .item(ItemDto.builder()
+                        .id(row.getItemId())
+                        .userId(row.getOwnerId())
+                        .name(row.getItemName())
+                        .description(row.getItemDescription())
+                        .available(row.getItemAvailable())
+                        .requestId(row.getItemRequestId())
+                        .build())
+                .build();
+    }
+
+    public static List<BookingResponseDto> responseDtoListOfRows(List<BookingRow> rows) {
+        return rows.stream().map(BookingMapper::responseDtoOf).collect(Collectors.toList());
+    }
+
     public static BookingShortDto shortResponseDtoOf(Booking booking) {
         return BookingShortDto.builder()
                 .id(booking.getId())
                 .bookerId(booking.getUser().getId())
                 .build();
     }
+
+    public static BookingShortDto shortResponseDtoOf(ItemBookingPointer pointer) {
+        return BookingShortDto.builder()
+                .id(pointer.getBookingId())
+                .bookerId(pointer.getBookerId())
+                .build();
+    }
 }
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -39,8 +40,33 @@ public class Booking {
     @JoinColumn(name = "item_id")
     private Item item;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    // where the booking is in time; moved forward at its start and end by BookingLifecycleScheduler
+    @Column(name = "phase")
+    @Enumerated(EnumType.STRING)
+    private Phase phase;
+
+    @PrePersist
+    void assignPhase() {
+        if (phase == null)
+            phase = Phase.at(start, end, LocalDateTime.now());
+    }
+
     public enum Status {
         APPROVED, REJECTED, WAITING
 
     }
+
+    public enum Phase {
+        UPCOMING, ACTIVE, COMPLETED;
+
+        public static Phase at(LocalDateTime start, LocalDateTime end, LocalDateTime dateTime) {
+            if (start.isAfter(dateTime))
+                return UPCOMING;
+            return end.isBefore(dateTime) ? COMPLETED : ACTIVE;
+        }
+    }
 }
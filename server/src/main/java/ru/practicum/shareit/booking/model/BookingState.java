@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.model;
+
+import ru.practicum.shareit.booking.exceptions.BookingValidationException;
+
+public enum BookingState {
+    ALL, CURRENT, FUTURE, PAST, WAITING, REJECTED;
+
+    // CURRENT, FUTURE and PAST select the bookings that reached a phase, WAITING and REJECTED those with a status;
+    // the phase may lag behind the clock, so BookingQuery also compares the start and end with the current time
+    public Booking.Phase phase() {
+        switch (this) {
+            case CURRENT:
+                return Booking.Phase.ACTIVE;
+            case FUTURE:
+                return Booking.Phase.UPCOMING;
+            case PAST:
+                return Booking.Phase.COMPLETED;
+            default:
+                return null;
+        }
+    }
+
+    public Booking.Status status() {
+        return this == WAITING || this == REJECTED ? Booking.Status.valueOf(name()) : null;
+    }
+
+    public static BookingState of(String state) {
+        try {
+            return BookingState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new BookingValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the booking read model: a booking together with its booker and item, denormalized so the listings
+ * filter and sort on one table. Written only by the statements of BookingViewRepository.
+ */
+@Entity
+@Immutable
+@Table(name = "booking_views")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class BookingView {
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "start_time")
+    private LocalDateTime start;
+
+    @Column(name = "end_time")
+    private LocalDateTime end;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private Booking.Status status;
+
+    @Column(name = "phase")
+    @Enumerated(EnumType.STRING)
+    private Booking.Phase phase;
+
+    @Column(name = "booking_version")
+    private Long bookingVersion;
+
+    @Column(name = "booker_id")
+    private Long bookerId;
+
+    @Column(name = "booker_name")
+    private String bookerName;
+
+    @Column(name = "booker_email")
+    private String bookerEmail;
+
+    @Column(name = "booker_version")
+    private Long bookerVersion;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "item_name")
+    private String itemName;
+
+    @Column(name = "item_description")
+    private String itemDescription;
+
+    @Column(name = "item_available")
+    private Boolean itemAvailable;
+
+    @Column(name = "item_request_id")
+    private Long itemRequestId;
+
+    @Column(name = "item_version")
+    private Long itemVersion;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Last and next approved booking of an item as of the last refresh. The row is stale once the next booking
+ * has started; ItemBookingPointerTracker moves it forward shortly after that.
+ */
+@Entity
+@Table(name = "item_booking_pointers")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ItemBookingPointers {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "next_start_time")
+    private LocalDateTime nextStart;
+
+    public boolean isStaleAt(LocalDateTime dateTime) {
+        return nextStart != null && !nextStart.isAfter(dateTime);
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.booking.pointer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingPointers;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingPointersRepository;
+import ru.practicum.shareit.booking.timer.TimingWheel;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps item_booking_pointers current. An approval recomputes the pointers of its item in the approving
+ * transaction; the start of the next booking is put on a timing wheel, and when it passes the pointers are
+ * recomputed again, which moves that booking to last. Until the wheel gets there the row is stale, so reads
+ * of stale rows fall back to the bookings table.
+ */
+@Component
+@Slf4j
+public class ItemBookingPointerTracker {
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemBookingPointersRepository pointersRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration tick;
+    private final TimingWheel<Long> wheel;
+    private ScheduledExecutorService executor;
+
+    public ItemBookingPointerTracker(BookingRepository bookingRepository,
+                                     ItemRepository itemRepository,
+                                     ItemBookingPointersRepository pointersRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shareit.bookings.pointers.tick:1s}") Duration tick,
+                                     @Value("${shareit.bookings.pointers.wheel-size:64}") int wheelSize,
+                                     @Value("${shareit.bookings.pointers.wheel-levels:3}") int wheelLevels) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.pointersRepository = pointersRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tick = tick;
+        this.wheel = new TimingWheel<>(tick.toMillis(), wheelSize, wheelLevels, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<ItemBookingPointers> pending = pointersRepository.findAllByNextStartIsNotNull();
+        for (ItemBookingPointers pointers : pending)
+            schedule(pointers.getItemId(), pointers.getNextStart());
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "booking-pointers");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::advance, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        log.info("Scheduled next booking starts of {} items", pending.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    public List<ItemBookingPointer> findPointers(List<Long> itemsId, LocalDateTime dateTime) {
+        List<ItemBookingPointer> pointers = new ArrayList<>();
+        List<Long> staleItemsId = new ArrayList<>();
+
+        for (ItemBookingPointers row : pointersRepository.findAllById(itemsId)) {
+            if (row.isStaleAt(dateTime)) {
+                staleItemsId.add(row.getItemId());
+                continue;
+            }
+            if (row.getLastBookingId() != null)
+                pointers.add(new Pointer(row.getItemId(), row.getLastBookingId(), row.getLastBookerId(), ItemBookingPointer.LAST));
+            if (row.getNextBookingId() != null)
+                pointers.add(new Pointer(row.getItemId(), row.getNextBookingId(), row.getNextBookerId(), ItemBookingPointer.NEXT));
+        }
+
+        if (!staleItemsId.isEmpty())
+            pointers.addAll(bookingRepository.findLastAndNextBookings(staleItemsId, dateTime));
+        return pointers;
+    }
+
+    /**
+     * Recomputes the pointers of an item. Called in the transaction that approved one of its bookings, with the
+     * item locked, so concurrent refreshes of one item do not interleave.
+     */
+    public void refresh(long itemId) {
+        refresh(itemId, LocalDateTime.now());
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    void advance() {
+        for (Long itemId : wheel.advanceTo(System.currentTimeMillis())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    itemRepository.lockById(itemId);
+                    LocalDateTime now = LocalDateTime.now();
+
+                    pointersRepository.findById(itemId)
+                            .filter(row -> row.isStaleAt(now))
+                            .ifPresent(row -> refresh(itemId, now));
+                });
+            } catch (RuntimeException e) {
+                log.warn("Unable to advance booking pointers of item id {}", itemId, e);
+                wheel.schedule(itemId, System.currentTimeMillis() + tick.toMillis());
+            }
+        }
+    }
+
+    private void refresh(long itemId, LocalDateTime dateTime) {
+        Optional<Booking> last = bookingRepository
+                .findFirstByItemIdAndStatusAndStartBeforeOrderByEndDescStartAsc(itemId, Booking.Status.APPROVED, dateTime);
+        Optional<Booking> next = bookingRepository
+                .findFirstByItemIdAndStatusAndStartGreaterThanEqualOrderByStartAsc(itemId, Booking.Status.APPROVED, dateTime);
+
+        ItemBookingPointers row = pointersRepository.findById(itemId)
+                .orElseGet(() -> ItemBookingPointers.builder().itemId(itemId).build());
+        LocalDateTime scheduledStart = row.getNextStart();
+        row.setLastBookingId(last.map(Booking::getId).orElse(null));
+        row.setLastBookerId(last.map(booking -> booking.getUser().getId()).orElse(null));
+        row.setNextBookingId(next.map(Booking::getId).orElse(null));
+        row.setNextBookerId(next.map(booking -> booking.getUser().getId()).orElse(null));
+        row.setNextStart(next.map(Booking::getStart).orElse(null));
+        pointersRepository.save(row);
+
+        // the wheel already holds the start it was given before, approving a later booking leaves it as it is
+        if (row.getNextStart() != null && !row.getNextStart().equals(scheduledStart))
+            afterCommit(() -> schedule(itemId, row.getNextStart()));
+    }
+
+    private void schedule(long itemId, LocalDateTime start) {
+        wheel.schedule(itemId, start.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Pointer implements ItemBookingPointer {
+        private final Long itemId;
+        private final Long bookingId;
+        private final Long bookerId;
+        private final String pointer;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Which bookings of a user to list: the user's role, the state, optionally a window on the start time, a set of
+ * items and a keyset cursor, plus the page. Unset filters are left out of the statement, bookings come newest first.
+ */
+@Getter
+@EqualsAndHashCode
+@Builder
+public class BookingQuery {
+    public enum Role {
+        BOOKER, OWNER
+    }
+
+    private final long userId;
+    private final Role role;
+    @Builder.Default
+    private final BookingState state = BookingState.ALL;
+    // bookings that start at or after startFrom and before startUntil
+    @Nullable
+    private final LocalDateTime startFrom;
+    @Nullable
+    private final LocalDateTime startUntil;
+    @Nullable
+    private final Collection<Long> itemsId;
+    // bookings that come after the cursor in the listing order
+    @Nullable
+    private final BookingCursor after;
+    @Builder.Default
+    private final Pageable pageable = Pageable.unpaged();
+
+    public static BookingQueryBuilder of(long userId, boolean isOwner) {
+        return builder()
+                .userId(userId)
+                .role(isOwner ? Role.OWNER : Role.BOOKER);
+    }
+
+    // an empty set of items or an empty window selects no bookings, there is no need to ask the database
+    public boolean selectsNothing() {
+        return itemsId != null && itemsId.isEmpty() ||
+                startFrom != null && startUntil != null && !startFrom.isBefore(startUntil);
+    }
+}
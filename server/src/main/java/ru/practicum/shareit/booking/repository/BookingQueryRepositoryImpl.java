@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingRow;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingRow> findBookings(BookingQuery query) {
+        if (query.selectsNothing())
+            return List.of();
+
+        return BookingQuerySource.BOOKINGS.createQuery(entityManager, query).getResultList();
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingRow;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders a BookingQuery against the bookings or their read model, selecting the columns of BookingRow rather than
+ * entities. The statement depends only on which filters are set, never on their values, so each of the few shapes is
+ * built once and every call of a shape sends the same SQL, which keeps hitting Hibernate's plan cache and the
+ * prepared statements of the driver.
+ * <p>
+ * CURRENT, FUTURE and PAST filter on the phase, which lags behind the clock until BookingLifecycleScheduler moves
+ * the booking on, so each phase is widened by the bookings still in an earlier phase whose start or end has passed
+ * and narrowed by the time, selecting exactly what comparing the start and end with now would.
+ */
+enum BookingQuerySource {
+    BOOKINGS("select new ru.practicum.shareit.booking.dto.BookingRow(" +
+            "b.id, b.start, b.end, b.status, b.version, u.id, u.name, u.email, u.version, " +
+            "i.id, i.name, i.description, i.isAvailable, r.id, i.version, i.user.id) " +
+            "from Booking as b " +
+            "join b.user as u " +
+            "join b.item as i " +
+            "left join i.request as r ", "u.id", "i.user.id", "i.id", "b.id", "b"),
+    VIEWS("select new ru.practicum.shareit.booking.dto.BookingRow(" +
+            "v.bookingId, v.start, v.end, v.status, v.bookingVersion, v.bookerId, v.bookerName, v.bookerEmail, " +
+            "v.bookerVersion, v.itemId, v.itemName, v.itemDescription, v.itemAvailable, v.itemRequestId, " +
+            "v.itemVersion, v.ownerId) " +
+            "from BookingView as v ", "v.bookerId", "v.ownerId", "v.itemId", "v.bookingId", "v");
+
+    private static final int OWNER = 1;
+    private static final int CURRENT = 1 << 1;
+    private static final int FUTURE = 1 << 2;
+    private static final int PAST = 1 << 3;
+    private static final int STATUS = 1 << 4;
+    private static final int START_FROM = 1 << 5;
+    private static final int START_UNTIL = 1 << 6;
+    private static final int ITEMS = 1 << 7;
+    private static final int CURSOR = 1 << 8;
+
+    private final String select;
+    private final String bookerId;
+    private final String ownerId;
+    private final String itemId;
+    private final String id;
+    private final String alias;
+    private final Map<Integer, String> statements = new ConcurrentHashMap<>();
+
+    BookingQuerySource(String select, String bookerId, String ownerId, String itemId, String id, String alias) {
+        this.select = select;
+        this.bookerId = bookerId;
+        this.ownerId = ownerId;
+        this.itemId = itemId;
+        this.id = id;
+        this.alias = alias;
+    }
+
+    TypedQuery<BookingRow> createQuery(EntityManager entityManager, BookingQuery query) {
+        int shape = shapeOf(query);
+        TypedQuery<BookingRow> typedQuery = entityManager.createQuery(statements.computeIfAbsent(shape, this::render),
+                        BookingRow.class)
+                .setParameter("userId", query.getUserId());
+
+        if ((shape & (CURRENT | FUTURE | PAST)) != 0)
+            typedQuery.setParameter("now", LocalDateTime.now());
+        if ((shape & (CURRENT | FUTURE)) != 0)
+            typedQuery.setParameter("upcoming", Booking.Phase.UPCOMING);
+        if ((shape & CURRENT) != 0)
+            typedQuery.setParameter("active", Booking.Phase.ACTIVE);
+        if ((shape & PAST) != 0)
+            typedQuery.setParameter("completed", Booking.Phase.COMPLETED);
+        if ((shape & STATUS) != 0)
+            typedQuery.setParameter("status", query.getState().status());
+        if ((shape & START_FROM) != 0)
+            typedQuery.setParameter("startFrom", query.getStartFrom());
+        if ((shape & START_UNTIL) != 0)
+            typedQuery.setParameter("startUntil", query.getStartUntil());
+        if ((shape & ITEMS) != 0)
+            typedQuery.setParameter("itemsId", query.getItemsId());
+        if ((shape & CURSOR) != 0) {
+            typedQuery.setParameter("cursorStart", query.getAfter().getStart())
+                    .setParameter("cursorId", query.getAfter().getId());
+        }
+        if (query.getPageable().isPaged()) {
+            typedQuery.setFirstResult((int) query.getPageable().getOffset())
+                    .setMaxResults(query.getPageable().getPageSize());
+        }
+
+        return typedQuery;
+    }
+
+    private static int shapeOf(BookingQuery query) {
+        int shape = query.getRole() == BookingQuery.Role.OWNER ? OWNER : 0;
+
+        if (query.getState().phase() == Booking.Phase.ACTIVE)
+            shape |= CURRENT;
+        else if (query.getState().phase() == Booking.Phase.UPCOMING)
+            shape |= FUTURE;
+        else if (query.getState().phase() == Booking.Phase.COMPLETED)
+            shape |= PAST;
+        else if (query.getState().status() != null)
+            shape |= STATUS;
+        if (query.getStartFrom() != null)
+            shape |= START_FROM;
+        if (query.getStartUntil() != null)
+            shape |= START_UNTIL;
+        if (query.getItemsId() != null)
+            shape |= ITEMS;
+        if (query.getAfter() != null)
+            shape |= CURSOR;
+
+        return shape;
+    }
+
+    private String render(int shape) {
+        String start = alias + ".start";
+        String end = alias + ".end";
+        String phase = alias + ".phase";
+        StringBuilder jpql = new StringBuilder(select);
+
+        jpql.append("where ").append((shape & OWNER) != 0 ? ownerId : bookerId).append(" = :userId ");
+
+        if ((shape & CURRENT) != 0) {
+            jpql.append("and (").append(phase).append(" = :active or ")
+                    .append(phase).append(" = :upcoming and ").append(start).append(" <= :now) ")
+                    .append("and ").append(end).append(" >= :now ");
+        }
+        if ((shape & FUTURE) != 0)
+            jpql.append("and ").append(phase).append(" = :upcoming and ").append(start).append(" > :now ");
+        if ((shape & PAST) != 0) {
+            jpql.append("and (").append(phase).append(" = :completed or ")
+                    .append(phase).append(" <> :completed and ").append(end).append(" < :now) ");
+        }
+        if ((shape & STATUS) != 0)
+            jpql.append("and ").append(alias).append(".status = :status ");
+        if ((shape & START_FROM) != 0)
+            jpql.append("and ").append(start).append(" >= :startFrom ");
+        if ((shape & START_UNTIL) != 0)
+            jpql.append("and ").append(start).append(" < :startUntil ");
+        if ((shape & ITEMS) != 0)
+            jpql.append("and ").append(itemId).append(" in :itemsId ");
+        if ((shape & CURSOR) != 0) {
+            jpql.append("and (").append(start).append(" < :cursorStart or (")
+                    .append(start).append(" = :cursorStart and ").append(id).append(" < :cursorId)) ");
+        }
+        jpql.append("order by ").append(start).append(" desc, ").append(id).append(" desc");
+
+        return jpql.toString();
+    }
+}
@@ -2,13 +2,18 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingInstant;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
     @Query(value = "select case when count(b) > 0 then true else false END " +
             "from Booking as b " +
             "join b.user as u " +
@@ -22,85 +27,72 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "where u.id = ?1 and b.id = ?2")
     boolean isOwner(long ownerId, long bookingId);
 
-    @Query(value = "select b from Booking as b " +
-            "join b.user as u " +
-            "where u.id = ?1 " +
-            "order by b.start desc")
-    List<Booking> findAllByUser(long userId, Pageable pageable);
-
-    @Query(value = "select b from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 " +
-            "order by b.start desc")
-    List<Booking> findAllByOwner(long ownerId, Pageable pageable);
-
-    @Query(value = "select b from Booking as b " +
-            "join b.user as u " +
-            "where u.id = ?1 and " +
-            "(b.start <= ?2 and b.end >= ?2) " +
-            "order by b.start desc ")
-    List<Booking> findAllCurrentBookingsByUser(long userId, LocalDateTime dateTime, Pageable pageable);
-
-    @Query(value = "select b from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 and " +
-            "(b.start <= ?2 and b.end >= ?2) " +
-            "order by b.start desc")
-    List<Booking> findAllCurrentBookingsByOwner(long userId, LocalDateTime dateTime, Pageable pageable);
-
-    @Query(value = "select b from Booking as b " +
-            "join b.user as u " +
-            "where u.id = ?1 and " +
-            "b.start > ?2 " +
-            "order by b.start desc ")
-    List<Booking> findAllFutureBookingsByUser(long userId, LocalDateTime dateTime, Pageable pageable);
-
-    @Query(value = "select b from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 and " +
-            "b.start > ?2 " +
-            "order by b.start desc")
-    List<Booking> findAllFutureBookingsByOwner(long userId, LocalDateTime dateTime, Pageable pageable);
-
-    @Query(value = "select b from Booking as b " +
-            "join b.user as u " +
-            "where u.id = ?1 and " +
-            "b.end < ?2 " +
-            "order by b.start desc ")
-    List<Booking> findAllPastBookingsByUser(long userId, LocalDateTime dateTime, Pageable pageable);
-
-    @Query(value = "select b from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 and " +
-            "b.end < ?2 " +
-            "order by b.start desc")
-    List<Booking> findAllPastBookingsByOwner(long userId, LocalDateTime dateTime, Pageable pageable);
-
-    List<Booking> findAllByUserIdIsAndStatusIsOrderByStartDesc(long userId, Booking.Status status, Pageable pageable);
-
-    List<Booking> findAllByItemUserIdAndStatusIsOrderByStartDesc(long userId, Booking.Status status, Pageable pageable);
-
-    @Query(value = "select * from bookings as b " +
-            "left join items as i on b.item_id = i.id " +
-            "where i.id = ? and b.start_time < now() and b.status = 'APPROVED' " +
-            "order by b.end_time desc " +
-            "limit 1", nativeQuery = true)
-    Booking findLastBooking(long itemId);
-
-    @Query(value = "select * from bookings as b " +
-            "left join items as i on b.item_id = i.id " +
-            "where i.id = ? and b.start_time > now() and b.status = 'APPROVED' " +
-            "order by b.start_time asc " +
-            "limit 1", nativeQuery = true)
-    Booking findNextBooking(long itemId);
+    // the status check and the transition are one statement, so of concurrent approvals of a booking only one
+    // changes it; an approval also fails while an approved booking of the same item overlaps this one
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking as b " +
+            "set b.status = 'APPROVED', b.version = b.version + 1 " +
+            "where b.id = ?1 and b.status = 'WAITING' and not exists (" +
+            "select o.id from Booking as o " +
+            "where o.item = b.item and o.status = 'APPROVED' and o.start < b.end and o.end > b.start)")
+    int approveIfWaiting(long bookingId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking as b " +
+            "set b.status = 'REJECTED', b.version = b.version + 1 " +
+            "where b.id = ?1 and b.status = 'WAITING'")
+    int rejectIfWaiting(long bookingId);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByEndDescStartAsc(long itemId, Booking.Status status,
+                                                                                     LocalDateTime dateTime);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartGreaterThanEqualOrderByStartAsc(long itemId, Booking.Status status,
+                                                                                       LocalDateTime dateTime);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking as b " +
+            "set b.phase = ?2 " +
+            "where b.id in ?1 and b.phase in ?3")
+    int movePhase(Collection<Long> bookingsId, Booking.Phase phase, Collection<Booking.Phase> from);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking as b " +
+            "set b.phase = 'ACTIVE' " +
+            "where b.phase = 'UPCOMING' and b.start <= ?1")
+    int startDue(LocalDateTime dateTime);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking as b " +
+            "set b.phase = 'COMPLETED' " +
+            "where b.phase in ('UPCOMING', 'ACTIVE') and b.end < ?1")
+    int completeDue(LocalDateTime dateTime);
+
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingInstant(b.id, b.start) " +
+            "from Booking as b " +
+            "where b.phase = 'UPCOMING' and b.start > ?1 and b.start <= ?2 " +
+            "order by b.start")
+    List<BookingInstant> findStartsBetween(LocalDateTime after, LocalDateTime until, Pageable pageable);
 
-    @Query(value = "select b from Booking as b " +
-            "join b.item as i " +
-            "where i.id in ?1 " +
-            "order by b.start asc")
-    List<Booking> findAllByItemsId(List<Long> itemsId);
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingInstant(b.id, b.end) " +
+            "from Booking as b " +
+            "where b.phase in ('UPCOMING', 'ACTIVE') and b.end > ?1 and b.end <= ?2 " +
+            "order by b.end")
+    List<BookingInstant> findEndsBetween(LocalDateTime after, LocalDateTime until, Pageable pageable);
+
+    List<Booking> findAllByStatusInAndEndAfter(List<Booking.Status> statuses, LocalDateTime dateTime);
+
+    @Query(value = "select ranked.item_id as itemId, ranked.id as bookingId, " +
+            "ranked.user_id as bookerId, ranked.pointer as pointer " +
+            "from (" +
+            "select b.id, b.item_id, b.user_id, " +
+            "case when b.start_time < ?2 then 'LAST' else 'NEXT' end as pointer, " +
+            "row_number() over (" +
+            "partition by b.item_id, case when b.start_time < ?2 then 'LAST' else 'NEXT' end " +
+            "order by case when b.start_time < ?2 then b.end_time end desc, b.start_time asc" +
+            ") as rn " +
+            "from bookings as b " +
+            "where b.item_id in ?1 and b.status = 'APPROVED'" +
+            ") as ranked " +
+            "where ranked.rn = 1", nativeQuery = true)
+    List<ItemBookingPointer> findLastAndNextBookings(List<Long> itemsId, LocalDateTime dateTime);
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingRow;
+
+import java.util.List;
+
+public interface BookingViewQueryRepository {
+    List<BookingRow> findBookings(BookingQuery query);
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Keeps booking_views in step with bookings, items and users. Every statement reads the current rows inside
+ * the calling transaction after a flush, so the read model commits or rolls back together with the write.
+ */
+public interface BookingViewRepository extends Repository<BookingView, Long>, BookingViewQueryRepository {
+    String COLUMNS = "booking_id, start_time, end_time, status, phase, booking_version, " +
+            "booker_id, booker_name, booker_email, booker_version, " +
+            "item_id, item_name, item_description, item_available, item_request_id, item_version, owner_id";
+    String ROWS = "select b.id, b.start_time, b.end_time, b.status, b.phase, b.version, " +
+            "u.id, u.name, u.email, u.version, " +
+            "i.id, i.name, i.description, i.is_available, i.request_id, i.version, i.owner_id " +
+            "from bookings as b " +
+            "join users as u on u.id = b.user_id " +
+            "join items as i on i.id = b.item_id ";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into booking_views (" + COLUMNS + ") " + ROWS +
+            "where b.id in ?1", nativeQuery = true)
+    void insertBookings(Collection<Long> bookingsId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into booking_views (" + COLUMNS + ") " + ROWS +
+            "where not exists (select v.booking_id from booking_views as v where v.booking_id = b.id)", nativeQuery = true)
+    int insertMissing();
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update booking_views set " +
+            "status = (select b.status from bookings as b where b.id = booking_views.booking_id), " +
+            "booking_version = (select b.version from bookings as b where b.id = booking_views.booking_id) " +
+            "where booking_id = ?1", nativeQuery = true)
+    void updateBookingStatus(long bookingId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update booking_views set " +
+            "phase = (select b.phase from bookings as b where b.id = booking_views.booking_id) " +
+            "where booking_id in ?1", nativeQuery = true)
+    void updatePhases(Collection<Long> bookingsId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update booking_views set phase = 'ACTIVE' " +
+            "where phase = 'UPCOMING' and start_time <= ?1", nativeQuery = true)
+    int startDue(LocalDateTime dateTime);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update booking_views set phase = 'COMPLETED' " +
+            "where phase in ('UPCOMING', 'ACTIVE') and end_time < ?1", nativeQuery = true)
+    int completeDue(LocalDateTime dateTime);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update booking_views set " +
+            "item_name = (select i.name from items as i where i.id = booking_views.item_id), " +
+            "item_description = (select i.description from items as i where i.id = booking_views.item_id), " +
+            "item_available = (select i.is_available from items as i where i.id = booking_views.item_id), " +
+            "item_request_id = (select i.request_id from items as i where i.id = booking_views.item_id), " +
+            "item_version = (select i.version from items as i where i.id = booking_views.item_id) " +
+            "where item_id = ?1", nativeQuery = true)
+    void updateItem(long itemId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update booking_views set " +
+            "booker_name = (select u.name from users as u where u.id = booking_views.booker_id), " +
+            "booker_email = (select u.email from users as u where u.id = booking_views.booker_id), " +
+            "booker_version = (select u.version from users as u where u.id = booking_views.booker_id) " +
+            "where booker_id = ?1", nativeQuery = true)
+    void updateBooker(long userId);
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ItemBookingPointers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingPointersRepository extends JpaRepository<ItemBookingPointers, Long> {
+    List<ItemBookingPointers> findAllByNextStartIsNotNull();
+
+    // fills the rows of items whose bookings were written past the service, the same way V8 does
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into item_booking_pointers (item_id, last_booking_id, last_booker_id, " +
+            "next_booking_id, next_booker_id, next_start_time) " +
+            "select p.item_id, l.id, l.user_id, n.id, n.user_id, n.start_time " +
+            "from (" +
+            "select i.id as item_id, " +
+            "(select b.id from bookings as b " +
+            "where b.item_id = i.id and b.status = 'APPROVED' and b.start_time < ?1 " +
+            "order by b.end_time desc, b.start_time asc limit 1) as last_id, " +
+            "(select b.id from bookings as b " +
+            "where b.item_id = i.id and b.status = 'APPROVED' and b.start_time >= ?1 " +
+            "order by b.start_time asc limit 1) as next_id " +
+            "from items as i " +
+            "where exists (select b.id from bookings as b where b.item_id = i.id and b.status = 'APPROVED') " +
+            "and not exists (select p.item_id from item_booking_pointers as p where p.item_id = i.id)" +
+            ") as p " +
+            "left join bookings as l on l.id = p.last_id " +
+            "left join bookings as n on n.id = p.next_id", nativeQuery = true)
+    int insertMissing(LocalDateTime dateTime);
+}
@@ -1,16 +1,29 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.etag.Versioned;
 
 import java.util.List;
 
 public interface BookingService {
     BookingResponseDto bookItem(BookingRequestDto bookingDto);
 
+    List<BookingBatchResultDto> bookItems(long userId, List<BookingRequestDto> bookingDtos);
+
     BookingResponseDto acceptOrDeclineBooking(long userId, long bookingId, boolean approved);
 
     BookingResponseDto getBooking(long userId, long bookingId);
 
+    Versioned<BookingResponseDto> getVersionedBooking(long userId, long bookingId);
+
     List<BookingResponseDto> getUserBookings(long userId, String state, boolean isOwner, Integer from, Integer size);
+
+    Versioned<List<BookingResponseDto>> getVersionedUserBookings(long userId, String state, boolean isOwner, Integer from, Integer size);
+
+    BookingPageDto getUserBookingsPage(long userId, String state, boolean isOwner, String cursor, Integer size);
+
+    Versioned<BookingPageDto> getVersionedUserBookingsPage(long userId, String state, boolean isOwner, String cursor, Integer size);
 }
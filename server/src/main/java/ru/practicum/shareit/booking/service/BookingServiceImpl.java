@@ -3,16 +3,30 @@ package ru.practicum.shareit.booking.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingRow;
 import ru.practicum.shareit.booking.exceptions.AcceptBookingException;
+import ru.practicum.shareit.booking.exceptions.BookingConflictException;
 import ru.practicum.shareit.booking.exceptions.BookingNotFoundException;
 import ru.practicum.shareit.booking.exceptions.BookingValidationException;
 import ru.practicum.shareit.booking.exceptions.ItemBookingException;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.pointer.ItemBookingPointerTracker;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -22,15 +36,25 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingAvailabilityEngine availabilityEngine;
+    private final ItemBookingPointerTracker pointerTracker;
+    private final BookingLifecycleScheduler lifecycleScheduler;
 
     @Override
     @Transactional
@@ -44,10 +68,14 @@ public class BookingServiceImpl implements BookingService {
         Item item = itemRepository.findById(bookingDto.getItemId())
                 .orElseThrow(() -> new ItemNotFoundException(String.format("Item id %d not found", bookingDto.getItemId())));
 
-        if (item.getUser().equals(user))
+        if (item.getUser().getId().equals(user.getId()))
             throw new BookingNotFoundException(String.format("Item id %d already booked", item.getId()));
 
         if (item.getIsAvailable()) {
+            if (!availabilityEngine.isAvailable(item.getId(), bookingDto.getStart(), bookingDto.getEnd()))
+                throw new BookingConflictException(String.format("Item id %d is already booked for %s - %s",
+                        item.getId(), bookingDto.getStart(), bookingDto.getEnd()));
+
             Booking booking = Booking.builder()
                     .start(bookingDto.getStart())
                     .end(bookingDto.getEnd())
@@ -56,12 +84,95 @@ public class BookingServiceImpl implements BookingService {
                     .status(Booking.Status.WAITING)
                     .build();
 
-            return BookingMapper.responseDtoOf(bookingRepository.save(booking));
+            booking = bookingRepository.save(booking);
+            bookingViewRepository.insertBookings(List.of(booking.getId()));
+            availabilityEngine.reserve(booking);
+            lifecycleScheduler.track(booking);
+
+            return BookingMapper.responseDtoOf(booking);
         } else {
             throw new ItemBookingException(String.format("Item id %d is unavailable", item.getId()));
         }
     }
 
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> bookItems(long userId, List<BookingRequestDto> bookingDtos) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(String.format("User id %d not found", userId)));
+        Map<Long, Item> items = itemRepository.findAllWithOwnerByIds(bookingDtos.stream()
+                        .map(BookingRequestDto::getItemId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Integer> candidates = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+
+        // the same checks as bookItem, failing only the entry instead of the whole request
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingRequestDto bookingDto = bookingDtos.get(i);
+            Item item = items.get(bookingDto.getItemId());
+
+            if (!bookingDto.getStart().isBefore(bookingDto.getEnd()))
+                results[i] = BookingBatchResultDto.failed(HttpStatus.BAD_REQUEST, "start/end data is incorrect");
+            else if (item == null)
+                results[i] = BookingBatchResultDto.failed(HttpStatus.NOT_FOUND, String.format("Item id %d not found", bookingDto.getItemId()));
+            else if (item.getUser().getId().equals(user.getId()))
+                results[i] = BookingBatchResultDto.failed(HttpStatus.NOT_FOUND, String.format("Item id %d already booked", item.getId()));
+            else if (!item.getIsAvailable())
+                results[i] = BookingBatchResultDto.failed(HttpStatus.BAD_REQUEST, String.format("Item id %d is unavailable", item.getId()));
+            else {
+                candidates.add(i);
+                bookings.add(Booking.builder()
+                        .start(bookingDto.getStart())
+                        .end(bookingDto.getEnd())
+                        .user(user)
+                        .item(item)
+                        .status(Booking.Status.WAITING)
+                        .build());
+            }
+        }
+
+        List<Boolean> available = availabilityEngine.isAvailable(bookings);
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int j = 0; j < bookings.size(); j++) {
+            if (available.get(j)) {
+                accepted.add(bookings.get(j));
+                acceptedIndexes.add(candidates.get(j));
+            } else {
+                results[candidates.get(j)] = conflictOf(bookings.get(j));
+            }
+        }
+
+        // ids come from the sequence, so the inserts are only sent on flush, as one JDBC batch
+        bookingRepository.saveAll(accepted);
+
+        // a single booking may have taken the interval since the check, that fails its entry only and the
+        // insert is dropped before the flush
+        List<Booking> reserved = new ArrayList<>();
+        for (int j = 0; j < accepted.size(); j++) {
+            Booking booking = accepted.get(j);
+            try {
+                availabilityEngine.reserve(booking);
+                reserved.add(booking);
+            } catch (BookingConflictException e) {
+                bookingRepository.delete(booking);
+                results[acceptedIndexes.get(j)] = conflictOf(booking);
+            }
+        }
+        if (!reserved.isEmpty())
+            bookingViewRepository.insertBookings(reserved.stream().map(Booking::getId).collect(Collectors.toList()));
+        reserved.forEach(lifecycleScheduler::track);
+
+        for (int j = 0; j < bookings.size(); j++) {
+            if (results[candidates.get(j)] == null)
+                results[candidates.get(j)] = BookingBatchResultDto.created(BookingMapper.responseDtoOf(bookings.get(j)));
+        }
+        return Arrays.asList(results);
+    }
+
     @Override
     @Transactional
     public BookingResponseDto acceptOrDeclineBooking(long userId, long bookingId, boolean isApproved) {
@@ -70,28 +181,41 @@ public class BookingServiceImpl implements BookingService {
 
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException(String.format("Booking id %d not found", bookingId)));
-        Item item = booking.getItem();
+        long itemId = booking.getItem().getId();
 
         if (userId != booking.getItem().getUser().getId())
             throw new BookingNotFoundException(String.format("User id %d has no rights to approve booking id %d", userId, bookingId));
 
-        if (booking.getStatus().equals(Booking.Status.WAITING) && booking.getItem().getIsAvailable()) {
-            if (isApproved) {
-                booking.setStatus(Booking.Status.APPROVED);
-//              booking.getItem().setIsAvailable(Boolean.TRUE);
-            } else {
-                booking.setStatus(Booking.Status.REJECTED);
-            }
-            bookingRepository.save(booking);
-        } else {
+        if (!booking.getStatus().equals(Booking.Status.WAITING) || !booking.getItem().getIsAvailable())
             throw new AcceptBookingException("Unable to approve booking");
-        }
+
+        // approvals of one item wait for each other, so the overlap check of the update sees every approval
+        // committed before it; the status is checked again by the update, a concurrent decision made first wins
+        if (isApproved)
+            itemRepository.lockById(itemId);
+
+        int changed = isApproved ? bookingRepository.approveIfWaiting(bookingId) : bookingRepository.rejectIfWaiting(bookingId);
+        if (changed == 0)
+            throw new AcceptBookingException("Unable to approve booking");
+        bookingViewRepository.updateBookingStatus(bookingId);
+
+        booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(String.format("Booking id %d not found", bookingId)));
+        if (isApproved)
+            pointerTracker.refresh(itemId);
+        else
+            availabilityEngine.release(booking);
 
         return BookingMapper.responseDtoOf(booking);
     }
 
     @Override
     public BookingResponseDto getBooking(long userId, long bookingId) {
+        return getVersionedBooking(userId, bookingId).getBody();
+    }
+
+    @Override
+    public Versioned<BookingResponseDto> getVersionedBooking(long userId, long bookingId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(String.format("User id %d not found", userId)));
         Booking booking = bookingRepository.findById(bookingId)
@@ -101,16 +225,19 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingNotFoundException(String.format("No booking id %d found for user %d",bookingId, userId));
 
 
-        return BookingMapper.responseDtoOf(booking);
+        return Versioned.of(tagOf("booking", List.of(booking)), () -> BookingMapper.responseDtoOf(booking));
     }
 
     @Override
     public List<BookingResponseDto> getUserBookings(long userId, String state, boolean isOwner, Integer from, Integer size) {
+        return getVersionedUserBookings(userId, state, isOwner, from, size).getBody();
+    }
+
+    @Override
+    public Versioned<List<BookingResponseDto>> getVersionedUserBookings(long userId, String state, boolean isOwner, Integer from, Integer size) {
         if (!userRepository.existsById(userId))
             throw new UserNotFoundException(String.format("User id %d not found", userId));
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
         Pageable pageable;
 
         if (from != null && size != null) {
@@ -124,48 +251,66 @@ public class BookingServiceImpl implements BookingService {
             pageable = Pageable.unpaged();
         }
 
+        List<BookingRow> rows = bookingViewRepository.findBookings(BookingQuery.of(userId, isOwner)
+                .state(BookingState.of(state))
+                .pageable(pageable)
+                .build());
+        return Versioned.of(rowsTagOf("bookings", rows), () -> BookingMapper.responseDtoListOfRows(rows));
+    }
+
+    @Override
+    public BookingPageDto getUserBookingsPage(long userId, String state, boolean isOwner, String cursor, Integer size) {
+        return getVersionedUserBookingsPage(userId, state, isOwner, cursor, size).getBody();
+    }
+
+    @Override
+    public Versioned<BookingPageDto> getVersionedUserBookingsPage(long userId, String state, boolean isOwner, String cursor, Integer size) {
+        if (!userRepository.existsById(userId))
+            throw new UserNotFoundException(String.format("User id %d not found", userId));
+
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0)
+            throw new PaginationDataException("Invalid pagination data");
+
+        BookingCursor after = cursor == null || cursor.isBlank() ? null : BookingCursor.decode(cursor);
+        List<BookingRow> rows = bookingViewRepository.findBookings(BookingQuery.of(userId, isOwner)
+                .state(BookingState.of(state))
+                .after(after)
+                .pageable(PageRequest.of(0, pageSize))
+                .build());
 
-        switch (state) {
-            case "ALL":
-                if (isOwner)
-                    bookings = bookingRepository.findAllByOwner(userId, pageable);
-                else
-                    bookings = bookingRepository.findAllByUser(userId, pageable);
-                break;
-            case "CURRENT":
-                if (isOwner)
-                    bookings = bookingRepository.findAllCurrentBookingsByOwner(userId, now, pageable);
-                else
-                    bookings = bookingRepository.findAllCurrentBookingsByUser(userId, now, pageable);
-                break;
-            case "FUTURE":
-                if (isOwner)
-                    bookings = bookingRepository.findAllFutureBookingsByOwner(userId, now, pageable);
-                else
-                    bookings = bookingRepository.findAllFutureBookingsByUser(userId, now, pageable);
-                break;
-            case "PAST":
-                if (isOwner)
-                    bookings = bookingRepository.findAllPastBookingsByOwner(userId, now, pageable);
-                else
-                    bookings = bookingRepository.findAllPastBookingsByUser(userId, now, pageable);
-                break;
-            case "WAITING":
-                if (isOwner)
-                    bookings = bookingRepository.findAllByItemUserIdAndStatusIsOrderByStartDesc(userId, Booking.Status.WAITING, pageable);
-                else
-                    bookings = bookingRepository.findAllByUserIdIsAndStatusIsOrderByStartDesc(userId, Booking.Status.WAITING, pageable);
-                break;
-            case "REJECTED":
-                if (isOwner)
-                    bookings = bookingRepository.findAllByItemUserIdAndStatusIsOrderByStartDesc(userId, Booking.Status.REJECTED, pageable);
-                else
-                    bookings = bookingRepository.findAllByUserIdIsAndStatusIsOrderByStartDesc(userId, Booking.Status.REJECTED, pageable);
-                break;
-            default:
-                throw new BookingValidationException("Unknown state: UNSUPPORTED_STATUS");
+        String nextCursor = rows.size() == pageSize ? BookingCursor.of(rows.get(rows.size() - 1)).encode() : null;
+
+        return Versioned.of(rowsTagOf("bookings", rows), () -> BookingPageDto.builder()
+                .bookings(BookingMapper.responseDtoListOfRows(rows))
+                .nextCursor(nextCursor)
+                .build());
+    }
+
+    // a booking is shown with its item and booker, so their versions are part of its tag
+    private static EntityTag tagOf(String kind, List<Booking> bookings) {
+        EntityTag etag = EntityTag.of(kind);
+        for (Booking booking : bookings) {
+            etag.add(booking.getId(), booking.getVersion())
+                    .add(booking.getItem().getId(), booking.getItem().getVersion())
+                    .add(booking.getUser().getId(), booking.getUser().getVersion());
         }
+        return etag;
+    }
+
+    // the same tag as tagOf gives for the bookings the rows were selected from
+    private static EntityTag rowsTagOf(String kind, List<BookingRow> rows) {
+        EntityTag etag = EntityTag.of(kind);
+        for (BookingRow row : rows) {
+            etag.add(row.getBookingId(), row.getBookingVersion())
+                    .add(row.getItemId(), row.getItemVersion())
+                    .add(row.getBookerId(), row.getBookerVersion());
+        }
+        return etag;
+    }
 
-        return BookingMapper.responseDtoListOf(bookings);
+    private static BookingBatchResultDto conflictOf(Booking booking) {
+        return BookingBatchResultDto.failed(HttpStatus.CONFLICT, String.format("Item id %d is already booked for %s - %s",
+                booking.getItem().getId(), booking.getStart(), booking.getEnd()));
     }
 }
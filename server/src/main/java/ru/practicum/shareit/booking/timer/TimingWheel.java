@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level 0 has a slot per tick, every next level has a slot per full turn of the
+ * level below, so a few small rings cover a long span: a task sits in the coarsest slot that still tells its
+ * deadline apart from the current time and drops one level each time the wheel reaches that slot. Scheduling
+ * is O(1) and a task is moved at most once per level. Deadlines past the top level wait in an overflow list
+ * that is looked at once per turn of the top level. Deadlines are rounded up to a tick and never fire early.
+ */
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final int size;
+    // ticks covered by one slot of each level, plus the span of the whole wheel as the last element
+    private final long[] spans;
+    private final List<List<List<Entry<T>>>> levels;
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int count;
+
+    public TimingWheel(long tickMillis, int size, int levels, long startMillis) {
+        if (tickMillis <= 0 || size <= 1 || levels <= 0)
+            throw new IllegalArgumentException("Tick, size and levels of a timing wheel must be positive");
+
+        this.tickMillis = tickMillis;
+        this.size = size;
+        this.spans = new long[levels + 1];
+        this.levels = new ArrayList<>(levels);
+        spans[0] = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level + 1] = Math.multiplyExact(spans[level], size);
+
+            List<List<Entry<T>>> slots = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                slots.add(new ArrayList<>());
+            this.levels.add(slots);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public synchronized void schedule(T task, long deadlineMillis) {
+        // an overdue task goes to the next tick rather than to a slot the wheel has already passed
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+
+        place(new Entry<>(task, deadlineTick));
+        count++;
+    }
+
+    /**
+     * Turns the wheel up to the given time and returns the tasks that fell due on the way, earliest first.
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            if (currentTick % spans[levels.size()] == 0)
+                cascade(overflow, expired);
+            for (int level = levels.size() - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0)
+                    cascade(levels.get(level).get(slotOf(currentTick, level)), expired);
+            }
+
+            List<Entry<T>> due = levels.get(0).get(slotOf(currentTick, 0));
+            for (Entry<T> entry : due)
+                expired.add(entry.task);
+            count -= due.size();
+            due.clear();
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; level < levels.size(); level++) {
+            if (entry.deadlineTick / spans[level + 1] == currentTick / spans[level + 1]) {
+                levels.get(level).get(slotOf(entry.deadlineTick, level)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    // moves the tasks of a slot the wheel has just reached one level down, or out when they are due now
+    private void cascade(List<Entry<T>> slot, List<T> expired) {
+        List<Entry<T>> entries = new ArrayList<>(slot);
+        slot.clear();
+
+        for (Entry<T> entry : entries) {
+            if (entry.deadlineTick <= currentTick) {
+                expired.add(entry.task);
+                count--;
+            } else {
+                place(entry);
+            }
+        }
+    }
+
+    private int slotOf(long tick, int level) {
+        return (int) ((tick / spans[level]) % size);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static class Entry<T> {
+        private final T task;
+        private final long deadlineTick;
+
+        private Entry(T task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
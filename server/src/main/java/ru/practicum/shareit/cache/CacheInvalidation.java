@@ -0,0 +1,10 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Data;
+
+@Data
+public class CacheInvalidation {
+    private final String origin;
+    private final String region;
+    private final long id;
+}
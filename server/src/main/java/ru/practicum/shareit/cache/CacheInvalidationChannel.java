@@ -0,0 +1,14 @@
+package ru.practicum.shareit.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries entity cache invalidations between application instances. Every instance publishes the ids it
+ * changed and evicts the ids published by the others; a broker-backed implementation replaces the in-process
+ * one when more than one server instance shares the database.
+ */
+public interface CacheInvalidationChannel {
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded, time-limited cache of entities by id. Entries are kept as detached snapshots, and hits and misses alike
+ * hand out a fresh detached copy, so callers may modify what they get back. Nothing they change is flushed by dirty
+ * checking: a change is only written when the copy is passed to {@code save()}. The least recently used entry is
+ * dropped once the cache is full.
+ * <p>
+ * A value loaded inside a transaction is only cached after that transaction commits, and only if nothing was
+ * evicted in the meantime, so neither rolled back rows nor values read before a concurrent update end up here.
+ */
+public class EntityCache<V> implements MeterBinder {
+    private final String name;
+    private final int maxSize;
+    private final Duration ttl;
+    private final UnaryOperator<V> snapshot;
+    private final Clock clock;
+
+    private final Map<Long, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EntityCache(String name, int maxSize, Duration ttl, UnaryOperator<V> snapshot) {
+        this(name, maxSize, ttl, snapshot, Clock.systemUTC());
+    }
+
+    EntityCache(String name, int maxSize, Duration ttl, UnaryOperator<V> snapshot, Clock clock) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.snapshot = snapshot;
+        this.clock = clock;
+    }
+
+    public Optional<V> get(Long id, Function<Long, Optional<V>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(id);
+
+            if (entry != null && entry.getExpiresAt().isAfter(clock.instant())) {
+                hits.increment();
+                return Optional.of(snapshot.apply(entry.getValue()));
+            }
+            if (entry != null) {
+                entries.remove(id);
+                evictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        Optional<V> value = loader.apply(id);
+        value.ifPresent(loaded -> {
+            V copy = snapshot.apply(loaded);
+            afterCommit(() -> put(id, copy, loadGeneration));
+        });
+        // the loaded entity is managed, the caller gets a copy as it would on a hit
+        return value.map(snapshot);
+    }
+
+    public synchronized void evict(Long id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized void evictIf(Predicate<V> predicate) {
+        generation++;
+        entries.values().removeIf(entry -> predicate.test(entry.getValue()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("cache", name);
+
+        Gauge.builder("cache.size", this, EntityCache::size)
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", hits, LongAdder::doubleValue)
+                .tags(tags).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+                .tags(tags).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::doubleValue)
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::doubleValue)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private synchronized void put(Long id, V value, long loadGeneration) {
+        if (loadGeneration != generation)
+            return;
+
+        entries.put(id, new Entry<>(value, clock.instant().plus(ttl)));
+        puts.increment();
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Data
+    private static class Entry<V> {
+        private final V value;
+        private final Instant expiresAt;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+
+@Configuration
+public class EntityCacheConfiguration {
+    @Bean
+    public EntityCache<User> userCache(@Value("${shareit.cache.users.max-size:10000}") int maxSize,
+                                       @Value("${shareit.cache.users.ttl:10m}") Duration ttl) {
+        return new EntityCache<>(EntityCacheInvalidator.USERS, maxSize, ttl, EntityCacheConfiguration::snapshotOf);
+    }
+
+    @Bean
+    public EntityCache<Item> itemCache(@Value("${shareit.cache.items.max-size:10000}") int maxSize,
+                                       @Value("${shareit.cache.items.ttl:10m}") Duration ttl) {
+        return new EntityCache<>(EntityCacheInvalidator.ITEMS, maxSize, ttl, EntityCacheConfiguration::snapshotOf);
+    }
+
+    static User snapshotOf(User user) {
+        return new User(user.getId(), user.getEmail(), user.getName(), user.getVersion());
+    }
+
+    // the request keeps its own columns only, its items collection is not part of the snapshot
+    static Item snapshotOf(Item item) {
+        ItemRequest request = null;
+        if (item.getRequest() != null) {
+            request = ItemRequest.builder()
+                    .id(item.getRequest().getId())
+                    .description(item.getRequest().getDescription())
+                    .created(item.getRequest().getCreated())
+                    .user(item.getRequest().getUser() == null ? null : snapshotOf(item.getRequest().getUser()))
+                    .version(item.getRequest().getVersion())
+                    .build();
+        }
+
+        return new Item(item.getId(), item.getUser() == null ? null : snapshotOf(item.getUser()),
+                item.getName(), item.getDescription(), item.getIsAvailable(), request, item.getVersion());
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.annotation.PostConstruct;
+import java.util.UUID;
+
+/**
+ * Evicts changed users and items from the local caches and tells the other instances to do the same once the
+ * change is committed. Cached items carry a snapshot of their owner, so evicting a user evicts the items the
+ * user owns as well.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EntityCacheInvalidator {
+    static final String USERS = "users";
+    static final String ITEMS = "items";
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final EntityCache<User> userCache;
+    private final EntityCache<Item> itemCache;
+    private final CacheInvalidationChannel channel;
+
+    @PostConstruct
+    public void subscribe() {
+        channel.subscribe(this::onInvalidation);
+    }
+
+    public void evictUser(long userId) {
+        invalidate(new CacheInvalidation(instanceId, USERS, userId));
+    }
+
+    public void evictItem(long itemId) {
+        invalidate(new CacheInvalidation(instanceId, ITEMS, itemId));
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (!instanceId.equals(invalidation.getOrigin()))
+            evictLocally(invalidation);
+    }
+
+    private void invalidate(CacheInvalidation invalidation) {
+        evictLocally(invalidation);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(invalidation);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evictLocally(invalidation);
+                if (status == STATUS_COMMITTED)
+                    publish(invalidation);
+            }
+        });
+    }
+
+    private void evictLocally(CacheInvalidation invalidation) {
+        if (USERS.equals(invalidation.getRegion())) {
+            userCache.evict(invalidation.getId());
+            itemCache.evictIf(item -> item.getUser() != null && item.getUser().getId() == invalidation.getId());
+        } else if (ITEMS.equals(invalidation.getRegion())) {
+            itemCache.evict(invalidation.getId());
+        }
+    }
+
+    // the change is already committed, other instances fall back to the cache ttl if they miss it
+    private void publish(CacheInvalidation invalidation) {
+        try {
+            channel.publish(invalidation);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish cache invalidation {}", invalidation, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations synchronously to the subscribers of this JVM. Enough for a single server instance,
+ * and lets tests connect several caches as if they were separate instances.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.cache.invalidation", havingValue = "in-process", matchIfMissing = true)
+public class InProcessCacheInvalidationChannel implements CacheInvalidationChannel {
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
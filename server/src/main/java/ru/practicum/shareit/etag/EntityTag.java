@@ -0,0 +1,51 @@
+package ru.practicum.shareit.etag;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Strong entity tag of a representation, built from the ids and versions of the entities it is made of rather
+ * than from its serialized body, so it is known before anything is mapped or written. The parts are folded into
+ * a 64-bit FNV-1a hash in the order they are added.
+ */
+public final class EntityTag {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL = 0x9e3779b97f4a7c15L;
+
+    private long hash = OFFSET_BASIS;
+
+    private EntityTag() {
+    }
+
+    public static EntityTag of(String kind) {
+        return new EntityTag().add(kind);
+    }
+
+    public EntityTag add(Long id, Long version) {
+        return add(id).add(version);
+    }
+
+    public EntityTag add(Long value) {
+        long bits = value == null ? NULL : value;
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (bits >>> shift) & 0xff;
+            hash *= PRIME;
+        }
+        return this;
+    }
+
+    public EntityTag add(String value) {
+        if (value == null)
+            return add((Long) null);
+
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= PRIME;
+        }
+        return add((long) value.length());
+    }
+
+    public String value() {
+        return String.format("\"%016x\"", hash);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.etag;
+
+import java.util.function.Supplier;
+
+/**
+ * A representation together with its entity tag. The body is only mapped when asked for, so a request whose
+ * {@code If-None-Match} matches the tag is answered without building it.
+ */
+public final class Versioned<T> {
+    private final String etag;
+    private final Supplier<T> body;
+
+    private Versioned(String etag, Supplier<T> body) {
+        this.etag = etag;
+        this.body = body;
+    }
+
+    public static <T> Versioned<T> of(EntityTag etag, Supplier<T> body) {
+        return new Versioned<>(etag.value(), body);
+    }
+
+    public static <T> Versioned<T> of(String etag, Supplier<T> body) {
+        return new Versioned<>(etag, body);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public T getBody() {
+        return body.get();
+    }
+}
@@ -1,17 +1,26 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.item.constraints.ItemCreateConstraint;
 import ru.practicum.shareit.item.constraints.ItemIdConstraint;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPageDto;
 import ru.practicum.shareit.item.service.ItemService;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -19,7 +28,10 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class ItemController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto addItem(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -41,9 +53,14 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto getItem(@PathVariable long itemId,
-                               @RequestHeader("X-Sharer-User-Id") long userId) {
+                               @RequestHeader("X-Sharer-User-Id") long userId,
+                               WebRequest request) {
         log.info("Getting item id {}", itemId);
-        return itemService.getItem(itemId, userId);
+        Versioned<ItemDto> item = itemService.getVersionedItem(itemId, userId);
+
+        if (request.checkNotModified(item.getEtag()))
+            return null;
+        return item.getBody();
     }
 
     @GetMapping
@@ -53,10 +70,40 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                    @RequestParam(name = "text") String text) {
-        log.info("Searching for item with {}", text);
-        return itemService.findItem(text);
+    public ResponseEntity<List<ItemDto>> searchItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestParam(name = "text") String text,
+                                                    @RequestParam(name = "from", required = false) Integer from,
+                                                    @RequestParam(name = "size", required = false) Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Searching for item with {} from {} size {} cursor {}", text, from, size, cursor);
+        if (cursor == null)
+            return ResponseEntity.ok(itemService.findItem(text, from, size));
+
+        ItemPageDto page = itemService.findItemPage(text, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null)
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+
+        return response.body(page.getItems());
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                             @RequestParam(name = "text") String text) {
+        log.info("Streaming items with {}", text);
+        StreamingResponseBody body = outputStream -> itemService.streamItems(text, itemDto -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(itemDto));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ItemPageDto {
+    private List<ItemDto> items;
+
+    @Nullable
+    private String nextCursor;
+}
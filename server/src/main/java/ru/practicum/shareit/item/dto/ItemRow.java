@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+// the columns a listed item is shown and tagged with, selected instead of the item with its owner and request
+@Getter
+@Builder
+@AllArgsConstructor
+public class ItemRow {
+    private final Long id;
+    private final Long ownerId;
+    private final String name;
+    private final String description;
+    private final Boolean available;
+    private final Long requestId;
+    private final Long version;
+}
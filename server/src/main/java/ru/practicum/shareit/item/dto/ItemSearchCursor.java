@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.request.exception.PaginationDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Data
+public class ItemSearchCursor {
+    private static final String SEPARATOR = "|";
+
+    private final double score;
+    private final long id;
+
+    public static ItemSearchCursor of(ItemSearchHit hit) {
+        return new ItemSearchCursor(hit.getScore(), hit.getItemId());
+    }
+
+    public static ItemSearchCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+
+            return new ItemSearchCursor(Double.parseDouble(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new PaginationDataException("Invalid pagination cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((score + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
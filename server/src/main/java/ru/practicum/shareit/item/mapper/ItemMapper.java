@@ -1,9 +1,14 @@
 package ru.practicum.shareit.item.mapper;
 
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemRow;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class ItemMapper {
@@ -26,4 +31,34 @@ public class ItemMapper {
     public static List<ItemDto> listOf(List<Item> items) {
         return items.stream().map(ItemMapper::itemDtoOf).collect(Collectors.toList());
     }
+
+    public static ItemDto itemDtoOf(ItemRow row) {
+        return ItemDto.builder()
+                .id(row.getId())
+                .userId(row.getOwnerId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .available(row.getAvailable())
+                .requestId(row.getRequestId())
+                .build();
+    }
+
+    public static List<ItemDto> listOfRows(List<ItemRow> rows) {
+        return rows.stream().map(ItemMapper::itemDtoOf).collect(Collectors.toList());
+    }
+
+    public static void setLastAndNextBookings(List<ItemDto> itemsDto, List<ItemBookingPointer> pointers) {
+        Map<Long, ItemDto> itemsById = itemsDto.stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+
+        for (ItemBookingPointer pointer : pointers) {
+            ItemDto itemDto = itemsById.get(pointer.getItemId());
+
+            if (ItemBookingPointer.LAST.equals(pointer.getPointer())) {
+                itemDto.setLastBooking(BookingMapper.shortResponseDtoOf(pointer));
+            } else {
+                itemDto.setNextBooking(BookingMapper.shortResponseDtoOf(pointer));
+            }
+        }
+    }
 }
@@ -1,11 +1,14 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.springframework.data.domain.DomainEvents;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
+import java.util.Collection;
+import java.util.List;
 
 @Entity
 @Table(name = "items")
@@ -33,6 +36,9 @@ public class Item {
     @ManyToOne
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+    @Version
+    @Column(name = "version")
+    private Long version;
 
     public static Item of(ItemDto itemUserDto) {
         return Item.builder()
@@ -42,4 +48,9 @@ public class Item {
                 .isAvailable(itemUserDto.getAvailable())
                 .build();
     }
+
+    @DomainEvents
+    Collection<ItemSavedEvent> domainEvents() {
+        return List.of(new ItemSavedEvent(this));
+    }
 }
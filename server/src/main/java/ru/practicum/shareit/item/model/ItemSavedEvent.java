@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Data;
+
+@Data
+public class ItemSavedEvent {
+    private final Item item;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Optional;
+
+/**
+ * Serves lookups by id from the item cache instead of the database.
+ */
+public interface CachedItemRepository {
+    Optional<Item> findById(Long id);
+
+    boolean existsById(Long id);
+}
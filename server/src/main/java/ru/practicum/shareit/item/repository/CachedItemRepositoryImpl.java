@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class CachedItemRepositoryImpl implements CachedItemRepository {
+    private final EntityCache<Item> itemCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        return itemCache.get(id, itemId -> Optional.ofNullable(entityManager.find(Item.class, itemId)));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+}
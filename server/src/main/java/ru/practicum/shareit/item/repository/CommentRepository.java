@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends CrudRepository<Comment, Long> {
+    // compares the foreign key of the comment; the derived query joined items and filtered on the joined id
+    @Query(value = "select c from Comment as c where c.item.id = ?1")
     List<Comment> findAllByItemId(long itemId);
 }
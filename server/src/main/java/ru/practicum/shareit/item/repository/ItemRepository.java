@@ -1,22 +1,75 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import ru.practicum.shareit.item.dto.ItemRow;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchHit;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ItemRepository extends CrudRepository<Item, Long> {
-    Optional<List<Item>> findItemsByUserId(Long userId, Sort sort);
+public interface ItemRepository extends CrudRepository<Item, Long>, CachedItemRepository {
+    // must stay identical to the expression of idx_items_search so the planner can use the GIN index
+    String SEARCH_VECTOR = "setweight(to_tsvector('russian', coalesce(i.name, '')), 'A') || " +
+            "setweight(to_tsvector('russian', coalesce(i.description, '')), 'B')";
+    String SEARCH_RANK = "cast(ts_rank(" + SEARCH_VECTOR + ", to_tsquery('russian', ?1)) as double precision)";
+    String ROWS = "select new ru.practicum.shareit.item.dto.ItemRow(" +
+            "i.id, u.id, i.name, i.description, i.isAvailable, r.id, i.version) " +
+            "from Item as i " +
+            "join i.user as u " +
+            "left join i.request as r ";
+
+    @Override
+    Optional<Item> findById(Long id);
+
+    @Override
+    boolean existsById(Long id);
+
+    // select ... for update, held until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select i from Item as i where i.id = ?1")
+    Optional<Item> lockById(Long id);
+
+    @Query(value = ROWS +
+            "where u.id = ?1 " +
+            "order by i.id")
+    List<ItemRow> findRowsByOwnerId(long ownerId);
+
+    @Query(value = ROWS +
+            "where i.id in ?1")
+    List<ItemRow> findRowsByIds(Collection<Long> itemsId);
+
+    @Query(value = ROWS +
+            "where r.id in ?1 " +
+            "order by i.id")
+    List<ItemRow> findRowsByRequestIds(Collection<Long> requestsId);
 
     @Query(value = "select i from Item as i " +
-            "where (lower(i.name) like lower(concat('%', ?1, '%')) or " +
-            "lower(i.description) like lower(concat('%', ?1, '%'))) and " +
-            "i.isAvailable = true")
-    Optional<List<Item>> findItemsLike(String text);
+            "join fetch i.user " +
+            "left join fetch i.request " +
+            "where i.id in ?1")
+    List<Item> findAllWithOwnerByIds(Collection<Long> itemsId);
+
+    @Query(value = "select i.id as itemId, " + SEARCH_RANK + " as score from items as i " +
+            "where i.is_available = true and " +
+            "(" + SEARCH_VECTOR + ") @@ to_tsquery('russian', ?1) " +
+            "order by score desc, i.id " +
+            "offset ?2 limit ?3", nativeQuery = true)
+    List<ItemSearchHit> findAvailableItemsMatching(String tsQuery, int from, int size);
+
+    @Query(value = "select * from (" +
+            "select i.id as itemId, " + SEARCH_RANK + " as score from items as i " +
+            "where i.is_available = true and " +
+            "(" + SEARCH_VECTOR + ") @@ to_tsquery('russian', ?1)) as hits " +
+            "where hits.score < ?2 or (hits.score = ?2 and hits.itemId > ?3) " +
+            "order by hits.score desc, hits.itemId " +
+            "offset ?4 limit ?5", nativeQuery = true)
+    List<ItemSearchHit> findAvailableItemsMatchingAfter(String tsQuery, double score, long itemId, int from, int size);
 
     @Query(value = "select case when count(b) > 0 then true else false END " +
             "from Booking as b " +
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSavedEvent;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded inverted index over the names and descriptions of available items. Terms are kept in a sorted
+ * dictionary so a query term also matches every indexed term it prefixes; documents are ranked by tf-idf
+ * with name hits weighted above description hits, and every query term has to match (AND semantics).
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+    static final double PREFIX_BOOST = 0.5;
+
+    private final ItemRepository itemRepository;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            itemRepository.findAll().forEach(this::index);
+            log.info("Indexed {} items with {} terms for search", documentTerms.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        long itemId = event.getItem().getId();
+
+        index(event.getItem());
+        onRollback(() -> itemRepository.findById(itemId).ifPresentOrElse(this::index, () -> remove(itemId)));
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            remove(item.getId());
+            if (!Boolean.TRUE.equals(item.getIsAvailable()))
+                return;
+
+            Map<String, Integer> weights = new HashMap<>();
+            TextAnalyzer.analyze(item.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+            TextAnalyzer.analyze(item.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(item.getId(), weight));
+            documentTerms.put(item.getId(), weights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> terms = documentTerms.remove(itemId);
+            if (terms == null)
+                return;
+
+            for (String term : terms) {
+                Map<Long, Integer> documents = postings.get(term);
+                documents.remove(itemId);
+                if (documents.isEmpty())
+                    postings.remove(term);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemSearchHit> search(String text, @Nullable ItemSearchCursor after, int from, int size) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextAnalyzer.analyze(text));
+        if (queryTerms.isEmpty())
+            return Collections.emptyList();
+
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = score(queryTerm);
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty())
+                    return Collections.emptyList();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> new Hit(entry.getKey(), entry.getValue()))
+                .filter(hit -> after == null || hit.getScore() < after.getScore() ||
+                        (hit.getScore() == after.getScore() && hit.getItemId() > after.getId()))
+                .sorted(Comparator.comparing(Hit::getScore).reversed().thenComparing(Hit::getItemId))
+                .skip(from)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Double> score(String queryTerm) {
+        Map<Long, Double> scores = new HashMap<>();
+        int documents = Math.max(documentTerms.size(), 1);
+
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+            double boost = entry.getKey().equals(queryTerm) ? 1.0 : PREFIX_BOOST;
+            double idf = Math.log(1.0 + (double) documents / entry.getValue().size());
+
+            entry.getValue().forEach((id, weight) -> scores.merge(id, boost * weight * idf, Math::max));
+        }
+        return scores;
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK)
+                    action.run();
+            }
+        });
+    }
+
+    @Data
+    private static class Hit implements ItemSearchHit {
+        private final Long itemId;
+        private final Double score;
+    }
+}
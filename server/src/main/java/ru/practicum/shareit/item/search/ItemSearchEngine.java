@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    /**
+     * Returns hits ordered by score descending and item id ascending, starting after the given cursor.
+     */
+    List<ItemSearchHit> search(String text, @Nullable ItemSearchCursor after, int from, int size);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.search;
+
+public interface ItemSearchHit {
+    Long getItemId();
+
+    Double getScore();
+}
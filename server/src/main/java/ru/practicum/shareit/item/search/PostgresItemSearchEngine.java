@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Delegates matching and ranking to PostgreSQL full-text search backed by the GIN index
+ * from the db/vendor/postgresql migration.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemSearchHit> search(String text, @Nullable ItemSearchCursor after, int from, int size) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        if (tokens.isEmpty())
+            return Collections.emptyList();
+
+        String query = tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+        if (after == null)
+            return itemRepository.findAvailableItemsMatching(query, from, size);
+        return itemRepository.findAvailableItemsMatchingAfter(query, after.getScore(), after.getId(), from, size);
+    }
+}
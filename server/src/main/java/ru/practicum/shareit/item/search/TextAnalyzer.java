@@ -0,0 +1,130 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lowercased letter/digit tokens and reduces them with light suffix-stripping
+ * stemmers for Russian and English, so "дрель", "дрели" and "дрелью" share one index term.
+ */
+final class TextAnalyzer {
+    private static final int MIN_STEM = 2;
+
+    private static final String[] RU_REFLEXIVE = {"ся", "сь"};
+    // adjective, participle, verb and noun endings, longest first so the greedy match strips the whole ending
+    private static final String[] RU_ENDINGS = {
+            "ившись", "ывшись",
+            "ивши", "ывши", "иями", "ейте", "уйте",
+            "ими", "ыми", "его", "ого", "ему", "ому", "ями", "ами", "ией", "иям", "ием", "иях",
+            "ила", "ыла", "ена", "ите", "или", "ыли", "ило", "ыло", "ено", "ует", "уют", "ены", "ить", "ыть", "ишь",
+            "ее", "ие", "ые", "ое", "ей", "ий", "ый", "ой", "ем", "им", "ым", "ом", "их", "ых", "ую", "юю", "ая",
+            "яя", "ою", "ею", "ев", "ов", "ье", "еи", "ии", "ям", "ам", "ах", "ях", "ию", "ью", "ия", "ья", "ив",
+            "ыв", "ил", "ыл", "ен", "ят", "ит", "ыт", "уй",
+            "а", "е", "и", "й", "о", "у", "ы", "ь", "ю", "я"
+    };
+
+    private TextAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+
+        for (String token : tokenize(text)) {
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null)
+            return tokens;
+
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean partOfToken = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+
+            if (partOfToken && start < 0) {
+                start = i;
+            } else if (!partOfToken && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    static String stem(String token) {
+        if (isCyrillic(token))
+            return stemRussian(token);
+        if (isLatin(token))
+            return stemEnglish(token);
+        return token;
+    }
+
+    private static String stemRussian(String word) {
+        word = stripFirst(word, RU_REFLEXIVE);
+        word = stripFirst(word, RU_ENDINGS);
+        if (word.endsWith("ость") && word.length() - 4 >= MIN_STEM)
+            word = word.substring(0, word.length() - 4);
+        return word;
+    }
+
+    private static String stemEnglish(String word) {
+        if (word.endsWith("sses")) {
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("ies")) {
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && word.length() > 3) {
+            word = word.substring(0, word.length() - 1);
+        }
+
+        if (word.endsWith("eed")) {
+            word = word.substring(0, word.length() - 1);
+        } else {
+            word = stripSuffix(word, "ing");
+            word = stripSuffix(word, "ed");
+        }
+        word = stripSuffix(word, "ness");
+        word = stripSuffix(word, "ment");
+        word = stripSuffix(word, "ly");
+
+        if (word.endsWith("y") && word.length() > 2)
+            word = word.substring(0, word.length() - 1) + "i";
+        if (word.endsWith("e") && word.length() > 3)
+            word = word.substring(0, word.length() - 1);
+        return word;
+    }
+
+    private static String stripFirst(String word, String[] suffixes) {
+        for (String suffix : suffixes) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM)
+                return word.substring(0, word.length() - suffix.length());
+        }
+        return word;
+    }
+
+    private static String stripSuffix(String word, String suffix) {
+        if (word.endsWith(suffix) && word.length() - suffix.length() >= 3 && hasVowel(word, word.length() - suffix.length()))
+            return word.substring(0, word.length() - suffix.length());
+        return word;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(word.charAt(i)) >= 0)
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean isCyrillic(String token) {
+        return token.chars().anyMatch(c -> Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CYRILLIC);
+    }
+
+    private static boolean isLatin(String token) {
+        return token.chars().allMatch(c -> (c >= 'a' && c <= 'z') || Character.isDigit(c));
+    }
+}
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPageDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto addItem(ItemDto itemUserDto);
@@ -13,9 +16,15 @@ public interface ItemService {
 
     ItemDto getItem(Long itemId, Long userId);
 
+    Versioned<ItemDto> getVersionedItem(Long itemId, Long userId);
+
     List<ItemDto> getUserItems(Long userId);
 
-    List<ItemDto> findItem(String text);
+    List<ItemDto> findItem(String text, Integer from, Integer size);
+
+    ItemPageDto findItemPage(String text, String cursor, Integer size);
+
+    void streamItems(String text, Consumer<ItemDto> action);
 
     CommentResponseDto postComment(Long userId, Long itemId, CommentRequestDto commentRequestDto);
 }
@@ -2,17 +2,19 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
+import ru.practicum.shareit.booking.pointer.ItemBookingPointerTracker;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.cache.EntityCacheInvalidator;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPageDto;
+import ru.practicum.shareit.item.dto.ItemRow;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
 import ru.practicum.shareit.item.exceptions.CommentValidationException;
 import ru.practicum.shareit.item.exceptions.ItemAccessRestrictedException;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
@@ -22,7 +24,11 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.patch.PatchApplier;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
+import ru.practicum.shareit.request.exception.PaginationDataException;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.exceptions.UserNotFoundException;
@@ -32,26 +38,37 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int SEARCH_BATCH_SIZE = 100;
+    private static final PatchApplier<Item> ITEM_PATCH = PatchApplier.of(Item.class);
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final ItemRequestRepository requestRepository;
 
-    private final BookingRepository bookingRepository;
+    private final ItemBookingPointerTracker pointerTracker;
+    private final BookingViewRepository bookingViewRepository;
 
     private final CommentRepository commentRepository;
 
+    private final ItemSearchEngine searchEngine;
+
+    private final EntityCacheInvalidator cacheInvalidator;
+
     @Override
     @Transactional
     public ItemDto addItem(ItemDto itemDto) {
         User user = userRepository.findById(itemDto.getUserId())
                 .orElseThrow(() -> new UserNotFoundException(String.format("User id %d not found", itemDto.getUserId())));
-        Item item = new Item(null, user, itemDto.getName(), itemDto.getDescription(), itemDto.getAvailable(), null);
+        Item item = new Item(null, user, itemDto.getName(), itemDto.getDescription(), itemDto.getAvailable(), null, null);
 
         if (itemDto.getRequestId() != null && requestRepository.existsById(itemDto.getRequestId())) {
             ItemRequest request = requestRepository.findById(itemDto.getRequestId())
@@ -79,27 +96,47 @@ public class ItemServiceImpl implements ItemService {
             );
         }
 
-        copyNonNullProperties(srcItem, trgItem);
-        return ItemMapper.itemDtoOf(itemRepository.save(trgItem));
+        ITEM_PATCH.apply(srcItem, trgItem);
+        cacheInvalidator.evictItem(trgItem.getId());
+        Item item = itemRepository.save(trgItem);
+        bookingViewRepository.updateItem(item.getId());
+        return ItemMapper.itemDtoOf(item);
     }
 
     @Override
     public ItemDto getItem(Long itemId, Long userId) {
+        return getVersionedItem(itemId, userId).getBody();
+    }
+
+    @Override
+    public Versioned<ItemDto> getVersionedItem(Long itemId, Long userId) {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException(String.format("Item id %d not found", itemId)));
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(String.format("User id %d not found", userId)));
         List<Comment> comments = commentRepository.findAllByItemId(itemId);
 
-        ItemDto itemDto = ItemMapper.itemDtoOf(item);
-
-        if (item.getUser().equals(user)) {
-            setLastAndNextBookingsForItem(itemDto);
-        }
-
-        itemDto.setComments(CommentMapper.listOf(comments));
-
-        return itemDto;
+        // only the owner sees the last and next bookings; which ones they are depends on the time of the request
+        List<ItemBookingPointer> found = item.getUser().getId().equals(user.getId())
+                ? pointerTracker.findPointers(List.of(itemId), LocalDateTime.now())
+                : Collections.emptyList();
+        // a single item shows its next booking only next to a last one, unlike the owner's list of items
+        List<ItemBookingPointer> pointers = found.stream().anyMatch(pointer -> ItemBookingPointer.LAST.equals(pointer.getPointer()))
+                ? found
+                : Collections.emptyList();
+
+        EntityTag etag = EntityTag.of("item").add(item.getId(), item.getVersion());
+        for (ItemBookingPointer pointer : pointers)
+            etag.add(pointer.getPointer()).add(pointer.getBookingId()).add(pointer.getBookerId());
+        for (Comment comment : comments)
+            etag.add(comment.getId()).add(comment.getUser().getId(), comment.getUser().getVersion());
+
+        return Versioned.of(etag, () -> {
+            ItemDto itemDto = ItemMapper.itemDtoOf(item);
+            ItemMapper.setLastAndNextBookings(List.of(itemDto), pointers);
+            itemDto.setComments(CommentMapper.listOf(comments));
+            return itemDto;
+        });
     }
 
 //    @Override
@@ -119,22 +156,61 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemDto> getUserItems(Long userId) {
         if (userRepository.existsById(userId)) {
-            List<Item> items = itemRepository.findItemsByUserId(userId, Sort.by("id").ascending())
-                    .orElseThrow(() -> new ItemNotFoundException(String.format("No items found for user $d", userId)));
+            List<ItemDto> itemsDto = ItemMapper.listOfRows(itemRepository.findRowsByOwnerId(userId));
+            setLastAndNextBookings(itemsDto);
 
-            return setLastAndNextBookingsForItemList(items);
+            return itemsDto;
         } else {
             throw new UserNotFoundException(String.format("User id %d not found", userId));
         }
     }
 
     @Override
-    public List<ItemDto> findItem(String text) {
-        if (text.isEmpty())
+    public List<ItemDto> findItem(String text, Integer from, Integer size) {
+        if (from != null && size != null && (from < 0 || size <= 0))
+            throw new PaginationDataException("Invalid pagination data");
+        if (text.isBlank())
             return Collections.emptyList();
 
-        return ItemMapper.listOf(itemRepository.findItemsLike(text)
-                .orElseThrow(() -> new ItemNotFoundException(String.format("No items containing %s were found", text))));
+        int skip = from == null ? 0 : from;
+        List<ItemDto> items = new ArrayList<>();
+        searchAvailable(text, null, size == null ? Long.MAX_VALUE : (long) skip + size, (hit, item) -> items.add(item));
+
+        return items.subList(Math.min(skip, items.size()), items.size());
+    }
+
+    @Override
+    public ItemPageDto findItemPage(String text, String cursor, Integer size) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0)
+            throw new PaginationDataException("Invalid pagination data");
+
+        ItemSearchCursor after = cursor == null || cursor.isBlank() ? null : ItemSearchCursor.decode(cursor);
+        List<ItemDto> items = new ArrayList<>();
+        List<ItemSearchHit> itemHits = new ArrayList<>();
+        if (!text.isBlank())
+            searchAvailable(text, after, pageSize, (hit, item) -> {
+                items.add(item);
+                itemHits.add(hit);
+            });
+
+        // the next page starts after the last item returned, not after the last hit looked at
+        String nextCursor = null;
+        if (items.size() == pageSize)
+            nextCursor = ItemSearchCursor.of(itemHits.get(itemHits.size() - 1)).encode();
+
+        return ItemPageDto.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public void streamItems(String text, Consumer<ItemDto> action) {
+        if (text.isBlank())
+            return;
+
+        searchAvailable(text, null, Long.MAX_VALUE, (hit, item) -> action.accept(item));
     }
 
     @Override
@@ -161,79 +237,46 @@ public class ItemServiceImpl implements ItemService {
         throw new CommentValidationException(String.format("User id %d can not post comments on item id %d", userId, itemId));
     }
 
-    private void setLastAndNextBookingsForItem(ItemDto itemDto) {
-        Booking lastBooking = bookingRepository
-                .findLastBooking(itemDto.getId());
-        Booking nextBooking = bookingRepository
-                .findNextBooking(itemDto.getId());
-
-        if (lastBooking != null) {
-            itemDto.setLastBooking(BookingMapper.shortResponseDtoOf(lastBooking));
-            if (nextBooking != null) {
-                itemDto.setNextBooking(BookingMapper.shortResponseDtoOf(nextBooking));
+    /**
+     * Passes up to {@code limit} available items to the action in rank order, loading the hits after the cursor
+     * a batch at a time. Items deleted or made unavailable since they were indexed are dropped before they count,
+     * so a page is only short when the hits run out.
+     */
+    private void searchAvailable(String text, ItemSearchCursor after, long limit, BiConsumer<ItemSearchHit, ItemDto> action) {
+        ItemSearchCursor cursor = after;
+        long remaining = limit;
+
+        while (remaining > 0) {
+            int batchSize = (int) Math.min(remaining, SEARCH_BATCH_SIZE);
+            List<ItemSearchHit> hits = searchEngine.search(text, cursor, 0, batchSize);
+            if (hits.isEmpty())
+                return;
+
+            Map<Long, ItemRow> rowsById = new HashMap<>();
+            itemRepository.findRowsByIds(hits.stream().map(ItemSearchHit::getItemId).collect(Collectors.toList()))
+                    .forEach(row -> rowsById.put(row.getId(), row));
+
+            for (ItemSearchHit hit : hits) {
+                ItemRow row = rowsById.get(hit.getItemId());
+                if (row != null && Boolean.TRUE.equals(row.getAvailable())) {
+                    action.accept(hit, ItemMapper.itemDtoOf(row));
+                    remaining--;
+                }
             }
-        }
-    }
-
-//    private void setLastAndNextBookingsForItemList(List<ItemDto> itemDtoList) {
-//        itemDtoList.forEach(this::setLastAndNextBookingsForItem);
-//    }
-
-    private List<ItemDto> setLastAndNextBookingsForItemList(List<Item> items) {
-        List<Long> itemsId = items.stream().map(Item::getId).collect(Collectors.toList());
-        List<Booking> bookings = bookingRepository.findAllByItemsId(itemsId);
-
-        Map<Long, List<Booking>> mappedBookings = bookings.stream().collect(Collectors.groupingBy(
-                booking -> booking.getItem().getId()
-        ));
-
-        List<ItemDto> itemsDto = ItemMapper.listOf(items);
 
-        if (!mappedBookings.isEmpty()) {
-            itemsDto.forEach(itemDto -> setLastAndNextBookingsForItem(itemDto, mappedBookings));
+            if (hits.size() < batchSize)
+                return;
+            cursor = ItemSearchCursor.of(hits.get(hits.size() - 1));
         }
-
-        return itemsDto;
-    }
-
-    private void setLastAndNextBookingsForItem(ItemDto itemDto, Map<Long, List<Booking>> mappedBookings) {
-        LocalDateTime now = LocalDateTime.now();
-
-        Booking lastBooking = null;
-        Booking nextBooking = null;
-
-        if (mappedBookings.containsKey(itemDto.getId())) {
-            lastBooking = mappedBookings.get(itemDto.getId()).stream()
-                    .sorted(Comparator.comparing(Booking::getStart).reversed())
-                    .dropWhile(booking -> booking.getStart().isAfter(now))
-                    .findFirst()
-                    .orElse(null);
-            nextBooking = mappedBookings.get(itemDto.getId()).stream()
-                    .dropWhile(booking -> booking.getStart().isBefore(now))
-                    .findFirst()
-                    .orElse(null);
-        }
-
-        if (lastBooking != null)
-            itemDto.setLastBooking(BookingMapper.shortResponseDtoOf(lastBooking));
-        if (nextBooking != null)
-            itemDto.setNextBooking(BookingMapper.shortResponseDtoOf(nextBooking));
-    }
-
-    private static void copyNonNullProperties(Object src, Object target) {
-       BeanUtils.copyProperties(src, target, getNullPropertyNames(src));
     }
 
-    private static String[] getNullPropertyNames(Object source) {
-        final BeanWrapper src = new BeanWrapperImpl(source);
-        java.beans.PropertyDescriptor[] pds = src.getPropertyDescriptors();
+    private void setLastAndNextBookings(List<ItemDto> itemsDto) {
+        if (itemsDto.isEmpty())
+            return;
 
-        Set<String> emptyNames = new HashSet<String>();
-        for (java.beans.PropertyDescriptor pd : pds) {
-            Object srcValue = src.getPropertyValue(pd.getName());
-            if (srcValue == null) emptyNames.add(pd.getName());
-        }
-        String[] result = new String[emptyNames.size()];
-        return emptyNames.toArray(result);
+        List<Long> itemIds = itemsDto.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        ItemMapper.setLastAndNextBookings(itemsDto, pointerTracker.findPointers(itemIds, LocalDateTime.now()));
     }
 }
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.Arrays;
+
+/**
+ * Times every public method of the {@code *ServiceImpl} classes as {@code shareit.service}. Besides the service
+ * and method names, timers of booking lists are tagged with the requested state and with whether the owner or
+ * the booker asked for them; the other methods get {@code none} for both, so every timer has the same tag keys.
+ * The {@code exception} tag holds the simple name of the exception the method threw, or {@code none}, so failed
+ * calls such as rejected bookings are not mixed into the latencies of successful ones.
+ * <p>
+ * Being a Spring AOP proxy, the aspect only sees calls that come in through the bean: a service method calling
+ * another one of its own class, like {@code getUserBookings} delegating to {@code getVersionedUserBookings}, is
+ * timed once, under the method that was called from outside.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+    static final String METRIC = "shareit.service";
+    static final String NONE = "none";
+
+    private final MeterRegistry registry;
+
+    @Around("execution(public * ru.practicum.shareit..service.*ServiceImpl.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = NONE;
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Time spent in service methods")
+                    .tags(tagsOf((MethodSignature) joinPoint.getSignature(), joinPoint.getArgs()))
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+
+    private static Tags tagsOf(MethodSignature signature, Object[] args) {
+        String state = NONE;
+        String role = NONE;
+        String[] names = signature.getParameterNames();
+
+        for (int i = 0; names != null && i < names.length; i++) {
+            if ("state".equals(names[i]) && args[i] instanceof String)
+                state = stateOf((String) args[i]);
+            if ("isOwner".equals(names[i]) && args[i] instanceof Boolean)
+                role = (Boolean) args[i] ? "owner" : "booker";
+        }
+
+        return Tags.of(
+                "service", signature.getDeclaringType().getSimpleName(),
+                "method", signature.getName(),
+                "state", state,
+                "role", role);
+    }
+
+    private static String stateOf(String state) {
+        return Arrays.stream(BookingState.values())
+                .map(BookingState::name)
+                .filter(name -> name.equals(state))
+                .findFirst()
+                .orElse("UNSUPPORTED");
+    }
+}
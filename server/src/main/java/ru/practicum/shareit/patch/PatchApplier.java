@@ -0,0 +1,100 @@
+package ru.practicum.shareit.patch;
+
+import lombok.RequiredArgsConstructor;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Copies the non-null properties of a partial entity onto a stored one, as PATCH endpoints need.
+ * <p>
+ * The bean is introspected once, when the applier is created, and every readable and writable property gets a
+ * getter and a setter generated with {@link LambdaMetafactory}. Applying a patch then only calls plain accessors,
+ * without the property descriptors, bean wrappers and reflective reads of {@code BeanUtils.copyProperties}.
+ */
+public final class PatchApplier<T> {
+    private final List<Property<T>> properties;
+
+    private PatchApplier(List<Property<T>> properties) {
+        this.properties = properties;
+    }
+
+    public static <T> PatchApplier<T> of(Class<T> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Property<T>> properties = new ArrayList<>();
+
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                Method read = descriptor.getReadMethod();
+                Method write = descriptor.getWriteMethod();
+
+                if (read != null && write != null)
+                    properties.add(new Property<>(descriptor.getName(), getterOf(lookup, type, read), setterOf(lookup, type, write)));
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException(String.format("Can not build patch applier for %s", type.getName()), e);
+        }
+        return new PatchApplier<>(Collections.unmodifiableList(properties));
+    }
+
+    public T apply(T patch, T target) {
+        for (Property<T> property : properties) {
+            Object value = property.getter.apply(patch);
+            if (value != null)
+                property.setter.accept(target, value);
+        }
+        return target;
+    }
+
+    List<String> propertyNames() {
+        List<String> names = new ArrayList<>();
+        properties.forEach(property -> names.add(property.name));
+        return names;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, Object> getterOf(MethodHandles.Lookup lookup, Class<T> type, Method read) throws Throwable {
+        MethodHandle handle = lookup.unreflect(read);
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                MethodType.methodType(wrap(read.getReturnType()), type));
+
+        return (Function<T, Object>) site.getTarget().invoke();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BiConsumer<T, Object> setterOf(MethodHandles.Lookup lookup, Class<T> type, Method write) throws Throwable {
+        MethodHandle handle = lookup.unreflect(write);
+        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class),
+                handle,
+                MethodType.methodType(void.class, type, wrap(write.getParameterTypes()[0])));
+
+        return (BiConsumer<T, Object>) site.getTarget().invoke();
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    @RequiredArgsConstructor
+    private static class Property<T> {
+        private final String name;
+        private final Function<T, Object> getter;
+        private final BiConsumer<T, Object> setter;
+    }
+}
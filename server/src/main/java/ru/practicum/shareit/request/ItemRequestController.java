@@ -2,8 +2,12 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
 import ru.practicum.shareit.request.service.RequestService;
 
 import java.util.List;
@@ -14,6 +18,8 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class ItemRequestController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final RequestService requestService;
 
     @PostMapping
@@ -25,23 +31,48 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getItemRequest(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                         @PathVariable long requestId) {
+                                         @PathVariable long requestId,
+                                         WebRequest request) {
         log.info("Getting item request id {} from user id {}", requestId, userId);
-        return requestService.getRequest(userId, requestId);
+        return bodyOf(requestService.getVersionedRequest(userId, requestId), request);
     }
 
     @GetMapping
-    public List<ItemRequestDto> getAllUserRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId) {
+    public List<ItemRequestDto> getAllUserRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                   WebRequest request) {
         log.info("Getting all user requests user id {}", userId);
-        return requestService.getUserRequests(userId);
+        return bodyOf(requestService.getVersionedUserRequests(userId), request);
     }
 
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                               @RequestParam(required = false) Integer from,
-                                               @RequestParam(required = false) Integer size) {
-        log.info("Getting all requests user id {} from {} size {}", userId, from, size);
-        return requestService.getAllRequests(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getAllRequests(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                               @RequestParam(required = false) Integer from,
+                                                               @RequestParam(required = false) Integer size,
+                                                               @RequestParam(required = false) String cursor,
+                                                               WebRequest request) {
+        log.info("Getting all requests user id {} from {} size {} cursor {}", userId, from, size, cursor);
+        if (cursor == null) {
+            List<ItemRequestDto> requests = bodyOf(requestService.getVersionedAllRequests(userId, from, size), request);
+            return requests == null ? null : ResponseEntity.ok(requests);
+        }
+
+        ItemRequestPageDto page = bodyOf(requestService.getVersionedAllRequestsPage(userId, cursor, size), request);
+        if (page == null)
+            return null;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null)
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+
+        return response.body(page.getRequests());
+    }
+
+    // null tells Spring MVC the response is complete: a 304 with the ETag and no body
+    private static <T> T bodyOf(Versioned<T> versioned, WebRequest request) {
+        if (request.checkNotModified(versioned.getEtag()))
+            return null;
+        return versioned.getBody();
     }
 }
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.request.exception.PaginationDataException;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+@Data
+public class ItemRequestCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime created;
+    private final long id;
+
+    public static ItemRequestCursor of(ItemRequest request) {
+        return of(request.getCreated(), request.getId());
+    }
+
+    public static ItemRequestCursor of(ItemRequestRow row) {
+        return of(row.getCreated(), row.getId());
+    }
+
+    private static ItemRequestCursor of(LocalDateTime created, long id) {
+        // timestamp columns keep microseconds and round the rest, so the cursor has to round the same way
+        return new ItemRequestCursor(created.plusNanos(500).truncatedTo(ChronoUnit.MICROS), id);
+    }
+
+    public static ItemRequestCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+
+            return new ItemRequestCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new PaginationDataException("Invalid pagination cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((created + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ItemRequestPageDto {
+    private List<ItemRequestDto> requests;
+
+    @Nullable
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// the columns a listed request is shown and tagged with, selected instead of the request with its creator
+@Getter
+@Builder
+@AllArgsConstructor
+public class ItemRequestRow {
+    private final Long id;
+    private final String description;
+    private final LocalDateTime created;
+    private final Long version;
+}
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.request.mapper;
 
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemRow;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestRow;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ItemRequestMapper {
@@ -20,4 +24,18 @@ public class ItemRequestMapper {
     public static List<ItemRequestDto> mapListToDto(List<ItemRequest> itemRequests) {
         return itemRequests.stream().map(ItemRequestMapper::mapToDto).collect(Collectors.toList());
     }
+
+    public static List<ItemRequestDto> mapListToDto(List<ItemRequestRow> itemRequests, List<ItemRow> items) {
+        Map<Long, List<ItemRow>> itemsByRequestId = items.stream()
+                .collect(Collectors.groupingBy(ItemRow::getRequestId));
+
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestDto.builder()
+                        .id(itemRequest.getId())
+                        .description(itemRequest.getDescription())
+                        .created(itemRequest.getCreated())
+                        .items(ItemMapper.listOfRows(itemsByRequestId.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                        .build())
+                .collect(Collectors.toList());
+    }
 }
@@ -35,4 +35,7 @@ public class ItemRequest {
 
     @OneToMany(mappedBy = "request")
     private List<Item> items = new ArrayList<>();
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
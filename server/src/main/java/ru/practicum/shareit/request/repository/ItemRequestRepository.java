@@ -5,19 +5,34 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestRow;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    @Query(value = "select ir from ItemRequest as ir " +
+    String ROWS = "select new ru.practicum.shareit.request.dto.ItemRequestRow(" +
+            "ir.id, ir.description, ir.created, ir.version) " +
+            "from ItemRequest as ir ";
+
+    @Query(value = ROWS +
             "where ir.user.id = ?1 " +
             "order by ir.created desc")
-    List<ItemRequest> findAllByUserId(long userId);
+    List<ItemRequestRow> findAllByUserId(long userId);
+
+    @Query(value = ROWS +
+            "where ir.user.id <> ?1")
+    List<ItemRequestRow> findOtherUsersRequests(long userId, Pageable pageable);
 
-    @Query(value = "select ir from ItemRequest as ir")
-    List<ItemRequest> findRequests(Pageable pageable);
+    @Query(value = ROWS +
+            "where ir.user.id <> ?1")
+    List<ItemRequestRow> findOtherUsersRequests(long userId, Sort sort);
 
-    @Query(value = "select ir from ItemRequest as ir")
-    List<ItemRequest> findRequests(Sort sorting);
+    @Query(value = ROWS +
+            "where ir.user.id <> ?1 and " +
+            "ir.created <= ?2 and (ir.created < ?2 or ir.id < ?3) " +
+            "order by ir.created desc, ir.id desc")
+    List<ItemRequestRow> findOtherUsersRequestsBefore(long userId, LocalDateTime created, long requestId,
+                                                      Pageable pageable);
 }
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
 
 import java.util.List;
 
@@ -9,7 +11,17 @@ public interface RequestService {
 
     List<ItemRequestDto> getUserRequests(long userId);
 
+    Versioned<List<ItemRequestDto>> getVersionedUserRequests(long userId);
+
     List<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size);
 
+    Versioned<List<ItemRequestDto>> getVersionedAllRequests(Long userId, Integer from, Integer size);
+
+    ItemRequestPageDto getAllRequestsPage(Long userId, String cursor, Integer size);
+
+    Versioned<ItemRequestPageDto> getVersionedAllRequestsPage(Long userId, String cursor, Integer size);
+
     ItemRequestDto getRequest(Long userId, Long requestId);
+
+    Versioned<ItemRequestDto> getVersionedRequest(Long userId, Long requestId);
 }
@@ -2,10 +2,17 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Versioned;
+import ru.practicum.shareit.item.dto.ItemRow;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
+import ru.practicum.shareit.request.dto.ItemRequestRow;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.request.exception.PaginationDataException;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
@@ -18,15 +25,21 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RequestServiceImpl implements RequestService {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    private static final Sort NEWEST_FIRST = Sort.by("created").descending().and(Sort.by("id").descending());
 
     private final ItemRequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
 
     @Override
     @Transactional
@@ -48,46 +61,119 @@ public class RequestServiceImpl implements RequestService {
 
     @Override
     public ItemRequestDto getRequest(Long userId, Long requestId) {
+        return getVersionedRequest(userId, requestId).getBody();
+    }
+
+    @Override
+    public Versioned<ItemRequestDto> getVersionedRequest(Long userId, Long requestId) {
         if (!userRepository.existsById(userId))
             throw new UserNotFoundException(String.format("User id %d not found", userId));
 
         ItemRequest request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new ItemRequestNotFoundException(String.format("Item request id %d not found", requestId)));
 
-        return ItemRequestMapper.mapToDto(request);
+        EntityTag etag = EntityTag.of("request");
+        addTo(etag, request, request.getItems());
+
+        return Versioned.of(etag, () -> ItemRequestMapper.mapToDto(request));
     }
 
     @Override
     public List<ItemRequestDto> getUserRequests(long userId) {
+        return getVersionedUserRequests(userId).getBody();
+    }
+
+    @Override
+    public Versioned<List<ItemRequestDto>> getVersionedUserRequests(long userId) {
         if (!userRepository.existsById(userId))
             throw new UserNotFoundException(String.format("User id %d not found", userId));
 
-        List<ItemRequest> userRequests = requestRepository.findAllByUserId(userId);
+        List<ItemRequestRow> userRequests = requestRepository.findAllByUserId(userId);
 
-        return ItemRequestMapper.mapListToDto(userRequests);
+        return versionedWithItems(userRequests, Function.identity());
     }
 
     @Override
     public List<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size) {
-        Pageable pageable;
-        List<ItemRequest> requests;
+        return getVersionedAllRequests(userId, from, size).getBody();
+    }
+
+    @Override
+    public Versioned<List<ItemRequestDto>> getVersionedAllRequests(Long userId, Integer from, Integer size) {
+        List<ItemRequestRow> requests;
 
         if (from != null && size != null) {
-            if (from < 0 || size < 0) {
+            if (from < 0 || size <= 0) {
                 throw new PaginationDataException("Invalid pagination data");
             }
 
             int page = from / size;
-            pageable = PageRequest.of(page, size, Sort.by("created").descending());
-            requests = requestRepository.findRequests(pageable);
+            requests = requestRepository.findOtherUsersRequests(userId, PageRequest.of(page, size, NEWEST_FIRST));
+        } else {
+            requests = requestRepository.findOtherUsersRequests(userId, NEWEST_FIRST);
+        }
+
+        return versionedWithItems(requests, Function.identity());
+    }
+
+    @Override
+    public ItemRequestPageDto getAllRequestsPage(Long userId, String cursor, Integer size) {
+        return getVersionedAllRequestsPage(userId, cursor, size).getBody();
+    }
+
+    @Override
+    public Versioned<ItemRequestPageDto> getVersionedAllRequestsPage(Long userId, String cursor, Integer size) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0)
+            throw new PaginationDataException("Invalid pagination data");
 
-            requests = requests.stream()
-                    .filter(itemRequest -> !itemRequest.getUser().getId().equals(userId))
-                    .collect(Collectors.toList());
+        List<ItemRequestRow> requests;
+
+        if (cursor == null || cursor.isBlank()) {
+            requests = requestRepository.findOtherUsersRequests(userId, PageRequest.of(0, pageSize, NEWEST_FIRST));
         } else {
-            requests = requestRepository.findRequests(Sort.by("created").descending());
+            ItemRequestCursor after = ItemRequestCursor.decode(cursor);
+            requests = requestRepository.findOtherUsersRequestsBefore(userId, after.getCreated(), after.getId(),
+                    PageRequest.ofSize(pageSize));
         }
 
-        return ItemRequestMapper.mapListToDto(requests);
+        String nextCursor = null;
+        if (requests.size() == pageSize)
+            nextCursor = ItemRequestCursor.of(requests.get(requests.size() - 1)).encode();
+
+        String pageCursor = nextCursor;
+        return versionedWithItems(requests, dtos -> ItemRequestPageDto.builder()
+                .requests(dtos)
+                .nextCursor(pageCursor)
+                .build());
+    }
+
+    private <T> Versioned<T> versionedWithItems(List<ItemRequestRow> requests, Function<List<ItemRequestDto>, T> body) {
+        EntityTag etag = EntityTag.of("requests");
+        if (requests.isEmpty())
+            return Versioned.of(etag, () -> body.apply(Collections.emptyList()));
+
+        List<ItemRow> items = itemRepository.findRowsByRequestIds(requests.stream()
+                .map(ItemRequestRow::getId)
+                .collect(Collectors.toSet()));
+
+        Map<Long, List<ItemRow>> itemsByRequestId = items.stream()
+                .collect(Collectors.groupingBy(ItemRow::getRequestId));
+        for (ItemRequestRow request : requests)
+            addTo(etag, request, itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList()));
+
+        return Versioned.of(etag, () -> body.apply(ItemRequestMapper.mapListToDto(requests, items)));
+    }
+
+    private static void addTo(EntityTag etag, ItemRequest request, List<Item> items) {
+        etag.add(request.getId(), request.getVersion());
+        for (Item item : items)
+            etag.add(item.getId(), item.getVersion());
+    }
+
+    private static void addTo(EntityTag etag, ItemRequestRow request, List<ItemRow> items) {
+        etag.add(request.getId(), request.getVersion());
+        for (ItemRow item : items)
+            etag.add(item.getId(), item.getVersion());
     }
 }
@@ -3,6 +3,8 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -29,9 +31,13 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUser(@PathVariable long userId) {
+    public UserDto getUser(@PathVariable long userId, WebRequest request) {
         log.info("Getting user id {}", userId);
-        return userService.getUser(userId);
+        Versioned<UserDto> user = userService.getVersionedUser(userId);
+
+        if (request.checkNotModified(user.getEtag()))
+            return null;
+        return user.getBody();
     }
 
     @PatchMapping("/{userId}")
@@ -22,6 +22,9 @@ public class User {
     private String email;
     @Column(name = "name")
     private String name;
+    @Version
+    @Column(name = "version")
+    private Long version;
 
     public static User of(UserDto userDto) {
         return User.builder()
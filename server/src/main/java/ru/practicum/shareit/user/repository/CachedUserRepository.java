@@ -0,0 +1,14 @@
+package ru.practicum.shareit.user.repository;
+
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+/**
+ * Serves lookups by id from the user cache instead of the database.
+ */
+public interface CachedUserRepository {
+    Optional<User> findById(Long id);
+
+    boolean existsById(Long id);
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class CachedUserRepositoryImpl implements CachedUserRepository {
+    private final EntityCache<User> userCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return userCache.get(id, userId -> Optional.ofNullable(entityManager.find(User.class, userId)));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+}
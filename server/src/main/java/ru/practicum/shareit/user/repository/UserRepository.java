@@ -3,5 +3,12 @@ package ru.practicum.shareit.user.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import java.util.Optional;
+
+public interface UserRepository extends JpaRepository<User, Long>, CachedUserRepository {
+    @Override
+    Optional<User> findById(Long id);
+
+    @Override
+    boolean existsById(Long id);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
@@ -11,6 +12,8 @@ public interface UserService {
 
     UserDto getUser(Long userId);
 
+    Versioned<UserDto> getVersionedUser(Long userId);
+
     UserDto patchUser(UserDto userDto);
 
     void deleteUser(Long userId);
@@ -2,10 +2,12 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.cache.EntityCacheInvalidator;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Versioned;
+import ru.practicum.shareit.patch.PatchApplier;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exceptions.EmailExistsException;
 import ru.practicum.shareit.user.exceptions.UserNotFoundException;
@@ -14,15 +16,17 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
+    private static final PatchApplier<User> USER_PATCH = PatchApplier.of(User.class);
+
     private final UserRepository userRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final EntityCacheInvalidator cacheInvalidator;
 
     @Override
     @Transactional
@@ -44,8 +48,15 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUser(Long userId) {
-        return UserMapper.userDtoOf(userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(String.format("User id %d not found", userId))));
+        return getVersionedUser(userId).getBody();
+    }
+
+    @Override
+    public Versioned<UserDto> getVersionedUser(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(String.format("User id %d not found", userId)));
+
+        return Versioned.of(EntityTag.of("user").add(user.getId(), user.getVersion()), () -> UserMapper.userDtoOf(user));
     }
 
     @Override
@@ -55,9 +66,12 @@ public class UserServiceImpl implements UserService {
         User trgUser = userRepository.findById(userDto.getId())
                 .orElseThrow(() -> new UserNotFoundException(String.format("User id %d not found", userDto.getId())));
 
-        copyNonNullProperties(srcUser, trgUser);
+        USER_PATCH.apply(srcUser, trgUser);
+        cacheInvalidator.evictUser(trgUser.getId());
         try {
-            return UserMapper.userDtoOf(userRepository.save(trgUser));
+            User user = userRepository.save(trgUser);
+            bookingViewRepository.updateBooker(user.getId());
+            return UserMapper.userDtoOf(user);
         } catch (Exception e) {
             throw new EmailExistsException("Email is already taken");
         }
@@ -66,22 +80,6 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
-    }
-
-    private static void copyNonNullProperties(Object src, Object target) {
-        BeanUtils.copyProperties(src, target, getNullPropertyNames(src));
-    }
-
-    private static String[] getNullPropertyNames(Object source) {
-        final BeanWrapper src = new BeanWrapperImpl(source);
-        java.beans.PropertyDescriptor[] pds = src.getPropertyDescriptors();
-
-        Set<String> emptyNames = new HashSet<>();
-        for (java.beans.PropertyDescriptor pd : pds) {
-            Object srcValue = src.getPropertyValue(pd.getName());
-            if (srcValue == null) emptyNames.add(pd.getName());
-        }
-        String[] result = new String[emptyNames.size()];
-        return emptyNames.toArray(result);
+        cacheInvalidator.evictUser(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+-- BookingRepository: booker listings by state, ordered by start_time
+CREATE INDEX IF NOT EXISTS idx_bookings_user_start ON bookings (user_id, start_time);
+
+-- BookingRepository: owner listings, last/next lookups and availability checks per item
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_time);
+
+-- BookingRepository: availability index load of active bookings at startup
+CREATE INDEX IF NOT EXISTS idx_bookings_status_end ON bookings (status, end_time);
+
+-- ItemRepository: owner item listings and BookingRepository owner joins
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+-- ItemRequest.items: items answering a request
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- CommentRepository: comments of an item
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+-- ItemRequestRepository: own requests by creation date and all requests by creation date
+CREATE INDEX IF NOT EXISTS idx_requests_creator_created ON requests (creator_id, created);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created);
@@ -0,0 +1,7 @@
+-- Booking ids come from a sequence instead of the identity column, so Hibernate can assign them before the
+-- insert and send the inserts of a batch together; the increment matches allocationSize of Booking.id.
+-- Inserts that do not set the id still get one from the sequence, outside of the blocks Hibernate holds
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
@@ -0,0 +1,36 @@
+-- Read model of bookings for the state-filtered listings: one row per booking carrying everything a listing
+-- shows, so a listing is a scan of one index of one table. Kept in sync by BookingViewRepository
+CREATE TABLE IF NOT EXISTS booking_views (
+    booking_id BIGINT PRIMARY KEY,
+    start_time TIMESTAMP,
+    end_time TIMESTAMP,
+    status VARCHAR(30),
+    booking_version BIGINT,
+    booker_id BIGINT,
+    booker_name VARCHAR(30),
+    booker_email VARCHAR(30),
+    booker_version BIGINT,
+    item_id BIGINT,
+    item_name VARCHAR(30),
+    item_description VARCHAR(255),
+    item_available BOOLEAN,
+    item_request_id BIGINT,
+    item_version BIGINT,
+    owner_id BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_views_booker_start ON booking_views (booker_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_owner_start ON booking_views (owner_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_booker_status_start ON booking_views (booker_id, status, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_owner_status_start ON booking_views (owner_id, status, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_item ON booking_views (item_id);
+
+INSERT INTO booking_views (booking_id, start_time, end_time, status, booking_version,
+                           booker_id, booker_name, booker_email, booker_version,
+                           item_id, item_name, item_description, item_available, item_request_id, item_version, owner_id)
+SELECT b.id, b.start_time, b.end_time, b.status, b.version,
+       u.id, u.name, u.email, u.version,
+       i.id, i.name, i.description, i.is_available, i.request_id, i.version, i.owner_id
+FROM bookings AS b
+JOIN users AS u ON u.id = b.user_id
+JOIN items AS i ON i.id = b.item_id;
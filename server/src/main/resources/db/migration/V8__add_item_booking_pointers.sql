@@ -0,0 +1,28 @@
+-- Last and next approved booking of every item that has one, so item reads need no booking scan.
+-- Kept by ItemBookingPointerTracker: refreshed on approval and moved from next to last when next starts
+CREATE TABLE IF NOT EXISTS item_booking_pointers (
+    item_id BIGINT PRIMARY KEY,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    next_start_time TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_pointers_next_start ON item_booking_pointers (next_start_time);
+
+INSERT INTO item_booking_pointers (item_id, last_booking_id, last_booker_id, next_booking_id, next_booker_id, next_start_time)
+SELECT p.item_id, l.id, l.user_id, n.id, n.user_id, n.start_time
+FROM (
+    SELECT i.id AS item_id,
+           (SELECT b.id FROM bookings AS b
+            WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time < LOCALTIMESTAMP
+            ORDER BY b.end_time DESC, b.start_time ASC LIMIT 1) AS last_id,
+           (SELECT b.id FROM bookings AS b
+            WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_time >= LOCALTIMESTAMP
+            ORDER BY b.start_time ASC LIMIT 1) AS next_id
+    FROM items AS i
+    WHERE EXISTS (SELECT b.id FROM bookings AS b WHERE b.item_id = i.id AND b.status = 'APPROVED')
+) AS p
+LEFT JOIN bookings AS l ON l.id = p.last_id
+LEFT JOIN bookings AS n ON n.id = p.next_id;
@@ -0,0 +1,24 @@
+-- Where a booking is in time: UPCOMING until its start, ACTIVE until its end, then COMPLETED. Moved forward by
+-- BookingLifecycleScheduler, so the CURRENT, FUTURE and PAST listings are equality lookups on an index
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(30);
+ALTER TABLE booking_views ADD COLUMN IF NOT EXISTS phase VARCHAR(30);
+
+UPDATE bookings SET phase = CASE
+    WHEN start_time > LOCALTIMESTAMP THEN 'UPCOMING'
+    WHEN end_time < LOCALTIMESTAMP THEN 'COMPLETED'
+    ELSE 'ACTIVE' END;
+UPDATE booking_views SET phase = CASE
+    WHEN start_time > LOCALTIMESTAMP THEN 'UPCOMING'
+    WHEN end_time < LOCALTIMESTAMP THEN 'COMPLETED'
+    ELSE 'ACTIVE' END;
+
+-- BookingLifecycleScheduler: starts and ends falling due, loaded ahead into the timing wheel and swept
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_start ON bookings (phase, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings (phase, end_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_phase_start ON booking_views (phase, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_phase_end ON booking_views (phase, end_time);
+
+-- BookingSeekRepository and BookingViewRepository: listings by phase, ordered by start_time
+CREATE INDEX IF NOT EXISTS idx_bookings_user_phase_start ON bookings (user_id, phase, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_booker_phase_start ON booking_views (booker_id, phase, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_views_owner_phase_start ON booking_views (owner_id, phase, start_time);
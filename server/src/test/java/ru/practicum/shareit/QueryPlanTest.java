@@ -0,0 +1,298 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.cache.EntityCacheConfiguration;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Runs repository methods against a seeded database, records the statements Hibernate sends for them and checks
+ * that none of their plans scans a whole table. Left out: the full-text search of ItemRepository, which is
+ * PostgreSQL only; the insertMissing backfills, which read every row on purpose; the offset pages of
+ * ItemRequestRepository, which H2 sorts instead of reading idx_requests_created_id backwards as PostgreSQL does;
+ * and ItemBookingPointersRepository.findAllByNextStartIsNotNull, run once at startup, whose IS NOT NULL H2 does not
+ * look up in an index.
+ */
+@DataJpaTest
+@Import({EntityCacheConfiguration.class, QueryPlanTest.StatementRecorder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryPlanTest {
+    private static final int USERS = 500;
+    private static final int ITEMS = 2_000;
+    private static final int BOOKINGS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private StatementRecorder recorder;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingViewRepository bookingViewRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("select count(*) from bookings", Integer.class) > 0)
+            return;
+
+        // H2 silently indexes foreign key columns while PostgreSQL does not, so drop the constraints
+        // to make plans depend on the migration-defined indexes only
+        jdbcTemplate.queryForList("select table_name, constraint_name from information_schema.table_constraints " +
+                        "where constraint_type = 'FOREIGN KEY'")
+                .forEach(fk -> jdbcTemplate.execute(String.format("alter table %s drop constraint %s",
+                        fk.get("TABLE_NAME"), fk.get("CONSTRAINT_NAME"))));
+
+        jdbcTemplate.execute("insert into users (email, name) " +
+                "select concat('user', x, '@mail.ru'), concat('user', x) from system_range(1, " + USERS + ")");
+        jdbcTemplate.execute("insert into requests (description, created, creator_id) " +
+                "select concat('request ', x), dateadd('HOUR', -x, now()), mod(x, " + USERS + ") + 1 " +
+                "from system_range(1, " + ITEMS / 4 + ")");
+        jdbcTemplate.execute("insert into items (owner_id, name, description, is_available, request_id) " +
+                "select mod(x, " + USERS + ") + 1, concat('item ', x), concat('description ', x), true, " +
+                "case when mod(x, 8) = 0 then x / 8 end from system_range(1, " + ITEMS + ")");
+        jdbcTemplate.execute("insert into bookings (start_time, end_time, status, user_id, item_id) " +
+                "select dateadd('HOUR', x - " + BOOKINGS + ", now()), dateadd('HOUR', x - " + BOOKINGS + " + 2, now()), " +
+                "case mod(x, 3) when 0 then 'APPROVED' when 1 then 'WAITING' else 'REJECTED' end, " +
+                "mod(x * 7, " + USERS + ") + 1, mod(x, " + ITEMS + ") + 1 from system_range(1, " + BOOKINGS + ")");
+        jdbcTemplate.execute("update bookings set phase = case when start_time > now() then 'UPCOMING' " +
+                "when end_time < now() then 'COMPLETED' else 'ACTIVE' end");
+        jdbcTemplate.execute("insert into booking_views (booking_id, start_time, end_time, status, phase, booking_version, " +
+                "booker_id, booker_name, booker_email, booker_version, item_id, item_name, item_description, item_available, " +
+                "item_request_id, item_version, owner_id) " +
+                "select b.id, b.start_time, b.end_time, b.status, b.phase, b.version, u.id, u.name, u.email, u.version, " +
+                "i.id, i.name, i.description, i.is_available, i.request_id, i.version, i.owner_id " +
+                "from bookings b join users u on u.id = b.user_id join items i on i.id = b.item_id");
+        jdbcTemplate.execute("insert into comments (text, item_id, author_id, created) " +
+                "select concat('comment ', x), mod(x, " + ITEMS + ") + 1, mod(x, " + USERS + ") + 1, now() " +
+                "from system_range(1, " + ITEMS + ")");
+        jdbcTemplate.execute("analyze");
+    }
+
+    static Stream<Arguments> repositoryCalls() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Arguments> calls = new ArrayList<>(List.of(
+                call("BookingRepository.isBooker", test -> test.bookingRepository.isBooker(1, 1)),
+                call("BookingRepository.isOwner", test -> test.bookingRepository.isOwner(1, 1)),
+                call("BookingRepository.approveIfWaiting", test -> test.bookingRepository.approveIfWaiting(1)),
+                call("BookingRepository.rejectIfWaiting", test -> test.bookingRepository.rejectIfWaiting(1)),
+                call("BookingRepository.findFirst...StartBefore", test -> test.bookingRepository
+                        .findFirstByItemIdAndStatusAndStartBeforeOrderByEndDescStartAsc(1, Booking.Status.APPROVED, now)),
+                call("BookingRepository.findFirst...StartGreaterThanEqual", test -> test.bookingRepository
+                        .findFirstByItemIdAndStatusAndStartGreaterThanEqualOrderByStartAsc(1, Booking.Status.APPROVED, now)),
+                call("BookingRepository.movePhase", test -> test.bookingRepository
+                        .movePhase(List.of(1L, 2L), Booking.Phase.ACTIVE, List.of(Booking.Phase.UPCOMING))),
+                call("BookingRepository.startDue", test -> test.bookingRepository.startDue(now)),
+                call("BookingRepository.completeDue", test -> test.bookingRepository.completeDue(now)),
+                call("BookingRepository.findStartsBetween", test -> test.bookingRepository
+                        .findStartsBetween(now, now.plusHours(1), PageRequest.of(0, 1000))),
+                call("BookingRepository.findEndsBetween", test -> test.bookingRepository
+                        .findEndsBetween(now, now.plusHours(1), PageRequest.of(0, 1000))),
+                call("BookingRepository.findAllByStatusInAndEndAfter", test -> test.bookingRepository
+                        .findAllByStatusInAndEndAfter(List.of(Booking.Status.APPROVED, Booking.Status.WAITING), now)),
+                call("BookingRepository.findLastAndNextBookings", test -> test.bookingRepository
+                        .findLastAndNextBookings(List.of(1L, 2L, 3L), now)),
+                call("BookingRepository.findBookings cursor", test -> test.bookingRepository
+                        .findBookings(BookingQuery.of(1, false)
+                                .after(new BookingCursor(now, 100))
+                                .pageable(PageRequest.of(0, 10))
+                                .build())),
+                call("BookingRepository.findBookings items and window", test -> test.bookingRepository
+                        .findBookings(BookingQuery.of(1, true)
+                                .startFrom(now.minusDays(1))
+                                .startUntil(now)
+                                .itemsId(List.of(1L, 2L))
+                                .build())),
+                call("BookingViewRepository.findBookings cursor owner", test -> test.bookingViewRepository
+                        .findBookings(BookingQuery.of(1, true)
+                                .after(new BookingCursor(now, 100))
+                                .pageable(PageRequest.of(0, 10))
+                                .build())),
+                call("BookingViewRepository.updateBookingStatus", test -> test.bookingViewRepository.updateBookingStatus(1)),
+                call("BookingViewRepository.updatePhases", test -> test.bookingViewRepository.updatePhases(List.of(1L, 2L))),
+                call("BookingViewRepository.startDue", test -> test.bookingViewRepository.startDue(now)),
+                call("BookingViewRepository.completeDue", test -> test.bookingViewRepository.completeDue(now)),
+                call("BookingViewRepository.updateItem", test -> test.bookingViewRepository.updateItem(1)),
+                call("BookingViewRepository.updateBooker", test -> test.bookingViewRepository.updateBooker(1)),
+                call("ItemRepository.lockById", test -> test.itemRepository.lockById(1L)),
+                call("ItemRepository.findRowsByOwnerId", test -> test.itemRepository.findRowsByOwnerId(1)),
+                call("ItemRepository.findRowsByIds", test -> test.itemRepository.findRowsByIds(List.of(1L, 2L))),
+                call("ItemRepository.findRowsByRequestIds", test -> test.itemRepository.findRowsByRequestIds(List.of(1L, 2L))),
+                call("ItemRepository.findAllWithOwnerByIds", test -> test.itemRepository.findAllWithOwnerByIds(List.of(1L, 2L))),
+                call("ItemRepository.itemWasRentedByUser", test -> test.itemRepository.itemWasRentedByUser(1, 1, now)),
+                call("CommentRepository.findAllByItemId", test -> test.commentRepository.findAllByItemId(1)),
+                call("ItemRequestRepository.findAllByUserId", test -> test.requestRepository.findAllByUserId(1)),
+                call("ItemRequestRepository.findOtherUsersRequestsBefore", test -> test.requestRepository
+                        .findOtherUsersRequestsBefore(1, now, 100, PageRequest.of(0, 20)))
+        ));
+
+        // every shape of the listings, by both roles, against the bookings and their read model
+        for (BookingState state : BookingState.values()) {
+            for (boolean isOwner : List.of(false, true)) {
+                BookingQuery query = BookingQuery.of(1, isOwner).state(state).pageable(PageRequest.of(0, 20)).build();
+                String suffix = " " + state + (isOwner ? " owner" : " booker");
+
+                calls.add(call("BookingRepository.findBookings" + suffix, test -> test.bookingRepository.findBookings(query)));
+                calls.add(call("BookingViewRepository.findBookings" + suffix, test -> test.bookingViewRepository
+                        .findBookings(query)));
+            }
+        }
+        return calls.stream();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    void queryUsesIndex(String name, Consumer<QueryPlanTest> call) {
+        List<StatementRecorder.Statement> statements = recorder.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            call.accept(this);
+            status.setRollbackOnly();
+        }));
+
+        Assertions.assertFalse(statements.isEmpty(), "No statement sent");
+        for (StatementRecorder.Statement statement : statements) {
+            String plan = jdbcTemplate.queryForObject("explain " + statement.sql, String.class, statement.parameters());
+
+            Assertions.assertFalse(plan.contains("tableScan"), () -> "Sequential scan in plan:\n" + plan);
+        }
+    }
+
+    private static Arguments call(String name, Consumer<QueryPlanTest> call) {
+        return Arguments.of(name, call);
+    }
+
+    /**
+     * Wraps the data source so that every prepared statement executed while recording is kept with the values
+     * bound to it, the way the driver received them.
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean recording;
+
+        synchronized List<Statement> record(Runnable action) {
+            statements.clear();
+            recording = true;
+            try {
+                action.run();
+            } finally {
+                recording = false;
+            }
+            return new ArrayList<>(statements);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource))
+                return bean;
+
+            return new DelegatingDataSource((DataSource) bean) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return proxy(Connection.class, super.getConnection(), (target, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        if (result instanceof PreparedStatement && method.getName().equals("prepareStatement"))
+                            return recording((PreparedStatement) result, (String) args[0]);
+                        return result;
+                    });
+                }
+            };
+        }
+
+        private PreparedStatement recording(PreparedStatement preparedStatement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+
+            return proxy(PreparedStatement.class, preparedStatement, (target, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer)
+                    parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                else if (name.equals("clearParameters"))
+                    parameters.clear();
+                else if (recording && (name.startsWith("execute") || name.equals("addBatch")))
+                    statements.add(new Statement(sql, new TreeMap<>(parameters)));
+                return invoke(target, method, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, TargetInvocationHandler<T> handler) {
+            InvocationHandler invocationHandler = (proxy, method, args) -> handler.invoke(target, method, args);
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private interface TargetInvocationHandler<T> {
+            Object invoke(T target, java.lang.reflect.Method method, Object[] args) throws Throwable;
+        }
+
+        static class Statement {
+            private final String sql;
+            private final Map<Integer, Object> parameters;
+
+            Statement(String sql, Map<Integer, Object> parameters) {
+                this.sql = sql;
+                this.parameters = parameters;
+            }
+
+            Object[] parameters() {
+                return parameters.values().toArray();
+            }
+
+            @Override
+            public String toString() {
+                return sql + " " + Arrays.toString(parameters());
+            }
+        }
+    }
+}
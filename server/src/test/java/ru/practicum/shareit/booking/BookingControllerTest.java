@@ -7,11 +7,17 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -22,11 +28,15 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
 class BookingControllerTest {
+    static final String ETAG = "\"5d1a3f0c9b7e2a64\"";
+
     @Autowired
     ObjectMapper mapper;
 
@@ -98,6 +108,30 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.item.name").value("drill"));
     }
 
+    @Test
+    void bookNewItems() throws Exception {
+        BookingBatchRequestDto batchDto = BookingBatchRequestDto.builder()
+                .bookings(List.of(bookingRequestDto, bookingRequestDto))
+                .build();
+
+        Mockito
+                .when(bookingService.bookItems(booker.getId(), batchDto.getBookings()))
+                .thenReturn(List.of(
+                        BookingBatchResultDto.created(bookingResponseDto),
+                        BookingBatchResultDto.failed(HttpStatus.CONFLICT, "Item id 1 is already booked")));
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", String.valueOf(booker.getId()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(batchDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].booking.id").value(1L))
+                .andExpect(jsonPath("$[1].status").value(409))
+                .andExpect(jsonPath("$[1].error").value("Item id 1 is already booked"));
+    }
+
     @Test
     void acceptOrDeclineBooking() throws Exception {
         BookingResponseDto approvedBooking = BookingResponseDto.builder()
@@ -124,8 +158,8 @@ class BookingControllerTest {
     @Test
     void getOneBooking() throws Exception {
         Mockito
-                .when(bookingService.getBooking(bookingResponseDto.getBooker().getId(), bookingResponseDto.getId()))
-                .thenReturn(bookingResponseDto);
+                .when(bookingService.getVersionedBooking(bookingResponseDto.getBooker().getId(), bookingResponseDto.getId()))
+                .thenReturn(Versioned.of(ETAG, () -> bookingResponseDto));
 
         mvc.perform(get("/bookings/{bookingId}", bookingResponseDto.getId())
                         .header("X-Sharer-User-Id", booker.getId()))
@@ -150,8 +184,8 @@ class BookingControllerTest {
         expectedList = List.of(bookingResponseDto, newBooking);
 
         Mockito
-                .when(bookingService.getUserBookings(booker.getId(), "ALL", false, 0, 10))
-                .thenReturn(expectedList);
+                .when(bookingService.getVersionedUserBookings(booker.getId(), "ALL", false, 0, 10))
+                .thenReturn(Versioned.of(ETAG, () -> expectedList));
 
         mvc.perform(get("/bookings")
                 .header("X-Sharer-User-Id", booker.getId())
@@ -179,8 +213,8 @@ class BookingControllerTest {
         expectedList = List.of(bookingResponseDto, newBooking);
 
         Mockito
-                .when(bookingService.getUserBookings(booker.getId(), "ALL", true, 0, 10))
-                .thenReturn(expectedList);
+                .when(bookingService.getVersionedUserBookings(booker.getId(), "ALL", true, 0, 10))
+                .thenReturn(Versioned.of(ETAG, () -> expectedList));
 
         mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", booker.getId())
@@ -191,4 +225,45 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(expectedList.get(0).getId()))
                 .andExpect(jsonPath("$[1].id").value(expectedList.get(1).getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllUserBookingsWithCursor() throws Exception {
+        BookingPageDto page = BookingPageDto.builder()
+                .bookings(List.of(bookingResponseDto))
+                .nextCursor("next")
+                .build();
+
+        Mockito
+                .when(bookingService.getVersionedUserBookingsPage(booker.getId(), "ALL", false, "", 1))
+                .thenReturn(Versioned.of(ETAG, () -> page));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("state", "ALL")
+                        .param("size", String.valueOf(1))
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(bookingResponseDto.getId()));
+    }
+
+    @Test
+    void getAllUserBookingsNotModified() throws Exception {
+        Mockito
+                .when(bookingService.getVersionedUserBookingsPage(booker.getId(), "ALL", false, "", 1))
+                .thenReturn(Versioned.of(ETAG, () -> {
+                    throw new AssertionError("A not modified page must not be mapped");
+                }));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                        .param("state", "ALL")
+                        .param("size", String.valueOf(1))
+                        .param("cursor", ""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(content().string(""));
+    }
+}
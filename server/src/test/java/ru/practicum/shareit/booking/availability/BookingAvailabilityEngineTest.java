@@ -0,0 +1,167 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.exceptions.BookingConflictException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAvailabilityEngineTest {
+    @Mock
+    BookingRepository bookingRepository;
+
+    BookingAvailabilityEngine availabilityEngine;
+
+    Item item;
+    LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        availabilityEngine = new BookingAvailabilityEngine(bookingRepository, Duration.ofHours(1));
+        item = Item.builder()
+                .id(1L)
+                .name("drill")
+                .isAvailable(true)
+                .build();
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void loadAndCheck() {
+        Mockito
+                .when(bookingRepository.findAllByStatusInAndEndAfter(any(), any()))
+                .thenReturn(List.of(booking(1L, base, base.plusDays(2))));
+
+        availabilityEngine.load();
+
+        Assertions.assertFalse(availabilityEngine.isAvailable(1L, base.plusDays(1), base.plusDays(3)));
+        Assertions.assertFalse(availabilityEngine.isAvailable(1L, base.minusDays(1), base.plusHours(1)));
+        Assertions.assertTrue(availabilityEngine.isAvailable(1L, base.plusDays(2), base.plusDays(3)));
+        Assertions.assertTrue(availabilityEngine.isAvailable(1L, base.minusDays(1), base));
+        Assertions.assertTrue(availabilityEngine.isAvailable(2L, base, base.plusDays(2)));
+    }
+
+    @Test
+    void reserveConflict() {
+        availabilityEngine.reserve(booking(1L, base, base.plusDays(2)));
+
+        Assertions.assertThrows(BookingConflictException.class,
+                () -> availabilityEngine.reserve(booking(2L, base.plusDays(1), base.plusDays(4))));
+        availabilityEngine.reserve(booking(3L, base.plusDays(2), base.plusDays(4)));
+    }
+
+    @Test
+    void batchIsCheckedAgainstTheIndexAndItself() {
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("saw")
+                .isAvailable(true)
+                .build();
+        availabilityEngine.reserve(booking(1L, base, base.plusDays(2)));
+
+        List<Boolean> available = availabilityEngine.isAvailable(List.of(
+                booking(null, base.plusDays(1), base.plusDays(3)),
+                booking(null, base.plusDays(2), base.plusDays(4)),
+                booking(null, base.plusDays(3), base.plusDays(5)),
+                booking(null, base.plusDays(4), base.plusDays(5)),
+                Booking.builder().start(base).end(base.plusDays(1)).item(otherItem).build()));
+
+        Assertions.assertEquals(List.of(false, true, false, true, true), available);
+        Assertions.assertTrue(availabilityEngine.isAvailable(1L, base.plusDays(2), base.plusDays(4)));
+    }
+
+    @Test
+    void release() {
+        Booking booking = booking(1L, base, base.plusDays(2));
+
+        availabilityEngine.reserve(booking);
+        availabilityEngine.release(booking);
+
+        Assertions.assertTrue(availabilityEngine.isAvailable(1L, base, base.plusDays(2)));
+    }
+
+    @Test
+    void endedBookingsArePruned() {
+        LocalDateTime now = LocalDateTime.now();
+        availabilityEngine.reserve(booking(2L, now.minusHours(1), now.plusHours(1)));
+        availabilityEngine.reserve(booking(3L, base, base.plusDays(1)));
+        availabilityEngine.reserve(booking(1L, now.minusDays(3), now.minusDays(2)));
+
+        Assertions.assertEquals(1, availabilityEngine.prune(now));
+        Assertions.assertEquals(2, availabilityEngine.size());
+        Assertions.assertTrue(availabilityEngine.isAvailable(1L, now.minusDays(3), now.minusDays(2)));
+        Assertions.assertFalse(availabilityEngine.isAvailable(1L, now, now.plusMinutes(30)));
+    }
+
+    @Test
+    void reserveDropsEndedBookingsOfTheItem() {
+        LocalDateTime now = LocalDateTime.now();
+        availabilityEngine.reserve(booking(1L, now.minusDays(3), now.minusDays(2)));
+        availabilityEngine.reserve(booking(2L, now.minusDays(2), now.minusDays(1)));
+
+        availabilityEngine.reserve(booking(3L, base, base.plusDays(1)));
+
+        Assertions.assertEquals(1, availabilityEngine.size());
+    }
+
+    @Test
+    void intervalTreeMatchesLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<LocalDateTime[]> intervals = new ArrayList<>();
+
+        for (long id = 0; id < 500; id++) {
+            LocalDateTime start = base.plusHours(random.nextInt(5000));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(48));
+            tree.insert(id, start, end);
+            intervals.add(new LocalDateTime[]{start, end});
+        }
+        for (int id = 0; id < 500; id += 3) {
+            Assertions.assertTrue(tree.remove(id, intervals.get(id)[0]));
+            intervals.set(id, null);
+        }
+        LocalDateTime cutoff = base.plusHours(2500);
+        int ended = 0;
+        for (int id = 0; id < 500; id++) {
+            if (intervals.get(id) != null && intervals.get(id)[1].isBefore(cutoff)) {
+                intervals.set(id, null);
+                ended++;
+            }
+        }
+        Assertions.assertEquals(ended, tree.removeEndedBefore(cutoff));
+
+        for (int i = 0; i < 1000; i++) {
+            LocalDateTime start = base.plusHours(random.nextInt(5100));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(12));
+            boolean expected = intervals.stream()
+                    .anyMatch(interval -> interval != null && interval[0].isBefore(end) && interval[1].isAfter(start));
+
+            Assertions.assertEquals(expected, tree.overlaps(start, end));
+        }
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(item)
+                .status(Booking.Status.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.request.exception.PaginationDataException;
+
+import java.time.LocalDateTime;
+
+class BookingCursorTest {
+    @Test
+    void encodeAndDecode() {
+        BookingCursor expectedCursor = new BookingCursor(LocalDateTime.of(2023, 5, 1, 12, 30, 15, 123000), 42L);
+
+        BookingCursor actualCursor = BookingCursor.decode(expectedCursor.encode());
+
+        Assertions.assertEquals(expectedCursor, actualCursor);
+    }
+
+    @Test
+    void ofRoundsStartToMicros() {
+        LocalDateTime start = LocalDateTime.of(2023, 5, 1, 12, 30, 15, 123456789);
+
+        BookingCursor cursor = BookingCursor.of(Booking.builder().id(1L).start(start).build());
+
+        Assertions.assertEquals(start.withNano(123457000), cursor.getStart());
+    }
+
+    @Test
+    void decodeInvalid() {
+        Assertions.assertThrows(PaginationDataException.class, () -> BookingCursor.decode("%%%"));
+        Assertions.assertThrows(PaginationDataException.class, () -> BookingCursor.decode("bm90LWEtY3Vyc29y"));
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingRow;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = "shareit.bookings.lifecycle.tick=50ms")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingLifecycleSchedulerTest {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
+    private final BookingService bookingService;
+    private final BookingLifecycleScheduler lifecycleScheduler;
+    private final TransactionTemplate transactionTemplate;
+
+    User owner;
+    User booker;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("zima")
+                .email("zimablue@gmail.com")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("miscuzi")
+                .email("miscuzimiscuzi@gmail.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("drilling drill")
+                .user(owner)
+                .isAvailable(true)
+                .build());
+    }
+
+    @Test
+    void bookingMovesThroughItsPhases() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1);
+        BookingResponseDto booking = bookingService.bookItem(BookingRequestDto.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(start)
+                .end(start.plusSeconds(1))
+                .build());
+
+        Assertions.assertEquals(Booking.Phase.UPCOMING, phaseOf(booking.getId()));
+        Assertions.assertEquals(List.of(booking.getId()), listed(BookingState.FUTURE));
+
+        await(() -> phaseOf(booking.getId()) != Booking.Phase.UPCOMING);
+        Assertions.assertEquals(Booking.Phase.ACTIVE, phaseOf(booking.getId()));
+        Assertions.assertEquals(List.of(booking.getId()), listed(BookingState.CURRENT));
+
+        await(() -> phaseOf(booking.getId()) == Booking.Phase.COMPLETED);
+        Assertions.assertEquals(List.of(booking.getId()), listed(BookingState.PAST));
+        Assertions.assertEquals(List.of(), listed(BookingState.CURRENT));
+    }
+
+    @Test
+    void refillSweepsBookingsThatFellDueWithoutATimer() {
+        LocalDateTime now = LocalDateTime.now();
+        // saved with the phase they had before a downtime
+        Booking started = save(now.minusHours(1), now.plusHours(1), Booking.Phase.UPCOMING);
+        Booking ended = save(now.minusHours(2), now.minusHours(1), Booking.Phase.ACTIVE);
+
+        lifecycleScheduler.refill(now);
+
+        Assertions.assertEquals(Booking.Phase.ACTIVE, phaseOf(started.getId()));
+        Assertions.assertEquals(Booking.Phase.COMPLETED, phaseOf(ended.getId()));
+        Assertions.assertEquals(List.of(started.getId()), listed(BookingState.CURRENT));
+        Assertions.assertEquals(List.of(ended.getId()), listed(BookingState.PAST));
+    }
+
+    @Test
+    void listingsDoNotWaitForThePhaseToMove() {
+        LocalDateTime now = LocalDateTime.now();
+        // left behind by the wheel: nothing moves them before they are listed
+        Booking started = save(now.minusHours(1), now.plusHours(1), Booking.Phase.UPCOMING);
+        Booking ended = save(now.minusHours(2), now.minusHours(1), Booking.Phase.ACTIVE);
+        Booking upcoming = save(now.plusHours(1), now.plusHours(2), Booking.Phase.UPCOMING);
+
+        Assertions.assertEquals(List.of(started.getId()), listed(BookingState.CURRENT));
+        Assertions.assertEquals(List.of(upcoming.getId()), listed(BookingState.FUTURE));
+        Assertions.assertEquals(List.of(ended.getId()), listed(BookingState.PAST));
+    }
+
+    @Test
+    void trackedBookingsStayWithinTheCap() {
+        BookingLifecycleScheduler scheduler = new BookingLifecycleScheduler(bookingRepository, bookingViewRepository,
+                transactionTemplate, Duration.ofMillis(50), Duration.ofHours(1), 4, 8, 3);
+        LocalDateTime now = LocalDateTime.now();
+        scheduler.refill(now);
+
+        for (int i = 1; i <= 6; i++)
+            scheduler.track(save(now.plusMinutes(i), now.plusMinutes(i + 1), null));
+
+        Assertions.assertEquals(4, scheduler.pending());
+    }
+
+    @Test
+    void pendingTransitionsStayWithinTheCap() throws InterruptedException {
+        // a scheduler of its own, not started: the test turns it and the window begins at the first refill
+        BookingLifecycleScheduler scheduler = new BookingLifecycleScheduler(bookingRepository, bookingViewRepository,
+                transactionTemplate, Duration.ofMillis(50), Duration.ofHours(1), 4, 8, 3);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> bookingsId = new ArrayList<>();
+        for (int i = 1; i <= 6; i++)
+            bookingsId.add(save(now.plusSeconds(i), now.plusSeconds(i).plusHours(1), null).getId());
+
+        scheduler.refill(now);
+        Assertions.assertTrue(scheduler.pending() <= 4);
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!bookingsId.stream().allMatch(id -> phaseOf(id) == Booking.Phase.ACTIVE) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            scheduler.advance();
+            Assertions.assertTrue(scheduler.pending() <= 4);
+        }
+        for (Long bookingId : bookingsId)
+            Assertions.assertEquals(Booking.Phase.ACTIVE, phaseOf(bookingId));
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, Booking.Phase phase) {
+        return transactionTemplate.execute(status -> {
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .start(start)
+                    .end(end)
+                    .user(booker)
+                    .item(item)
+                    .status(Booking.Status.APPROVED)
+                    .phase(phase)
+                    .build());
+            bookingViewRepository.insertBookings(List.of(booking.getId()));
+            return booking;
+        });
+    }
+
+    private Booking.Phase phaseOf(long bookingId) {
+        return bookingRepository.findById(bookingId).orElseThrow().getPhase();
+    }
+
+    private List<Long> listed(BookingState state) {
+        return bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).state(state).build()).stream()
+                .map(BookingRow::getBookingId)
+                .collect(Collectors.toList());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit.booking.pointer;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingPointers;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingPointersRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@SpringBootTest(properties = "shareit.bookings.pointers.tick=50ms")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemBookingPointerTrackerTest {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingPointersRepository pointersRepository;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final ItemBookingPointerTracker pointerTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    User owner;
+    User booker;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("zima")
+                .email("zimablue@gmail.com")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("miscuzi")
+                .email("miscuzimiscuzi@gmail.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("drilling drill")
+                .user(owner)
+                .isAvailable(true)
+                .build());
+    }
+
+    @Test
+    void approvedBookingBecomesNextAndThenLast() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1);
+        BookingResponseDto booking = bookingService.bookItem(BookingRequestDto.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(start)
+                .end(start.plusHours(1))
+                .build());
+        Assertions.assertTrue(pointersRepository.findById(item.getId()).isEmpty());
+
+        bookingService.acceptOrDeclineBooking(owner.getId(), booking.getId(), true);
+
+        ItemBookingPointers pointers = pointersRepository.findById(item.getId()).orElseThrow();
+        Assertions.assertNull(pointers.getLastBookingId());
+        Assertions.assertEquals(booking.getId(), pointers.getNextBookingId());
+        Assertions.assertEquals(booker.getId(), pointers.getNextBookerId());
+        ItemDto itemDto = itemService.getUserItems(owner.getId()).get(0);
+        Assertions.assertNull(itemDto.getLastBooking());
+        Assertions.assertEquals(booking.getId(), itemDto.getNextBooking().getId());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pointersRepository.findById(item.getId()).orElseThrow().getLastBookingId() == null
+                && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+
+        pointers = pointersRepository.findById(item.getId()).orElseThrow();
+        Assertions.assertEquals(booking.getId(), pointers.getLastBookingId());
+        Assertions.assertEquals(booker.getId(), pointers.getLastBookerId());
+        Assertions.assertNull(pointers.getNextBookingId());
+        Assertions.assertNull(pointers.getNextStart());
+        itemDto = itemService.getItem(item.getId(), owner.getId());
+        Assertions.assertEquals(booking.getId(), itemDto.getLastBooking().getId());
+        Assertions.assertNull(itemDto.getNextBooking());
+    }
+
+    @Test
+    void laterApprovalKeepsTheScheduledStart() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingResponseDto next = bookingService.bookItem(BookingRequestDto.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(start)
+                .end(start.plusHours(1))
+                .build());
+        BookingResponseDto later = bookingService.bookItem(BookingRequestDto.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(start.plusDays(1))
+                .end(start.plusDays(1).plusHours(1))
+                .build());
+
+        bookingService.acceptOrDeclineBooking(owner.getId(), next.getId(), true);
+        int pending = pointerTracker.pending();
+        bookingService.acceptOrDeclineBooking(owner.getId(), later.getId(), true);
+
+        Assertions.assertEquals(next.getId(), pointersRepository.findById(item.getId()).orElseThrow().getNextBookingId());
+        Assertions.assertEquals(pending, pointerTracker.pending());
+    }
+
+    @Test
+    void staleRowFallsBackToBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = save(now.minusHours(1), now.plusHours(1));
+        Booking next = save(now.plusDays(1), now.plusDays(2));
+        // a row the wheel never saw, left behind as if the service had been down when the booking started
+        pointersRepository.save(ItemBookingPointers.builder()
+                .itemId(item.getId())
+                .nextBookingId(started.getId())
+                .nextBookerId(booker.getId())
+                .nextStart(started.getStart())
+                .build());
+
+        List<ItemBookingPointer> pointers = pointerTracker.findPointers(List.of(item.getId()), now);
+
+        Assertions.assertEquals(2, pointers.size());
+        for (ItemBookingPointer pointer : pointers) {
+            Assertions.assertEquals(ItemBookingPointer.LAST.equals(pointer.getPointer()) ? started.getId() : next.getId(),
+                    pointer.getBookingId());
+        }
+    }
+
+    @Test
+    void insertMissingFillsItemsWithApprovedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking last = save(now.minusDays(2), now.minusDays(1));
+        Booking next = save(now.plusDays(1), now.plusDays(2));
+        save(now.plusDays(3), now.plusDays(4));
+
+        Assertions.assertEquals(1, (int) transactionTemplate.execute(status -> pointersRepository.insertMissing(now)));
+        Assertions.assertEquals(0, (int) transactionTemplate.execute(status -> pointersRepository.insertMissing(now)));
+
+        ItemBookingPointers pointers = pointersRepository.findById(item.getId()).orElseThrow();
+        Assertions.assertEquals(last.getId(), pointers.getLastBookingId());
+        Assertions.assertEquals(next.getId(), pointers.getNextBookingId());
+        Assertions.assertEquals(booker.getId(), pointers.getNextBookerId());
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .user(booker)
+                .item(item)
+                .status(Booking.Status.APPROVED)
+                .build());
+    }
+}
@@ -5,20 +5,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingRow;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.cache.EntityCacheConfiguration;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @DataJpaTest
+@Import(EntityCacheConfiguration.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class BookingRepositoryTest {
     @Autowired
@@ -117,33 +126,33 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllByUser() {
+    void findBookerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
         bookingRepository.save(booking);
 
         expectedList = List.of(booking);
-        actualList = bookingRepository.findAllByUser(booker.getId(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(booker.getId(), false).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findAllByOwner() {
+    void findOwnerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
         bookingRepository.save(booking);
 
         expectedList = List.of(booking);
-        actualList = bookingRepository.findAllByOwner(owner.getId(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(owner.getId(), true).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findAllCurrentBookingsByUser() {
+    void findCurrentBookerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
@@ -157,13 +166,13 @@ class BookingRepositoryTest {
 
         expectedList = new ArrayList<>(List.of(booking, bookingTwo));
         expectedList.sort(Comparator.comparing(Booking::getStart).reversed());
-        actualList = bookingRepository.findAllCurrentBookingsByUser(booker.getId(), LocalDateTime.now(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(booker.getId(), false).state(BookingState.CURRENT).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findAllCurrentBookingsByOwner() {
+    void findCurrentOwnerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
@@ -176,13 +185,13 @@ class BookingRepositoryTest {
         bookingRepository.save(bookingTwo);
 
         expectedList = List.of(booking);
-        actualList = bookingRepository.findAllCurrentBookingsByOwner(owner.getId(), LocalDateTime.now(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(owner.getId(), true).state(BookingState.CURRENT).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findAllFutureBookingsByUser() {
+    void findFutureBookerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
@@ -196,13 +205,13 @@ class BookingRepositoryTest {
 
         expectedList = new ArrayList<>(List.of(booking, bookingTwo));
         expectedList.sort(Comparator.comparing(Booking::getStart).reversed());
-        actualList = bookingRepository.findAllFutureBookingsByUser(booker.getId(), LocalDateTime.now(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(booker.getId(), false).state(BookingState.FUTURE).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findAllFutureBookingsByOwner() {
+    void findFutureOwnerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
@@ -215,13 +224,13 @@ class BookingRepositoryTest {
         bookingRepository.save(bookingTwo);
 
         expectedList = List.of(booking);
-        actualList = bookingRepository.findAllFutureBookingsByOwner(owner.getId(), LocalDateTime.now(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(owner.getId(), true).state(BookingState.FUTURE).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findAllPastBookingsByUser() {
+    void findPastBookerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
@@ -235,13 +244,13 @@ class BookingRepositoryTest {
 
         expectedList = new ArrayList<>(List.of(booking, bookingTwo));
         expectedList.sort(Comparator.comparing(Booking::getStart).reversed());
-        actualList = bookingRepository.findAllPastBookingsByUser(booker.getId(), LocalDateTime.now(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(booker.getId(), false).state(BookingState.PAST).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findAllPastBookingsByOwner() {
+    void findPastOwnerBookings() {
         List<Booking> expectedList;
         List<Booking> actualList;
 
@@ -254,56 +263,179 @@ class BookingRepositoryTest {
         bookingRepository.save(bookingTwo);
 
         expectedList = List.of(booking);
-        actualList = bookingRepository.findAllPastBookingsByOwner(owner.getId(), LocalDateTime.now(), Pageable.unpaged());
+        actualList = find(BookingQuery.of(owner.getId(), true).state(BookingState.PAST).build());
 
         Assertions.assertEquals(expectedList, actualList);
     }
 
     @Test
-    void findLastBooking() {
-        Booking expectedBooking;
-        Booking actualBooking;
+    void findLastAndNextBookings() {
+        List<ItemBookingPointer> actualPointers;
 
-        bookingTwo.setItem(item);
-
-        booking.setStart(LocalDateTime.now().minusDays(2));
-        booking.setEnd(LocalDateTime.now().minusDays(1));
-        bookingTwo.setStart(LocalDateTime.now().minusDays(4));
-        bookingTwo.setEnd(LocalDateTime.now().minusDays(3));
+        Booking lastBooking = Booking.builder()
+                .user(booker)
+                .item(item)
+                .status(Booking.Status.APPROVED)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build();
 
         booking.setStatus(Booking.Status.APPROVED);
         bookingTwo.setStatus(Booking.Status.APPROVED);
 
         bookingRepository.save(booking);
         bookingRepository.save(bookingTwo);
+        bookingRepository.save(lastBooking);
 
-        expectedBooking = booking;
-        actualBooking = bookingRepository.findLastBooking(item.getId());
+        actualPointers = bookingRepository.findLastAndNextBookings(List.of(item.getId(), itemTwo.getId()), LocalDateTime.now());
 
-        Assertions.assertEquals(expectedBooking, actualBooking);
+        Assertions.assertEquals(3, actualPointers.size());
+        Assertions.assertTrue(actualPointers.stream().anyMatch(pointer -> pointer.getBookingId().equals(lastBooking.getId()) &&
+                pointer.getItemId().equals(item.getId()) && pointer.getPointer().equals(ItemBookingPointer.LAST)));
+        Assertions.assertTrue(actualPointers.stream().anyMatch(pointer -> pointer.getBookingId().equals(booking.getId()) &&
+                pointer.getItemId().equals(item.getId()) && pointer.getPointer().equals(ItemBookingPointer.NEXT)));
+        Assertions.assertTrue(actualPointers.stream().anyMatch(pointer -> pointer.getBookingId().equals(bookingTwo.getId()) &&
+                pointer.getBookerId().equals(booker.getId()) && pointer.getPointer().equals(ItemBookingPointer.NEXT)));
     }
 
     @Test
-    void findNextBooking() {
-        Booking expectedBooking;
-        Booking actualBooking;
-
-        booking.setItem(itemTwo);
+    void findLastAndNextBookingsTransfersOneRowPerPointer() {
+        LocalDateTime localDateTime = LocalDateTime.now();
+        List<Booking> history = new ArrayList<>();
+
+        for (int i = 1; i <= 50; i++) {
+            history.add(Booking.builder()
+                    .user(booker)
+                    .item(i % 2 == 0 ? item : itemTwo)
+                    .status(Booking.Status.APPROVED)
+                    .start(localDateTime.plusDays(i * 2L - 50))
+                    .end(localDateTime.plusDays(i * 2L - 49))
+                    .build());
+        }
+        bookingRepository.saveAll(history);
+
+        List<ItemBookingPointer> actualPointers = bookingRepository
+                .findLastAndNextBookings(List.of(item.getId(), itemTwo.getId()), localDateTime);
+        Booking expectedLast = history.stream()
+                .filter(b -> b.getItem().equals(item) && b.getStart().isBefore(localDateTime))
+                .max(Comparator.comparing(Booking::getEnd))
+                .orElseThrow();
+        Booking expectedNext = history.stream()
+                .filter(b -> b.getItem().equals(item) && !b.getStart().isBefore(localDateTime))
+                .min(Comparator.comparing(Booking::getStart))
+                .orElseThrow();
+
+        Assertions.assertEquals(4, actualPointers.size());
+        Assertions.assertTrue(actualPointers.stream().anyMatch(pointer -> pointer.getBookingId().equals(expectedLast.getId()) &&
+                pointer.getPointer().equals(ItemBookingPointer.LAST)));
+        Assertions.assertTrue(actualPointers.stream().anyMatch(pointer -> pointer.getBookingId().equals(expectedNext.getId()) &&
+                pointer.getPointer().equals(ItemBookingPointer.NEXT)));
+    }
 
-        booking.setStart(LocalDateTime.now().plusDays(3));
-        booking.setEnd(LocalDateTime.now().plusDays(4));
-        bookingTwo.setStart(LocalDateTime.now().plusDays(1));
-        bookingTwo.setEnd(LocalDateTime.now().plusDays(2));
+    @Test
+    void findBookingsAfter() {
+        LocalDateTime localDateTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Booking> history = new ArrayList<>();
+
+        for (int i = 0; i < 7; i++) {
+            history.add(Booking.builder()
+                    .user(booker)
+                    .item(i % 2 == 0 ? item : itemTwo)
+                    .status(Booking.Status.WAITING)
+                    .start(localDateTime.plusDays(i % 3))
+                    .end(localDateTime.plusDays(5))
+                    .build());
+        }
+        bookingRepository.saveAll(history);
+        history.sort(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed());
+
+        List<Booking> actualList = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<Booking> page;
+        do {
+            page = find(BookingQuery.of(booker.getId(), false)
+                    .after(cursor)
+                    .pageable(PageRequest.of(0, 3))
+                    .build());
+            actualList.addAll(page);
+            if (!page.isEmpty())
+                cursor = BookingCursor.of(page.get(page.size() - 1));
+        } while (page.size() == 3);
+
+        Assertions.assertEquals(history, actualList);
+
+        actualList = find(BookingQuery.of(owner.getId(), true)
+                .state(BookingState.FUTURE)
+                .pageable(PageRequest.of(0, 10))
+                .build());
+
+        Assertions.assertEquals(2, actualList.size());
+        Assertions.assertTrue(actualList.stream().allMatch(b -> b.getItem().equals(item) && b.getStart().isAfter(localDateTime)));
+    }
 
-        booking.setStatus(Booking.Status.APPROVED);
-        bookingTwo.setStatus(Booking.Status.APPROVED);
+    @Test
+    void findBookingsByStartWindowAndItems() {
+        LocalDateTime localDateTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Booking> history = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            history.add(Booking.builder()
+                    .user(booker)
+                    .item(i % 2 == 0 ? item : itemTwo)
+                    .status(i % 3 == 0 ? Booking.Status.REJECTED : Booking.Status.WAITING)
+                    .start(localDateTime.plusDays(i))
+                    .end(localDateTime.plusDays(i).plusHours(1))
+                    .build());
+        }
+        bookingRepository.saveAll(history);
+
+        List<Booking> actualList = find(BookingQuery.of(booker.getId(), false)
+                .startFrom(localDateTime.plusDays(1))
+                .startUntil(localDateTime.plusDays(6))
+                .itemsId(List.of(item.getId()))
+                .build());
+
+        Assertions.assertEquals(List.of(history.get(4), history.get(2)), actualList);
+
+        actualList = find(BookingQuery.of(booker.getId(), false)
+                .state(BookingState.REJECTED)
+                .startFrom(localDateTime.plusDays(1))
+                .startUntil(localDateTime.plusDays(6))
+                .build());
+
+        Assertions.assertEquals(List.of(history.get(3)), actualList);
+
+        actualList = find(BookingQuery.of(owner.getId(), true)
+                .itemsId(List.of(itemTwo.getId()))
+                .build());
+
+        Assertions.assertTrue(actualList.isEmpty());
+        Assertions.assertTrue(find(BookingQuery.of(booker.getId(), false)
+                .itemsId(List.of())
+                .build()).isEmpty());
+    }
 
+    @Test
+    void findBookingsSelectsTheShownColumns() {
         bookingRepository.save(booking);
-        bookingRepository.save(bookingTwo);
 
-        expectedBooking = bookingTwo;
-        actualBooking = bookingRepository.findNextBooking(itemTwo.getId());
+        BookingRow row = bookingRepository.findBookings(BookingQuery.of(owner.getId(), true).build()).get(0);
+
+        Assertions.assertEquals(booking.getId(), row.getBookingId());
+        Assertions.assertEquals(Booking.Status.WAITING, row.getStatus());
+        Assertions.assertEquals(booker.getId(), row.getBookerId());
+        Assertions.assertEquals("zima", row.getBookerName());
+        Assertions.assertEquals(item.getId(), row.getItemId());
+        Assertions.assertEquals("drill", row.getItemName());
+        Assertions.assertNull(row.getItemRequestId());
+        Assertions.assertEquals(owner.getId(), row.getOwnerId());
+        Assertions.assertEquals(0L, row.getBookingVersion());
+    }
 
-        Assertions.assertEquals(expectedBooking, actualBooking);
+    // the bookings the rows were selected from, in the order of the rows
+    private List<Booking> find(BookingQuery query) {
+        return bookingRepository.findBookings(query).stream()
+                .map(row -> bookingRepository.findById(row.getBookingId()).orElseThrow())
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,194 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingRow;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.cache.EntityCacheConfiguration;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DataJpaTest
+@Import(EntityCacheConfiguration.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingViewRepositoryTest {
+    @Autowired
+    private BookingViewRepository bookingViewRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    User owner;
+    User booker;
+    Item item;
+    LocalDateTime now;
+
+    Booking past;
+    Booking current;
+    Booking future;
+    Booking rejected;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+
+        owner = userRepository.save(User.builder()
+                .name("adam")
+                .email("smasher@gmail.com")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("zima")
+                .email("zimablue@gmail.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("drilling drill")
+                .user(owner)
+                .isAvailable(true)
+                .build());
+
+        past = save(now.minusDays(3), now.minusDays(2), Booking.Status.APPROVED);
+        current = save(now.minusDays(1), now.plusDays(1), Booking.Status.APPROVED);
+        future = save(now.plusDays(2), now.plusDays(3), Booking.Status.WAITING);
+        rejected = save(now.plusDays(4), now.plusDays(5), Booking.Status.REJECTED);
+
+        bookingViewRepository.insertBookings(List.of(past.getId(), current.getId(), future.getId(), rejected.getId()));
+        entityManager.clear();
+    }
+
+    @Test
+    void viewCarriesTheBookingItemAndBooker() {
+        BookingRow view = bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false)
+                .state(BookingState.CURRENT)
+                .build()).get(0);
+
+        Assertions.assertEquals(current.getId(), view.getBookingId());
+        Assertions.assertEquals(Booking.Status.APPROVED, view.getStatus());
+        Assertions.assertEquals(booker.getId(), view.getBookerId());
+        Assertions.assertEquals("zimablue@gmail.com", view.getBookerEmail());
+        Assertions.assertEquals(item.getId(), view.getItemId());
+        Assertions.assertEquals("drill", view.getItemName());
+        Assertions.assertEquals(owner.getId(), view.getOwnerId());
+        Assertions.assertEquals(0L, view.getBookingVersion());
+    }
+
+    @Test
+    void findBookingsByState() {
+        Assertions.assertEquals(ids(rejected, future, current, past), find(owner, true, BookingState.ALL));
+        Assertions.assertEquals(ids(current), find(owner, true, BookingState.CURRENT));
+        Assertions.assertEquals(ids(rejected, future), find(booker, false, BookingState.FUTURE));
+        Assertions.assertEquals(ids(past), find(booker, false, BookingState.PAST));
+        Assertions.assertEquals(ids(future), find(owner, true, BookingState.WAITING));
+        Assertions.assertEquals(ids(rejected), find(booker, false, BookingState.REJECTED));
+        Assertions.assertEquals(List.of(), find(owner, false, BookingState.ALL));
+    }
+
+    @Test
+    void findBookingsPage() {
+        List<Long> page = bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true)
+                        .pageable(PageRequest.of(1, 2))
+                        .build())
+                .stream()
+                .map(BookingRow::getBookingId)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(ids(current, past), page);
+    }
+
+    @Test
+    void findBookingsAfterCursor() {
+        List<Long> pages = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<BookingRow> page;
+        do {
+            page = bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true)
+                    .after(cursor)
+                    .pageable(PageRequest.of(0, 3))
+                    .build());
+            page.forEach(row -> pages.add(row.getBookingId()));
+            if (!page.isEmpty())
+                cursor = BookingCursor.of(page.get(page.size() - 1));
+        } while (page.size() == 3);
+
+        Assertions.assertEquals(ids(rejected, future, current, past), pages);
+    }
+
+    @Test
+    void updatesFollowTheWrites() {
+        Assertions.assertEquals(1, bookingRepository.approveIfWaiting(future.getId()));
+        bookingViewRepository.updateBookingStatus(future.getId());
+
+        Item changedItem = itemRepository.findById(item.getId()).orElseThrow();
+        changedItem.setName("hammer drill");
+        itemRepository.save(changedItem);
+        bookingViewRepository.updateItem(item.getId());
+
+        User changedBooker = userRepository.findById(booker.getId()).orElseThrow();
+        changedBooker.setName("zima blue");
+        userRepository.save(changedBooker);
+        bookingViewRepository.updateBooker(booker.getId());
+        entityManager.clear();
+
+        BookingRow view = bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).build()).stream()
+                .filter(found -> found.getBookingId().equals(future.getId()))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(Booking.Status.APPROVED, view.getStatus());
+        Assertions.assertEquals(1L, view.getBookingVersion());
+        Assertions.assertEquals("hammer drill", view.getItemName());
+        Assertions.assertEquals(1L, view.getItemVersion());
+        Assertions.assertEquals("zima blue", view.getBookerName());
+        Assertions.assertEquals(1L, view.getBookerVersion());
+    }
+
+    @Test
+    void insertMissingFillsTheGaps() {
+        Booking unlisted = save(now.plusDays(6), now.plusDays(7), Booking.Status.WAITING);
+
+        Assertions.assertEquals(1, bookingViewRepository.insertMissing());
+        Assertions.assertEquals(0, bookingViewRepository.insertMissing());
+        Assertions.assertEquals(unlisted.getId(), find(booker, false, BookingState.ALL).get(0));
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, Booking.Status status) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .user(booker)
+                .item(item)
+                .status(status)
+                .build());
+    }
+
+    private List<Long> find(User user, boolean isOwner, BookingState state) {
+        return bookingViewRepository.findBookings(BookingQuery.of(user.getId(), isOwner).state(state).build()).stream()
+                .map(BookingRow::getBookingId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(Booking... bookings) {
+        return Arrays.stream(bookings).map(Booking::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.exceptions.AcceptBookingException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingApprovalConcurrencyTest {
+    static final int THREADS = 16;
+    static final int ROUNDS = 10;
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+
+    User owner;
+    User booker;
+    Item item;
+    LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("zima")
+                .email("zimablue@gmail.com")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("miscuzi")
+                .email("miscuzimiscuzi@gmail.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("drilling drill")
+                .user(owner)
+                .isAvailable(true)
+                .build());
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @Test
+    void concurrentDecisionsOnOneBookingMakeExactlyOneTransition() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            BookingResponseDto booking = bookingService.bookItem(BookingRequestDto.builder()
+                    .itemId(item.getId())
+                    .bookerId(booker.getId())
+                    .start(start.plusDays(round * 2L))
+                    .end(start.plusDays(round * 2L + 1))
+                    .build());
+            long version = bookingRepository.findById(booking.getId()).orElseThrow().getVersion();
+
+            List<Outcome> outcomes = race(THREADS, thread -> bookingService
+                    .acceptOrDeclineBooking(owner.getId(), booking.getId(), thread % 2 == 0));
+
+            List<Outcome> winners = new ArrayList<>();
+            for (Outcome outcome : outcomes) {
+                if (outcome.error == null)
+                    winners.add(outcome);
+                else
+                    Assertions.assertInstanceOf(AcceptBookingException.class, outcome.error);
+            }
+            Assertions.assertEquals(1, winners.size());
+
+            Booking decided = bookingRepository.findById(booking.getId()).orElseThrow();
+            Assertions.assertEquals(winners.get(0).response.getStatus(), decided.getStatus().name());
+            Assertions.assertEquals(version + 1, decided.getVersion());
+        }
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsApproveOnlyOne() throws Exception {
+        // written directly, the service itself does not accept an overlapping request
+        List<Long> bookingsId = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingsId.add(bookingRepository.save(Booking.builder()
+                    .start(start.plusHours(i))
+                    .end(start.plusDays(1).plusHours(i))
+                    .user(booker)
+                    .item(item)
+                    .status(Booking.Status.WAITING)
+                    .build()).getId());
+        }
+
+        List<Outcome> outcomes = race(THREADS, thread -> bookingService
+                .acceptOrDeclineBooking(owner.getId(), bookingsId.get(thread), true));
+
+        long approved = outcomes.stream().filter(outcome -> outcome.error == null).count();
+        for (Outcome outcome : outcomes) {
+            if (outcome.error != null)
+                Assertions.assertInstanceOf(AcceptBookingException.class, outcome.error);
+        }
+        Assertions.assertEquals(1, approved);
+        Assertions.assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == Booking.Status.APPROVED)
+                .count());
+    }
+
+    private static List<Outcome> race(int threads, Decision decision) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    try {
+                        return new Outcome(decision.apply(thread), null);
+                    } catch (RuntimeException e) {
+                        return new Outcome(null, e);
+                    }
+                }));
+            }
+
+            ready.await();
+            go.countDown();
+
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures)
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Decision {
+        BookingResponseDto apply(int thread);
+    }
+
+    @RequiredArgsConstructor
+    private static class Outcome {
+        private final BookingResponseDto response;
+        private final RuntimeException error;
+    }
+}
@@ -4,11 +4,16 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.exceptions.BookingConflictException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
@@ -20,7 +25,9 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Transactional
 @SpringBootTest
@@ -30,6 +37,8 @@ class BookingServiceIntegrationTest {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingService bookingService;
+    @SpyBean
+    BookingAvailabilityEngine availabilityEngine;
 
     Item item;
     User owner;
@@ -82,6 +91,60 @@ class BookingServiceIntegrationTest {
         Assertions.assertEquals(itemDto, bookingResponseDto.getItem());
     }
 
+    @Test
+    void bookItems() {
+        userRepository.save(owner);
+        UserDto bookerDto = UserMapper.userDtoOf(userRepository.save(booker));
+        itemRepository.save(item);
+        BookingRequestDto laterDto = BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(localDateTime.plusDays(3))
+                .end(localDateTime.plusDays(4))
+                .build();
+        BookingRequestDto overlappingDto = BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(localDateTime.plusDays(1).plusHours(12))
+                .end(localDateTime.plusDays(3))
+                .build();
+
+        List<BookingBatchResultDto> results = bookingService.bookItems(bookerDto.getId(),
+                List.of(bookingDto, laterDto, overlappingDto));
+
+        Assertions.assertEquals(200, results.get(0).getStatus());
+        Assertions.assertEquals(200, results.get(1).getStatus());
+        Assertions.assertEquals(409, results.get(2).getStatus());
+        Assertions.assertNotEquals(results.get(0).getBooking().getId(), results.get(1).getBooking().getId());
+        Assertions.assertEquals(List.of(results.get(1).getBooking().getId(), results.get(0).getBooking().getId()),
+                bookingService.getUserBookings(bookerDto.getId(), "ALL", false, null, null).stream()
+                        .map(BookingResponseDto::getId)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void bookItemsDropsOnlyTheEntryTakenSinceTheCheck() {
+        userRepository.save(owner);
+        UserDto bookerDto = UserMapper.userDtoOf(userRepository.save(booker));
+        itemRepository.save(item);
+        BookingRequestDto laterDto = BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(localDateTime.plusDays(3))
+                .end(localDateTime.plusDays(4))
+                .build();
+        // as if a single booking of the later interval was reserved after the batch was checked
+        Mockito
+                .doThrow(new BookingConflictException("Item is already booked"))
+                .when(availabilityEngine).reserve(Mockito.argThat(booking -> booking.getStart().equals(laterDto.getStart())));
+
+        List<BookingBatchResultDto> results = bookingService.bookItems(bookerDto.getId(), List.of(bookingDto, laterDto));
+
+        Assertions.assertEquals(200, results.get(0).getStatus());
+        Assertions.assertEquals(409, results.get(1).getStatus());
+        Assertions.assertEquals(List.of(results.get(0).getBooking().getId()),
+                bookingService.getUserBookings(bookerDto.getId(), "ALL", false, null, null).stream()
+                        .map(BookingResponseDto::getId)
+                        .collect(Collectors.toList()));
+    }
+
     @Test
     void acceptOrDeclineBooking() {
         UserDto ownerDto = UserMapper.userDtoOf(userRepository.save(owner));
@@ -136,8 +199,9 @@ class BookingServiceIntegrationTest {
 
         Assertions.assertEquals(actualBookingList.size(), 1);
         Assertions.assertEquals(bookingResponseDto.getId(), actualBookingList.get(0).getId());
-        Assertions.assertEquals(bookingResponseDto.getStart(), actualBookingList.get(0).getStart());
-        Assertions.assertEquals(bookingResponseDto.getEnd(), actualBookingList.get(0).getEnd());
+        // listings come from booking_views, so the times carry the column precision
+        Assertions.assertEquals(0, ChronoUnit.MICROS.between(bookingResponseDto.getStart(), actualBookingList.get(0).getStart()));
+        Assertions.assertEquals(0, ChronoUnit.MICROS.between(bookingResponseDto.getEnd(), actualBookingList.get(0).getEnd()));
         Assertions.assertEquals(bookerDto, actualBookingList.get(0).getBooker());
         Assertions.assertEquals(itemDto, actualBookingList.get(0).getItem());
     }
@@ -8,16 +8,27 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityEngine;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingRow;
 import ru.practicum.shareit.booking.exceptions.AcceptBookingException;
+import ru.practicum.shareit.booking.exceptions.BookingConflictException;
 import ru.practicum.shareit.booking.exceptions.BookingNotFoundException;
 import ru.practicum.shareit.booking.exceptions.BookingValidationException;
 import ru.practicum.shareit.booking.exceptions.ItemBookingException;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.pointer.ItemBookingPointerTracker;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.exception.PaginationDataException;
@@ -27,6 +38,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -41,6 +53,14 @@ class BookingServiceUnitTest {
     UserRepository userRepository;
     @Mock
     ItemRepository itemRepository;
+    @Mock
+    BookingViewRepository bookingViewRepository;
+    @Mock
+    BookingAvailabilityEngine availabilityEngine;
+    @Mock
+    ItemBookingPointerTracker pointerTracker;
+    @Mock
+    BookingLifecycleScheduler lifecycleScheduler;
 
     BookingRequestDto bookingRequestDto;
 
@@ -110,6 +130,9 @@ class BookingServiceUnitTest {
         Mockito
                 .when(itemRepository.findById(item.getId()))
                 .thenReturn(Optional.ofNullable(item));
+        Mockito
+                .when(availabilityEngine.isAvailable(item.getId(), bookingRequestDto.getStart(), bookingRequestDto.getEnd()))
+                .thenReturn(true);
         Mockito
                 .when(bookingRepository.save(booking))
                 .thenReturn(bookingSaved);
@@ -118,7 +141,25 @@ class BookingServiceUnitTest {
         actualResponseDto = bookingService.bookItem(bookingRequestDto);
 
         Assertions.assertEquals(expectedResponseDto, actualResponseDto);
+        Mockito.verify(availabilityEngine).reserve(bookingSaved);
+        Mockito.verify(lifecycleScheduler).track(bookingSaved);
+    }
 
+    @Test
+    void bookItemConflict() {
+        Mockito
+                .when(userRepository.findById(booker.getId()))
+                .thenReturn(Optional.ofNullable(booker));
+        Mockito
+                .when(itemRepository.findById(item.getId()))
+                .thenReturn(Optional.ofNullable(item));
+        Mockito
+                .when(availabilityEngine.isAvailable(item.getId(), bookingRequestDto.getStart(), bookingRequestDto.getEnd()))
+                .thenReturn(false);
+
+        Assertions.assertThrows(BookingConflictException.class,
+                () -> bookingService.bookItem(bookingRequestDto));
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
 
     }
 
@@ -164,23 +205,171 @@ class BookingServiceUnitTest {
         Assertions.assertEquals(expectedMessage, actualMessage);
     }
 
+    @Test
+    void bookItems() {
+        Item unavailableItem = Item.builder()
+                .id(2L)
+                .name("Saw")
+                .user(owner)
+                .isAvailable(false)
+                .build();
+        BookingRequestDto conflicting = BookingRequestDto.builder()
+                .itemId(1L)
+                .start(bookingRequestDto.getStart().plusDays(1))
+                .end(bookingRequestDto.getEnd().plusDays(1))
+                .build();
+        BookingRequestDto missingItem = BookingRequestDto.builder()
+                .itemId(3L)
+                .start(bookingRequestDto.getStart())
+                .end(bookingRequestDto.getEnd())
+                .build();
+        BookingRequestDto unavailable = BookingRequestDto.builder()
+                .itemId(2L)
+                .start(bookingRequestDto.getStart())
+                .end(bookingRequestDto.getEnd())
+                .build();
+        BookingRequestDto reversed = BookingRequestDto.builder()
+                .itemId(1L)
+                .start(bookingRequestDto.getEnd())
+                .end(bookingRequestDto.getStart())
+                .build();
+
+        Mockito
+                .when(userRepository.findById(booker.getId()))
+                .thenReturn(Optional.ofNullable(booker));
+        Mockito
+                .when(itemRepository.findAllWithOwnerByIds(any()))
+                .thenReturn(List.of(item, unavailableItem));
+        Mockito
+                .when(availabilityEngine.isAvailable(Mockito.<List<Booking>>any()))
+                .thenReturn(List.of(true, false));
+
+        List<BookingBatchResultDto> results = bookingService.bookItems(booker.getId(),
+                List.of(bookingRequestDto, conflicting, missingItem, unavailable, reversed));
+
+        Assertions.assertEquals(List.of(200, 409, 404, 400, 400),
+                results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()));
+        Assertions.assertEquals(BookingMapper.responseDtoOf(booking), results.get(0).getBooking());
+        Assertions.assertEquals("Item id 3 not found", results.get(2).getError());
+        Assertions.assertEquals("Item id 2 is unavailable", results.get(3).getError());
+        Assertions.assertEquals("start/end data is incorrect", results.get(4).getError());
+        Mockito.verify(bookingRepository).saveAll(List.of(booking));
+        Mockito.verify(availabilityEngine).reserve(booking);
+    }
+
+    @Test
+    void bookItemsFailsOnlyTheEntryTakenSinceTheCheck() {
+        BookingRequestDto later = BookingRequestDto.builder()
+                .itemId(1L)
+                .start(bookingRequestDto.getStart().plusDays(10))
+                .end(bookingRequestDto.getEnd().plusDays(10))
+                .build();
+
+        Mockito
+                .when(userRepository.findById(booker.getId()))
+                .thenReturn(Optional.ofNullable(booker));
+        Mockito
+                .when(itemRepository.findAllWithOwnerByIds(any()))
+                .thenReturn(List.of(item));
+        Mockito
+                .when(availabilityEngine.isAvailable(Mockito.<List<Booking>>any()))
+                .thenReturn(List.of(true, true));
+        // a single booking of the later interval is reserved between the check and the reservation
+        Mockito
+                .doAnswer(invocation -> {
+                    if (invocation.<Booking>getArgument(0).getStart().equals(later.getStart()))
+                        throw new BookingConflictException("Item id 1 is already booked");
+                    return null;
+                })
+                .when(availabilityEngine).reserve(any());
+
+        List<BookingBatchResultDto> results = bookingService.bookItems(booker.getId(), List.of(bookingRequestDto, later));
+
+        Assertions.assertEquals(List.of(200, 409),
+                results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()));
+        Mockito.verify(bookingRepository).delete(Mockito.argThat(booking -> booking.getStart().equals(later.getStart())));
+        Mockito.verify(lifecycleScheduler).track(booking);
+        Mockito.verifyNoMoreInteractions(lifecycleScheduler);
+    }
+
     @Test
     void acceptOrDeclineBooking() {
         BookingResponseDto expectedResponse;
         BookingResponseDto actualResponse;
+        Booking bookingApproved = Booking.builder()
+                .id(1L)
+                .start(bookingRequestDto.getStart())
+                .end(bookingRequestDto.getEnd())
+                .user(booker)
+                .item(item)
+                .status(Booking.Status.APPROVED)
+                .build();
 
         Mockito
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
                 .when(bookingRepository.findById(bookingSaved.getId()))
-                .thenReturn(Optional.ofNullable(bookingSaved));
+                .thenReturn(Optional.ofNullable(bookingSaved), Optional.of(bookingApproved));
+        Mockito
+                .when(bookingRepository.approveIfWaiting(bookingSaved.getId()))
+                .thenReturn(1);
 
         actualResponse = bookingService.acceptOrDeclineBooking(owner.getId(), bookingSaved.getId(), true);
-        bookingSaved.setStatus(Booking.Status.APPROVED);
-        expectedResponse = BookingMapper.responseDtoOf(bookingSaved);
+        expectedResponse = BookingMapper.responseDtoOf(bookingApproved);
 
         Assertions.assertEquals(expectedResponse, actualResponse);
+        Mockito.verify(itemRepository).lockById(item.getId());
+        Mockito.verify(pointerTracker).refresh(item.getId());
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void declineBookingReleasesItsInterval() {
+        Booking bookingRejected = Booking.builder()
+                .id(1L)
+                .start(bookingRequestDto.getStart())
+                .end(bookingRequestDto.getEnd())
+                .user(booker)
+                .item(item)
+                .status(Booking.Status.REJECTED)
+                .build();
+
+        Mockito
+                .when(userRepository.existsById(owner.getId()))
+                .thenReturn(true);
+        Mockito
+                .when(bookingRepository.findById(bookingSaved.getId()))
+                .thenReturn(Optional.ofNullable(bookingSaved), Optional.of(bookingRejected));
+        Mockito
+                .when(bookingRepository.rejectIfWaiting(bookingSaved.getId()))
+                .thenReturn(1);
+
+        BookingResponseDto actualResponse = bookingService.acceptOrDeclineBooking(owner.getId(), bookingSaved.getId(), false);
+
+        Assertions.assertEquals("REJECTED", actualResponse.getStatus());
+        Mockito.verify(availabilityEngine).release(bookingRejected);
+        Mockito.verify(itemRepository, Mockito.never()).lockById(anyLong());
+        Mockito.verifyNoInteractions(pointerTracker);
+    }
+
+    @Test
+    void acceptOrDeclineBookingLostToAConcurrentTransition() {
+        Mockito
+                .when(userRepository.existsById(owner.getId()))
+                .thenReturn(true);
+        Mockito
+                .when(bookingRepository.findById(bookingSaved.getId()))
+                .thenReturn(Optional.ofNullable(bookingSaved));
+        Mockito
+                .when(bookingRepository.approveIfWaiting(bookingSaved.getId()))
+                .thenReturn(0);
+
+        Exception exception = Assertions.assertThrows(AcceptBookingException.class,
+                () -> bookingService.acceptOrDeclineBooking(owner.getId(), bookingSaved.getId(), true));
+
+        Assertions.assertEquals("Unable to approve booking", exception.getMessage());
+        Mockito.verifyNoInteractions(availabilityEngine, pointerTracker);
     }
 
     @Test
@@ -305,8 +494,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllByOwner(owner.getId(), Pageable.unpaged()))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true).state(BookingState.ALL).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(owner.getId(), "ALL", true, null, null);
@@ -317,8 +506,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(booker.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllByUser(booker.getId(), Pageable.unpaged()))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).state(BookingState.ALL).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(booker.getId(), "ALL", false, null, null);
@@ -335,8 +524,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllCurrentBookingsByOwner(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true).state(BookingState.CURRENT).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(owner.getId(), "CURRENT", true, null, null);
@@ -347,8 +536,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(booker.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllCurrentBookingsByUser(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).state(BookingState.CURRENT).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(booker.getId(), "CURRENT", false, null, null);
@@ -365,8 +554,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllFutureBookingsByOwner(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true).state(BookingState.FUTURE).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(owner.getId(), "FUTURE", true, null, null);
@@ -377,8 +566,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(booker.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllFutureBookingsByUser(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).state(BookingState.FUTURE).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(booker.getId(), "FUTURE", false, null, null);
@@ -395,8 +584,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllPastBookingsByOwner(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true).state(BookingState.PAST).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(owner.getId(), "PAST", true, null, null);
@@ -407,8 +596,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(booker.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllPastBookingsByUser(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).state(BookingState.PAST).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(booker.getId(), "PAST", false, null, null);
@@ -425,8 +614,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllByItemUserIdAndStatusIsOrderByStartDesc(anyLong(), any(Booking.Status.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true).state(BookingState.WAITING).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(owner.getId(), "WAITING", true, null, null);
@@ -437,8 +626,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(booker.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllByUserIdIsAndStatusIsOrderByStartDesc(anyLong(), any(Booking.Status.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).state(BookingState.WAITING).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(booker.getId(), "WAITING", false, null, null);
@@ -455,8 +644,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllByItemUserIdAndStatusIsOrderByStartDesc(anyLong(), any(Booking.Status.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(owner.getId(), true).state(BookingState.REJECTED).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(owner.getId(), "REJECTED", true, null, null);
@@ -467,8 +656,8 @@ class BookingServiceUnitTest {
                 .when(userRepository.existsById(booker.getId()))
                 .thenReturn(true);
         Mockito
-                .when(bookingRepository.findAllByUserIdIsAndStatusIsOrderByStartDesc(anyLong(), any(Booking.Status.class), any(Pageable.class)))
-                .thenReturn(List.of(bookingSaved));
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false).state(BookingState.REJECTED).build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
 
         expectedList = BookingMapper.responseDtoListOf(List.of(bookingSaved));
         actualList = bookingService.getUserBookings(booker.getId(), "REJECTED", false, null, null);
@@ -507,4 +696,66 @@ class BookingServiceUnitTest {
 
         Assertions.assertEquals(expectedMessage, actualMessage);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserBookingsPage() {
+        BookingPageDto actualPage;
+
+        Mockito
+                .when(userRepository.existsById(booker.getId()))
+                .thenReturn(true);
+        Mockito
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false)
+                        .pageable(PageRequest.of(0, 1))
+                        .build()))
+                .thenReturn(List.of(rowOf(bookingSaved)));
+
+        actualPage = bookingService.getUserBookingsPage(booker.getId(), "ALL", false, "", 1);
+
+        Assertions.assertEquals(BookingMapper.responseDtoListOf(List.of(bookingSaved)), actualPage.getBookings());
+        Assertions.assertEquals(BookingCursor.of(bookingSaved), BookingCursor.decode(actualPage.getNextCursor()));
+
+        Mockito
+                .when(bookingViewRepository.findBookings(BookingQuery.of(booker.getId(), false)
+                        .after(BookingCursor.of(bookingSaved))
+                        .pageable(PageRequest.of(0, 1))
+                        .build()))
+                .thenReturn(List.of());
+
+        actualPage = bookingService.getUserBookingsPage(booker.getId(), "ALL", false, actualPage.getNextCursor(), 1);
+
+        Assertions.assertTrue(actualPage.getBookings().isEmpty());
+        Assertions.assertNull(actualPage.getNextCursor());
+    }
+
+    @Test
+    void getUserBookingsPageInvalidCursor() {
+        Mockito
+                .when(userRepository.existsById(booker.getId()))
+                .thenReturn(true);
+
+        Assertions.assertThrows(PaginationDataException.class,
+                () -> bookingService.getUserBookingsPage(booker.getId(), "ALL", false, "not a cursor", 10));
+        Assertions.assertThrows(PaginationDataException.class,
+                () -> bookingService.getUserBookingsPage(booker.getId(), "ALL", false, "", 0));
+        Assertions.assertThrows(BookingValidationException.class,
+                () -> bookingService.getUserBookingsPage(booker.getId(), "UNKNOWN", false, "", 10));
+    }
+
+    private static BookingRow rowOf(Booking booking) {
+        return BookingRow.builder()
+                .bookingId(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .bookerId(booking.getUser().getId())
+                .bookerName(booking.getUser().getName())
+                .bookerEmail(booking.getUser().getEmail())
+                .itemId(booking.getItem().getId())
+                .itemName(booking.getItem().getName())
+                .itemDescription(booking.getItem().getDescription())
+                .itemAvailable(booking.getItem().getIsAvailable())
+                .ownerId(booking.getItem().getUser().getId())
+                .build();
+    }
+}
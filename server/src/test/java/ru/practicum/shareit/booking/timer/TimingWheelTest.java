@@ -0,0 +1,97 @@
+package ru.practicum.shareit.booking.timer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class TimingWheelTest {
+    static final long TICK = 100;
+    static final int SIZE = 8;
+    static final int LEVELS = 2;
+
+    @Test
+    void taskFiresOnTheTickOfItsDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, LEVELS, 0);
+        wheel.schedule("drill", 350);
+
+        Assertions.assertEquals(List.of(), wheel.advanceTo(399));
+        Assertions.assertEquals(List.of("drill"), wheel.advanceTo(400));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void taskOnAnUpperLevelCascadesDownToItsTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, LEVELS, 0);
+        wheel.schedule("tent", TICK * (SIZE * 5 + 3));
+
+        Assertions.assertEquals(List.of(), wheel.advanceTo(TICK * (SIZE * 5 + 2)));
+        Assertions.assertEquals(1, wheel.size());
+        Assertions.assertEquals(List.of("tent"), wheel.advanceTo(TICK * (SIZE * 5 + 3)));
+    }
+
+    @Test
+    void taskBeyondTheTopLevelWaitsInOverflow() {
+        long span = TICK * SIZE * SIZE;
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, LEVELS, 0);
+        wheel.schedule("kayak", span * 3 + TICK * 9);
+
+        Assertions.assertEquals(List.of(), wheel.advanceTo(span * 3 + TICK * 8));
+        Assertions.assertEquals(1, wheel.size());
+        Assertions.assertEquals(List.of("kayak"), wheel.advanceTo(span * 3 + TICK * 9));
+    }
+
+    @Test
+    void overdueTaskFiresOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, LEVELS, 1_000);
+        wheel.schedule("ladder", 500);
+
+        Assertions.assertEquals(List.of("ladder"), wheel.advanceTo(1_100));
+    }
+
+    @Test
+    void overdueTaskOnTheLastTickOfATurnFiresOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, LEVELS, TICK * (SIZE - 1));
+        wheel.schedule("ladder", 0);
+
+        Assertions.assertEquals(List.of("ladder"), wheel.advanceTo(TICK * SIZE));
+    }
+
+    @Test
+    void advanceOverSeveralTurnsReturnsTasksInDeadlineOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, LEVELS, 0);
+        wheel.schedule("fourth", TICK * 200);
+        wheel.schedule("third", TICK * 20);
+        wheel.schedule("first", TICK * 3);
+        wheel.schedule("second", TICK * 9);
+
+        Assertions.assertEquals(List.of("first", "second", "third", "fourth"), wheel.advanceTo(TICK * 300));
+    }
+
+    @Test
+    void everyTaskFiresExactlyOnItsTick() {
+        Random random = new Random(42);
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, SIZE, LEVELS, 0);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            long deadlineTick = 1 + random.nextInt(SIZE * SIZE * 4);
+            deadlines.add(deadlineTick);
+            wheel.schedule(deadlineTick, deadlineTick * TICK);
+        }
+
+        for (long tick = 1; tick <= SIZE * SIZE * 4; tick++) {
+            for (long fired : wheel.advanceTo(tick * TICK))
+                Assertions.assertEquals(tick, fired);
+        }
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void invalidWheel() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(0, SIZE, LEVELS, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(TICK, 1, LEVELS, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(TICK, SIZE, 0, 0));
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Runs without a test transaction so the cache sees real commits; the separate database keeps the committed
+ * rows away from other test contexts.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entity-cache",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EntityCacheIntegrationTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    UserDto owner;
+    ItemDto item;
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(UserDto.builder().name("zima").email("zimablue@gmail.com").build());
+        item = itemService.addItem(ItemDto.builder()
+                .userId(owner.getId())
+                .name("drill")
+                .description("drilly-drilly-drill")
+                .available(true)
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedLookupsSkipDatabase() {
+        UserDto other = userService.createUser(UserDto.builder().name("ivan").email("skvorzov@gmail.com").build());
+        statistics.clear();
+
+        userService.getUser(other.getId());
+        long firstLookup = statistics.getPrepareStatementCount();
+        userService.getUser(other.getId());
+        userService.getUser(other.getId());
+
+        Assertions.assertEquals(1, firstLookup);
+        Assertions.assertEquals(firstLookup, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(2.0, meterRegistry.get("cache.gets")
+                .tag("cache", "users").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void patchUserEvictsCachedUser() {
+        userService.getUser(owner.getId());
+        userService.patchUser(UserDto.builder().id(owner.getId()).name("ivan").build());
+
+        Assertions.assertEquals("ivan", userService.getUser(owner.getId()).getName());
+        Assertions.assertEquals("zimablue@gmail.com", userService.getUser(owner.getId()).getEmail());
+    }
+
+    @Test
+    void updateItemEvictsCachedItem() {
+        itemService.getItem(item.getId(), owner.getId());
+        itemService.updateItem(ItemDto.builder().id(item.getId()).userId(owner.getId()).available(false).build());
+
+        ItemDto updated = itemService.getItem(item.getId(), owner.getId());
+
+        Assertions.assertEquals(false, updated.getAvailable());
+        Assertions.assertEquals("drill", updated.getName());
+    }
+
+    @Test
+    void deleteUserEvictsCachedUser() {
+        UserDto other = userService.createUser(UserDto.builder().name("ivan").email("skvorzov@gmail.com").build());
+        userService.getUser(other.getId());
+        userService.deleteUser(other.getId());
+
+        Assertions.assertThrows(RuntimeException.class, () -> userService.getUser(other.getId()));
+    }
+}
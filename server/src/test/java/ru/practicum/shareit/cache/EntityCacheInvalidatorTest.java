@@ -0,0 +1,130 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Two invalidators sharing one in-process channel stand in for two server instances.
+ */
+class EntityCacheInvalidatorTest {
+    InProcessCacheInvalidationChannel channel;
+    Node first;
+    Node second;
+    List<CacheInvalidation> published;
+
+    @BeforeEach
+    void setUp() {
+        channel = new InProcessCacheInvalidationChannel();
+        published = new ArrayList<>();
+        channel.subscribe(published::add);
+
+        first = new Node(channel);
+        second = new Node(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void evictUserReachesOtherInstances() {
+        first.warmUp();
+        second.warmUp();
+
+        first.invalidator.evictUser(1L);
+
+        Assertions.assertEquals(1, first.userCache.size());
+        Assertions.assertEquals(1, second.userCache.size());
+        Assertions.assertEquals(1, published.size());
+    }
+
+    @Test
+    void evictUserEvictsOwnedItems() {
+        second.warmUp();
+
+        first.invalidator.evictUser(1L);
+
+        Assertions.assertEquals(1, second.itemCache.size());
+        Assertions.assertTrue(second.itemCache.get(2L, id -> Optional.empty()).isPresent());
+    }
+
+    @Test
+    void evictItemKeepsUsers() {
+        second.warmUp();
+
+        first.invalidator.evictItem(1L);
+
+        Assertions.assertEquals(2, second.userCache.size());
+        Assertions.assertEquals(1, second.itemCache.size());
+    }
+
+    @Test
+    void invalidationIsPublishedAfterCommit() {
+        second.warmUp();
+        TransactionSynchronizationManager.initSynchronization();
+
+        first.invalidator.evictItem(1L);
+
+        Assertions.assertTrue(published.isEmpty());
+        Assertions.assertEquals(2, second.itemCache.size());
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        Assertions.assertEquals(1, published.size());
+        Assertions.assertEquals(1, second.itemCache.size());
+    }
+
+    @Test
+    void rolledBackChangeIsNotPublished() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        first.invalidator.evictItem(1L);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Assertions.assertTrue(published.isEmpty());
+    }
+
+    private void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static class Node {
+        final EntityCache<User> userCache = new EntityCache<>(EntityCacheInvalidator.USERS, 10, Duration.ofMinutes(10),
+                EntityCacheConfiguration::snapshotOf);
+        final EntityCache<Item> itemCache = new EntityCache<>(EntityCacheInvalidator.ITEMS, 10, Duration.ofMinutes(10),
+                EntityCacheConfiguration::snapshotOf);
+        final EntityCacheInvalidator invalidator;
+
+        Node(CacheInvalidationChannel channel) {
+            invalidator = new EntityCacheInvalidator(userCache, itemCache, channel);
+            invalidator.subscribe();
+        }
+
+        // user 1 owns item 1, user 2 owns item 2
+        void warmUp() {
+            for (long id = 1; id <= 2; id++) {
+                User owner = new User(id, "user" + id + "@mail.ru", "user " + id, null);
+                Item item = new Item(id, owner, "item " + id, "description", true, null, null);
+
+                userCache.get(id, userId -> Optional.of(owner));
+                itemCache.get(id, itemId -> Optional.of(item));
+            }
+        }
+    }
+}
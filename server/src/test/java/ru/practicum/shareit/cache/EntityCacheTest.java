@@ -0,0 +1,188 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class EntityCacheTest {
+    MutableClock clock;
+    EntityCache<User> cache;
+    AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        cache = new EntityCache<>("users", 2, Duration.ofMinutes(10), EntityCacheConfiguration::snapshotOf, clock);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void hitReturnsCopyWithoutLoading() {
+        User first = cache.get(1L, this::load).orElseThrow();
+        first.setName("changed");
+        User second = cache.get(1L, this::load).orElseThrow();
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals("user 1", second.getName());
+        Assertions.assertNotSame(first, second);
+    }
+
+    @Test
+    void missReturnsCopyOfTheLoadedEntity() {
+        User loaded = new User(1L, "user1@mail.com", "user 1", 0L);
+
+        User first = cache.get(1L, id -> Optional.of(loaded)).orElseThrow();
+
+        Assertions.assertNotSame(loaded, first);
+        Assertions.assertEquals(loaded, first);
+    }
+
+    @Test
+    void missingEntityIsNotCached() {
+        Assertions.assertTrue(cache.get(1L, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        Assertions.assertTrue(cache.get(1L, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void entryExpiresAfterTtl() {
+        cache.get(1L, this::load);
+        clock.advance(Duration.ofMinutes(10));
+        cache.get(1L, this::load);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedWhenFull() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(1L, this::load);
+        cache.get(3L, this::load);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(4, loads.get());
+    }
+
+    @Test
+    void evictIfRemovesMatchingEntries() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.evictIf(user -> user.getId() == 1L);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        Assertions.assertEquals(3, loads.get());
+    }
+
+    @Test
+    void valueLoadedInTransactionIsCachedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.get(1L, this::load);
+
+        Assertions.assertEquals(0, cache.size());
+
+        completeTransaction(true);
+
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    void valueLoadedInRolledBackTransactionIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.get(1L, this::load);
+        completeTransaction(false);
+
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void valueEvictedBeforeCommitIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.get(1L, this::load);
+        cache.evict(1L);
+        completeTransaction(true);
+
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void metrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(3L, this::load);
+
+        Assertions.assertEquals(2.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(3.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        Assertions.assertEquals(3.0, registry.get("cache.puts").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("cache.evictions").functionCounter().count());
+        Assertions.assertEquals(2.0, registry.get("cache.size").tag("cache", "users").gauge().value());
+    }
+
+    private Optional<User> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(new User(id, "user" + id + "@mail.ru", "user " + id, null));
+    }
+
+    private void completeTransaction(boolean committed) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (committed)
+                synchronization.afterCommit();
+            synchronization.afterCompletion(committed ?
+                    TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2022-08-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.etag;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ConditionalGetIntegrationTest {
+    private final MockMvc mvc;
+    private final ObjectMapper mapper;
+
+    @Test
+    void userTagChangesWithItsVersion() throws Exception {
+        long userId = create("/users", null, Map.of("name", "zima", "email", "zimablue@gmail.com"));
+
+        String etag = etagOf(mvc.perform(get("/users/{userId}", userId)).andReturn());
+
+        mvc.perform(get("/users/{userId}", userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mvc.perform(patch("/users/{userId}", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(Map.of("name", "ivan"))))
+                .andExpect(status().isOk());
+
+        MvcResult changed = mvc.perform(get("/users/{userId}", userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("ivan"))
+                .andReturn();
+        Assertions.assertNotEquals(etag, etagOf(changed));
+    }
+
+    @Test
+    void bookingListTagChangesWhenABookingIsApproved() throws Exception {
+        long ownerId = create("/users", null, Map.of("name", "zima", "email", "zimablue@gmail.com"));
+        long bookerId = create("/users", null, Map.of("name", "ivan", "email", "ivan@gmail.com"));
+        long itemId = create("/items", ownerId, Map.of("name", "drill", "description", "drill", "available", true));
+        long bookingId = create("/bookings", bookerId, Map.of("itemId", itemId,
+                "start", LocalDateTime.now().plusDays(1).toString(), "end", LocalDateTime.now().plusDays(2).toString()));
+
+        String etag = etagOf(mvc.perform(get("/bookings").header("X-Sharer-User-Id", bookerId)).andReturn());
+
+        mvc.perform(get("/bookings").header("X-Sharer-User-Id", bookerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/items/{itemId}", itemId).header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk());
+
+        mvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("approved", "true"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/bookings").header("X-Sharer-User-Id", bookerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPROVED"));
+    }
+
+    private long create(String path, Long userId, Map<String, Object> body) throws Exception {
+        var request = post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(body));
+        if (userId != null)
+            request.header("X-Sharer-User-Id", userId);
+
+        MvcResult result = mvc.perform(request).andExpect(status().isOk()).andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private static String etagOf(MvcResult result) {
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+        return etag;
+    }
+}
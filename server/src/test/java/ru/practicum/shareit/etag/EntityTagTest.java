@@ -0,0 +1,25 @@
+package ru.practicum.shareit.etag;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class EntityTagTest {
+    @Test
+    void sameVersionsGiveTheSameStrongTag() {
+        String tag = EntityTag.of("item").add(1L, 0L).add(2L, 3L).value();
+
+        Assertions.assertEquals(tag, EntityTag.of("item").add(1L, 0L).add(2L, 3L).value());
+        Assertions.assertTrue(tag.matches("\"[0-9a-f]{16}\""));
+    }
+
+    @Test
+    void anyChangeGivesAnotherTag() {
+        String tag = EntityTag.of("item").add(1L, 0L).add(2L, 3L).value();
+
+        Assertions.assertNotEquals(tag, EntityTag.of("item").add(1L, 1L).add(2L, 3L).value());
+        Assertions.assertNotEquals(tag, EntityTag.of("item").add(2L, 3L).add(1L, 0L).value());
+        Assertions.assertNotEquals(tag, EntityTag.of("item").add(1L, 0L).value());
+        Assertions.assertNotEquals(tag, EntityTag.of("booking").add(1L, 0L).add(2L, 3L).value());
+        Assertions.assertNotEquals(EntityTag.of("item").add((Long) null).value(), EntityTag.of("item").add(0L).value());
+    }
+}
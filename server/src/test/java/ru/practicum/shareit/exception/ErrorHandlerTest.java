@@ -10,6 +10,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.exceptions.AcceptBookingException;
+import ru.practicum.shareit.booking.exceptions.BookingConflictException;
 import ru.practicum.shareit.booking.exceptions.BookingNotFoundException;
 import ru.practicum.shareit.booking.exceptions.BookingValidationException;
 import ru.practicum.shareit.booking.exceptions.ItemBookingException;
@@ -264,4 +265,23 @@ class ErrorHandlerTest {
                 .andExpect(result -> Assertions.assertTrue(result.getResolvedException() instanceof ItemRequestNotFoundException))
                 .andExpect(result -> Assertions.assertEquals("Item request not found", result.getResolvedException().getMessage()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void bookingConflictHandler() throws Exception {
+        UserDto request = UserDto.builder()
+                .name("alex")
+                .email("test@mail.ru")
+                .build();
+
+        Mockito
+                .when(userService.createUser(request))
+                .thenThrow(new BookingConflictException("Item is already booked"));
+
+        mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(result -> Assertions.assertTrue(result.getResolvedException() instanceof BookingConflictException))
+                .andExpect(result -> Assertions.assertEquals("Item is already booked", result.getResolvedException().getMessage()));
+    }
+}
@@ -7,23 +7,32 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPageDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ItemController.class)
 class ItemControllerTest {
+    static final String ETAG = "\"5d1a3f0c9b7e2a64\"";
+
     @Autowired
     ObjectMapper mapper;
 
@@ -106,16 +115,32 @@ class ItemControllerTest {
     @Test
     void getItem() throws Exception {
         Mockito
-                .when(itemService.getItem(itemResponseDto.getId(), itemResponseDto.getUserId()))
-                .thenReturn(itemResponseDto);
+                .when(itemService.getVersionedItem(itemResponseDto.getId(), itemResponseDto.getUserId()))
+                .thenReturn(Versioned.of(ETAG, () -> itemResponseDto));
 
         mvc.perform(get("/items/{itemId}", itemResponseDto.getId())
                         .header("X-Sharer-User-Id", String.valueOf(owner.getId())))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(jsonPath("$.id").value(itemResponseDto.getId()))
                 .andExpect(jsonPath("$.name").value(itemResponseDto.getName()));
     }
 
+    @Test
+    void getItemNotModified() throws Exception {
+        Mockito
+                .when(itemService.getVersionedItem(itemResponseDto.getId(), itemResponseDto.getUserId()))
+                .thenReturn(Versioned.of(ETAG, () -> {
+                    throw new AssertionError("A not modified item must not be mapped");
+                }));
+
+        mvc.perform(get("/items/{itemId}", itemResponseDto.getId())
+                        .header("X-Sharer-User-Id", String.valueOf(owner.getId()))
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getUserItems() throws Exception {
         List<ItemDto> expectedList;
@@ -146,7 +171,7 @@ class ItemControllerTest {
     @Test
     void searchItem() throws Exception {
         Mockito
-                .when(itemService.findItem("drill"))
+                .when(itemService.findItem("drill", null, null))
                 .thenReturn(List.of(itemResponseDto));
 
         mvc.perform(get("/items/search")
@@ -157,6 +182,73 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].name").value(itemResponseDto.getName()));
     }
 
+    @Test
+    void searchItemPage() throws Exception {
+        Mockito
+                .when(itemService.findItem("drill", 0, 10))
+                .thenReturn(List.of(itemResponseDto));
+
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", String.valueOf(owner.getId()))
+                        .param("text", "drill")
+                        .param("from", "0")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(itemResponseDto.getId()));
+    }
+
+    @Test
+    void searchItemWithCursor() throws Exception {
+        ItemPageDto page = ItemPageDto.builder()
+                .items(List.of(itemResponseDto))
+                .nextCursor("next")
+                .build();
+
+        Mockito
+                .when(itemService.findItemPage("drill", "", 1))
+                .thenReturn(page);
+
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", String.valueOf(owner.getId()))
+                        .param("text", "drill")
+                        .param("size", "1")
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(itemResponseDto.getId()));
+    }
+
+    @Test
+    void streamItems() throws Exception {
+        ItemDto newItemResponseDto = ItemDto.builder()
+                .id(2L)
+                .name("hammer drill")
+                .available(true)
+                .build();
+
+        Mockito
+                .doAnswer(invocationOnMock -> {
+                    Consumer<ItemDto> action = invocationOnMock.getArgument(1);
+                    action.accept(itemResponseDto);
+                    action.accept(newItemResponseDto);
+                    return null;
+                })
+                .when(itemService).streamItems(eq("drill"), any());
+
+        MvcResult result = mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", String.valueOf(owner.getId()))
+                        .param("text", "drill")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(itemResponseDto) + "\n" +
+                        mapper.writeValueAsString(newItemResponseDto) + "\n"));
+    }
+
     @Test
     void postComment() throws Exception {
         CommentRequestDto commentRequestDto = CommentRequestDto.builder()
@@ -5,17 +5,26 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.EntityCacheConfiguration;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSavedEvent;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @DataJpaTest
+@Import(EntityCacheConfiguration.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RecordApplicationEvents
 class ItemRepositoryTest {
     @Autowired
     UserRepository userRepository;
@@ -23,6 +32,8 @@ class ItemRepositoryTest {
     ItemRepository itemRepository;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    ApplicationEvents events;
 
     User owner;
     Item item;
@@ -51,16 +62,13 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void findItemsLike() {
-        Item expectedItem = item;
-        Item actualItem;
-
+    void savePublishesItemSavedEvent() {
         itemRepository.save(item);
         itemRepository.save(itemTwo);
 
-        actualItem = itemRepository.findItemsLike("drill").get().get(0);
-
-        Assertions.assertEquals(expectedItem, actualItem);
+        Assertions.assertEquals(List.of(item, itemTwo), events.stream(ItemSavedEvent.class)
+                .map(ItemSavedEvent::getItem)
+                .collect(Collectors.toList()));
     }
 
     @Test
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSavedEvent;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ExtendWith(MockitoExtension.class)
+class InvertedIndexItemSearchEngineTest {
+    @InjectMocks
+    InvertedIndexItemSearchEngine searchEngine;
+    @Mock
+    ItemRepository itemRepository;
+
+    @Test
+    void loadAndSearch() {
+        Mockito
+                .when(itemRepository.findAll())
+                .thenReturn(List.of(
+                        item(1L, "Дрель", "Простая дрель", true),
+                        item(2L, "Отвертка", "Аккумуляторная отвертка", true),
+                        item(3L, "Дрель ударная", "Сломана", false)));
+
+        searchEngine.load();
+
+        Assertions.assertEquals(List.of(1L), ids(searchEngine.search("дрелью", null, 0, 10)));
+        Assertions.assertEquals(List.of(2L), ids(searchEngine.search("аккумуляторный", null, 0, 10)));
+        Assertions.assertEquals(List.of(2L), ids(searchEngine.search("ОТВЁРТКА аккумул", null, 0, 10)));
+        Assertions.assertEquals(Collections.emptyList(), ids(searchEngine.search("дрель отвертка", null, 0, 10)));
+        Assertions.assertEquals(Collections.emptyList(), ids(searchEngine.search("  ,. ", null, 0, 10)));
+    }
+
+    @Test
+    void englishStemming() {
+        searchEngine.index(item(1L, "Drill", "Drilling concrete walls", true));
+        searchEngine.index(item(2L, "Batteries", "Spare battery pack", true));
+
+        Assertions.assertEquals(List.of(1L), ids(searchEngine.search("drills", null, 0, 10)));
+        Assertions.assertEquals(List.of(1L), ids(searchEngine.search("wall drilled", null, 0, 10)));
+        Assertions.assertEquals(List.of(2L), ids(searchEngine.search("battery", null, 0, 10)));
+    }
+
+    @Test
+    void rankingAndPagination() {
+        searchEngine.index(item(1L, "Лопата", "Подходит для дрели", true));
+        searchEngine.index(item(2L, "Дрель", "Дрель для дрели", true));
+        searchEngine.index(item(3L, "Дрель", "Ударная", true));
+        searchEngine.index(item(4L, "Молоток", "Забивать", true));
+
+        Assertions.assertEquals(List.of(2L, 3L, 1L), ids(searchEngine.search("дрель", null, 0, 10)));
+        Assertions.assertEquals(List.of(3L), ids(searchEngine.search("дрель", null, 1, 1)));
+        Assertions.assertEquals(Collections.emptyList(), ids(searchEngine.search("дрель", null, 3, 10)));
+    }
+
+    @Test
+    void prefixMatchRanksBelowExactMatch() {
+        searchEngine.index(item(1L, "Дрельщик", "", true));
+        searchEngine.index(item(2L, "Дрель", "", true));
+
+        Assertions.assertEquals(List.of(2L, 1L), ids(searchEngine.search("дрел", null, 0, 10)));
+    }
+
+    @Test
+    void reindexOnSave() {
+        Item item = item(1L, "Дрель", "Простая дрель", true);
+        searchEngine.onItemSaved(new ItemSavedEvent(item));
+
+        item.setName("Пила");
+        item.setDescription("Ручная пила");
+        searchEngine.onItemSaved(new ItemSavedEvent(item));
+
+        Assertions.assertEquals(Collections.emptyList(), ids(searchEngine.search("дрель", null, 0, 10)));
+        Assertions.assertEquals(List.of(1L), ids(searchEngine.search("пилы", null, 0, 10)));
+
+        item.setIsAvailable(false);
+        searchEngine.onItemSaved(new ItemSavedEvent(item));
+
+        Assertions.assertEquals(Collections.emptyList(), ids(searchEngine.search("пила", null, 0, 10)));
+    }
+
+    @Test
+    void searchAfterCursor() {
+        searchEngine.index(item(1L, "Лопата", "Подходит для дрели", true));
+        searchEngine.index(item(2L, "Дрель", "Дрель для дрели", true));
+        searchEngine.index(item(3L, "Дрель", "Ударная", true));
+        searchEngine.index(item(4L, "Дрель", "Аккумуляторная", true));
+
+        List<ItemSearchHit> firstPage = searchEngine.search("дрель", null, 0, 2);
+        List<ItemSearchHit> secondPage = searchEngine.search("дрель", ItemSearchCursor.of(firstPage.get(1)), 0, 2);
+
+        Assertions.assertEquals(List.of(2L, 3L), ids(firstPage));
+        Assertions.assertEquals(List.of(4L, 1L), ids(secondPage));
+    }
+
+    private List<Long> ids(List<ItemSearchHit> hits) {
+        return hits.stream()
+                .map(ItemSearchHit::getItemId)
+                .collect(Collectors.toList());
+    }
+
+    private Item item(long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .isAvailable(available)
+                .build();
+    }
+}
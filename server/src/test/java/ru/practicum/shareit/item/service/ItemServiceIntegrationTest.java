@@ -10,6 +10,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.pointer.ItemBookingPointerTracker;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
@@ -44,6 +45,7 @@ class ItemServiceIntegrationTest {
     private final ItemRequestRepository requestRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemBookingPointerTracker pointerTracker;
 
     ItemRequest request;
     ItemDto itemDto;
@@ -217,6 +219,9 @@ class ItemServiceIntegrationTest {
         BookingShortDto lastBookingTwoDto = BookingMapper.shortResponseDtoOf(bookingRepository.save(lastBookingTwo));
         BookingShortDto nextBookingOneDto = BookingMapper.shortResponseDtoOf(bookingRepository.save(nextBookingOne));
         BookingShortDto nextBookingTwoDto = BookingMapper.shortResponseDtoOf(bookingRepository.save(nextBookingTwo));
+        // the bookings are saved as approved directly, so their items are refreshed as an approval would do
+        pointerTracker.refresh(itemOneSaved.getId());
+        pointerTracker.refresh(itemTwoSaved.getId());
 
         actualItemDtoList = itemService.getUserItems(ownerSaved.getId());
 
@@ -243,7 +248,7 @@ class ItemServiceIntegrationTest {
         Item itemSaved = itemRepository.save(item);
 
         expectedDtoList = List.of(ItemMapper.itemDtoOf(itemSaved));
-        actualDtoList = itemService.findItem("drill");
+        actualDtoList = itemService.findItem("drill", null, null);
 
         Assertions.assertEquals(expectedDtoList, actualDtoList);
     }
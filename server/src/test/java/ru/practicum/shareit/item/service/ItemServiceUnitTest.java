@@ -8,17 +8,26 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.booking.dto.ItemBookingPointer;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.pointer.ItemBookingPointerTracker;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.cache.EntityCacheInvalidator;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPageDto;
+import ru.practicum.shareit.item.dto.ItemRow;
+import ru.practicum.shareit.item.dto.ItemSearchCursor;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.request.exception.PaginationDataException;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -28,7 +37,9 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.*;
 
@@ -44,9 +55,15 @@ class ItemServiceUnitTest {
     @Mock
     ItemRequestRepository requestRepository;
     @Mock
-    BookingRepository bookingRepository;
+    ItemBookingPointerTracker pointerTracker;
+    @Mock
+    BookingViewRepository bookingViewRepository;
     @Mock
     CommentRepository commentRepository;
+    @Mock
+    ItemSearchEngine searchEngine;
+    @Mock
+    EntityCacheInvalidator cacheInvalidator;
 
     ItemDto itemDto;
     ItemDto itemDtoWithRequest;
@@ -298,6 +315,7 @@ class ItemServiceUnitTest {
         actualDto = itemService.updateItem(updatedDto);
 
         Assertions.assertEquals(expectedDto, actualDto);
+        Mockito.verify(cacheInvalidator).evictItem(itemSaved.getId());
     }
 
     @Test
@@ -338,11 +356,8 @@ class ItemServiceUnitTest {
                 .when(commentRepository.findAllByItemId(itemSaved.getId()))
                 .thenReturn(Collections.emptyList());
         Mockito
-                .when(bookingRepository.findLastBooking(itemDtoWithBookings.getId()))
-                .thenReturn(lastBooking);
-        Mockito
-                .when(bookingRepository.findNextBooking(itemDtoWithBookings.getId()))
-                .thenReturn(nextBooking);
+                .when(pointerTracker.findPointers(eq(List.of(itemDtoWithBookings.getId())), any()))
+                .thenReturn(List.of(pointerOf(lastBooking, ItemBookingPointer.LAST), pointerOf(nextBooking, ItemBookingPointer.NEXT)));
 
         expectedDto = itemDtoWithBookings;
         actualDto = itemService.getItem(itemSaved.getId(), owner.getId());
@@ -350,6 +365,29 @@ class ItemServiceUnitTest {
         Assertions.assertEquals(expectedDto, actualDto);
     }
 
+    @Test
+    void getItemWithNextBookingOnly() {
+        itemDto.setComments(Collections.emptyList());
+        Mockito
+                .when(itemRepository.findById(itemSaved.getId()))
+                .thenReturn(Optional.ofNullable(itemSaved));
+        Mockito
+                .when(userRepository.findById(owner.getId()))
+                .thenReturn(Optional.ofNullable(owner));
+        Mockito
+                .when(commentRepository.findAllByItemId(itemSaved.getId()))
+                .thenReturn(Collections.emptyList());
+        Mockito
+                .when(pointerTracker.findPointers(eq(List.of(itemSaved.getId())), any()))
+                .thenReturn(List.of(pointerOf(nextBooking, ItemBookingPointer.NEXT)));
+
+        ItemDto actualDto = itemService.getItem(itemSaved.getId(), owner.getId());
+
+        Assertions.assertNull(actualDto.getLastBooking());
+        Assertions.assertNull(actualDto.getNextBooking());
+        Assertions.assertEquals(itemDto, actualDto);
+    }
+
     @Test
     void getUserItems() {
         List<ItemDto> expectedList;
@@ -359,11 +397,11 @@ class ItemServiceUnitTest {
                 .when(userRepository.existsById(owner.getId()))
                 .thenReturn(true);
         Mockito
-                .when(itemRepository.findItemsByUserId(owner.getId(), Sort.by("id").ascending()))
-                .thenReturn(Optional.of(List.of(itemSaved)));
+                .when(itemRepository.findRowsByOwnerId(owner.getId()))
+                .thenReturn(List.of(rowOf(itemSaved)));
         Mockito
-                .when(bookingRepository.findAllByItemsId(List.of(itemSaved.getId())))
-                .thenReturn(List.of(lastBooking, nextBooking));
+                .when(pointerTracker.findPointers(eq(List.of(itemSaved.getId())), any()))
+                .thenReturn(List.of(pointerOf(lastBooking, ItemBookingPointer.LAST), pointerOf(nextBooking, ItemBookingPointer.NEXT)));
 
         expectedList = List.of(itemDtoWithBookings);
         actualList = itemService.getUserItems(owner.getId());
@@ -377,27 +415,132 @@ class ItemServiceUnitTest {
         List<ItemDto> actualList;
 
         Mockito
-                .when(itemRepository.findItemsLike(anyString()))
-                .thenAnswer(invocationOnMock -> {
-                    String text = invocationOnMock.getArgument(0, String.class);
-                    if (text.equals("drill")) {
-                        return Optional.of(List.of(itemSaved));
-                    } else if (text.isEmpty()) {
-                        return Optional.of(Collections.emptyList());
-                    }
-                    return null;
-                });
+                .when(searchEngine.search("shovel", null, 0, ItemServiceImpl.SEARCH_BATCH_SIZE))
+                .thenReturn(List.of(hitOf(1L, 2.5)));
+        Mockito
+                .when(itemRepository.findRowsByIds(List.of(1L)))
+                .thenReturn(List.of(rowOf(itemSaved)));
 
 
         expectedList = List.of(itemDto);
-        actualList = itemService.findItem("drill");
+        actualList = itemService.findItem("shovel", null, null);
 
         Assertions.assertEquals(expectedList, actualList);
 
         expectedList = Collections.emptyList();
-        actualList = itemService.findItem("");
+        actualList = itemService.findItem("", null, null);
 
         Assertions.assertEquals(expectedList, actualList);
+        Mockito.verify(searchEngine, Mockito.never()).search(eq(""), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void findItemFromSize() {
+        Mockito
+                .when(searchEngine.search("shovel", null, 0, 15))
+                .thenReturn(Collections.emptyList());
+
+        Assertions.assertEquals(Collections.emptyList(), itemService.findItem("shovel", 10, 5));
+        Assertions.assertThrows(PaginationDataException.class, () -> itemService.findItem("shovel", -1, 5));
+        Assertions.assertThrows(PaginationDataException.class, () -> itemService.findItem("shovel", 0, 0));
+    }
+
+    @Test
+    void findItemPage() {
+        ItemSearchCursor cursor = new ItemSearchCursor(3.0, 7L);
+
+        Mockito
+                .when(searchEngine.search("shovel", cursor, 0, 1))
+                .thenReturn(List.of(hitOf(1L, 2.5)));
+        Mockito
+                .when(itemRepository.findRowsByIds(List.of(1L)))
+                .thenReturn(List.of(rowOf(itemSaved)));
+
+        ItemPageDto page = itemService.findItemPage("shovel", cursor.encode(), 1);
+
+        Assertions.assertEquals(List.of(itemDto), page.getItems());
+        Assertions.assertEquals(new ItemSearchCursor(2.5, 1L), ItemSearchCursor.decode(page.getNextCursor()));
+        Assertions.assertThrows(PaginationDataException.class, () -> itemService.findItemPage("shovel", "%%%", 1));
+        Assertions.assertThrows(PaginationDataException.class, () -> itemService.findItemPage("shovel", null, 0));
+    }
+
+    @Test
+    void findItemCountsOnlyAvailableItems() {
+        Mockito
+                .when(searchEngine.search("shovel", null, 0, 3))
+                .thenReturn(List.of(hitOf(1L, 3.0), hitOf(2L, 2.0), hitOf(3L, 1.5)));
+        Mockito
+                .when(searchEngine.search("shovel", new ItemSearchCursor(1.5, 3L), 0, 1))
+                .thenReturn(List.of(hitOf(4L, 1.0)));
+        Mockito
+                .when(itemRepository.findRowsByIds(anyList()))
+                .thenAnswer(invocationOnMock -> {
+                    List<Long> ids = invocationOnMock.getArgument(0);
+                    List<ItemRow> rows = new ArrayList<>();
+                    for (Long id : ids) {
+                        rows.add(ItemRow.builder().id(id).name("Shovel").available(id != 2L).ownerId(owner.getId()).build());
+                    }
+                    return rows;
+                });
+
+        List<ItemDto> items = itemService.findItem("shovel", 1, 2);
+
+        Assertions.assertEquals(List.of(3L, 4L), items.stream().map(ItemDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findItemPageIsFilledPastUnavailableItems() {
+        Mockito
+                .when(searchEngine.search("shovel", null, 0, 2))
+                .thenReturn(List.of(hitOf(1L, 3.0), hitOf(2L, 2.0)));
+        Mockito
+                .when(searchEngine.search("shovel", new ItemSearchCursor(2.0, 2L), 0, 1))
+                .thenReturn(List.of(hitOf(3L, 1.0)));
+        Mockito
+                .when(itemRepository.findRowsByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(rowOf(itemSaved)));
+        Mockito
+                .when(itemRepository.findRowsByIds(List.of(3L)))
+                .thenReturn(List.of(ItemRow.builder().id(3L).name("Shovel").available(true).ownerId(owner.getId()).build()));
+
+        ItemPageDto page = itemService.findItemPage("shovel", null, 2);
+
+        Assertions.assertEquals(List.of(1L, 3L), page.getItems().stream().map(ItemDto::getId).collect(Collectors.toList()));
+        Assertions.assertEquals(new ItemSearchCursor(1.0, 3L), ItemSearchCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void streamItems() {
+        List<ItemSearchHit> hits = new ArrayList<>();
+        for (long id = 1; id <= 250; id++) {
+            hits.add(hitOf(id, 1.0));
+        }
+
+        Mockito
+                .when(searchEngine.search(eq("shovel"), any(), eq(0), eq(ItemServiceImpl.SEARCH_BATCH_SIZE)))
+                .thenAnswer(invocationOnMock -> {
+                    ItemSearchCursor after = invocationOnMock.getArgument(1);
+                    int from = after == null ? 0 : (int) after.getId();
+                    return hits.subList(from, Math.min(from + ItemServiceImpl.SEARCH_BATCH_SIZE, hits.size()));
+                });
+        Mockito
+                .when(itemRepository.findRowsByIds(anyList()))
+                .thenAnswer(invocationOnMock -> {
+                    List<Long> ids = invocationOnMock.getArgument(0);
+                    List<ItemRow> rows = new ArrayList<>();
+                    for (Long id : ids) {
+                        rows.add(ItemRow.builder().id(id).name("Shovel").available(true).ownerId(owner.getId()).build());
+                    }
+                    return rows;
+                });
+
+        List<Long> streamedIds = new ArrayList<>();
+        itemService.streamItems("shovel", itemDto -> streamedIds.add(itemDto.getId()));
+
+        Assertions.assertEquals(250, streamedIds.size());
+        Assertions.assertEquals(1L, streamedIds.get(0));
+        Assertions.assertEquals(250L, streamedIds.get(249));
+        Mockito.verify(itemRepository, Mockito.times(3)).findRowsByIds(anyList());
     }
 
     @Test
@@ -423,4 +566,32 @@ class ItemServiceUnitTest {
 
         Assertions.assertEquals(expectedComment, actualComment);
     }
-}
\ No newline at end of file
+
+    private static ItemSearchHit hitOf(long itemId, double score) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemSearchHit.class, Map.of(
+                "itemId", itemId,
+                "score", score
+        ));
+    }
+
+    private static ItemRow rowOf(Item item) {
+        return ItemRow.builder()
+                .id(item.getId())
+                .ownerId(item.getUser().getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getIsAvailable())
+                .requestId(item.getRequest() == null ? null : item.getRequest().getId())
+                .version(item.getVersion())
+                .build();
+    }
+
+    private static ItemBookingPointer pointerOf(Booking booking, String pointer) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemBookingPointer.class, Map.of(
+                "itemId", booking.getItem().getId(),
+                "bookingId", booking.getId(),
+                "bookerId", booking.getUser().getId(),
+                "pointer", pointer
+        ));
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.exceptions.BookingValidationException;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.transaction.Transactional;
+
+@Transactional
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ServiceMetricsIntegrationTest {
+    private final UserService userService;
+    private final BookingService bookingService;
+    private final MeterRegistry registry;
+    private final PrometheusTextEndpoint prometheusEndpoint;
+
+    @Test
+    void serviceMethodsAreTimed() {
+        UserDto user = userService.createUser(UserDto.builder().name("zima").email("zimablue@gmail.com").build());
+
+        bookingService.getUserBookings(user.getId(), "ALL", true, null, null);
+        bookingService.getUserBookings(user.getId(), "ALL", true, null, null);
+        bookingService.getUserBookings(user.getId(), "PAST", false, null, null);
+        Assertions.assertThrows(BookingValidationException.class,
+                () -> bookingService.getUserBookings(user.getId(), "TOMORROW", false, null, null));
+
+        Assertions.assertEquals(1, timer("UserServiceImpl", "createUser", "none", "none", "none").count());
+        Assertions.assertEquals(2, timer("BookingServiceImpl", "getUserBookings", "ALL", "owner", "none").count());
+        Assertions.assertEquals(1, timer("BookingServiceImpl", "getUserBookings", "PAST", "booker", "none").count());
+        Assertions.assertEquals(1, timer("BookingServiceImpl", "getUserBookings", "UNSUPPORTED", "booker",
+                "BookingValidationException").count());
+    }
+
+    @Test
+    void repositoryQueriesAreTimed() {
+        UserDto user = userService.createUser(UserDto.builder().name("zima").email("zimablue@gmail.com").build());
+
+        bookingService.getUserBookings(user.getId(), "ALL", true, null, null);
+
+        Timer query = registry.find("spring.data.repository.invocations")
+                .tags("repository", "BookingViewRepository", "method", "findBookings")
+                .timer();
+        Assertions.assertNotNull(query);
+        Assertions.assertEquals(1, query.count());
+    }
+
+    @Test
+    void scrapeRendersServiceTimers() {
+        userService.createUser(UserDto.builder().name("zima").email("zimablue@gmail.com").build());
+
+        String text = prometheusEndpoint.scrape();
+        String labels = "{application=\"shareit-server\",exception=\"none\",method=\"createUser\",role=\"none\"," +
+                "service=\"UserServiceImpl\",state=\"none\"";
+
+        Assertions.assertTrue(text.contains("# TYPE shareit_service_seconds summary\n"));
+        Assertions.assertTrue(text.contains("shareit_service_seconds_count" + labels + "} 1.0\n"));
+        Assertions.assertTrue(text.contains("shareit_service_seconds" + labels + ",quantile=\"0.99\"}"));
+        Assertions.assertTrue(text.contains("# TYPE spring_data_repository_invocations_seconds summary\n"));
+    }
+
+    private Timer timer(String service, String method, String state, String role, String exception) {
+        return registry.get(ServiceMetricsAspect.METRIC)
+                .tags("service", service, "method", method, "state", state, "role", role, "exception", exception)
+                .timer();
+    }
+}
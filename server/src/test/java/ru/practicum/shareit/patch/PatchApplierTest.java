@@ -0,0 +1,62 @@
+package ru.practicum.shareit.patch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+class PatchApplierTest {
+    @Test
+    void appliesNonNullProperties() {
+        User target = new User(1L, "zimablue@gmail.com", "zima", null);
+
+        PatchApplier.of(User.class).apply(User.builder().name("ivan").build(), target);
+
+        Assertions.assertEquals(new User(1L, "zimablue@gmail.com", "ivan", null), target);
+    }
+
+    @Test
+    void keepsReferencesAbsentFromPatch() {
+        User owner = new User(1L, "zimablue@gmail.com", "zima", null);
+        ItemRequest request = ItemRequest.builder().id(2L).build();
+        Item target = new Item(3L, owner, "drill", "drilly-drilly-drill", true, request, null);
+
+        PatchApplier.of(Item.class).apply(Item.builder().id(3L).isAvailable(false).build(), target);
+
+        Assertions.assertEquals(new Item(3L, owner, "drill", "drilly-drilly-drill", false, request, null), target);
+    }
+
+    @Test
+    void skipsReadOnlyProperties() {
+        Assertions.assertEquals(List.of("name", "size"), PatchApplier.of(Bean.class).propertyNames());
+    }
+
+    @Test
+    void appliesPrimitiveProperties() {
+        Bean patch = new Bean();
+        patch.setSize(5);
+        Bean target = new Bean();
+        target.setName("bean");
+
+        PatchApplier.of(Bean.class).apply(patch, target);
+
+        Assertions.assertEquals(5, target.getSize());
+        Assertions.assertEquals("bean", target.getName());
+    }
+
+    @Getter
+    @Setter
+    public static class Bean {
+        private String name;
+        private int size;
+
+        public String getLabel() {
+            return name + size;
+        }
+    }
+}
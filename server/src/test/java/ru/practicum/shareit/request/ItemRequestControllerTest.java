@@ -7,9 +7,12 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
 import ru.practicum.shareit.request.service.RequestService;
 import ru.practicum.shareit.user.model.User;
 
@@ -20,11 +23,15 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
 class ItemRequestControllerTest {
+    static final String ETAG = "\"5d1a3f0c9b7e2a64\"";
+
     @Autowired
     ObjectMapper mapper;
 
@@ -80,8 +87,8 @@ class ItemRequestControllerTest {
     @Test
     void getItemRequest() throws Exception {
         Mockito
-                .when(requestService.getRequest(requester.getId(), itemRequestResponse.getId()))
-                .thenReturn(itemRequestResponse);
+                .when(requestService.getVersionedRequest(requester.getId(), itemRequestResponse.getId()))
+                .thenReturn(Versioned.of(ETAG, () -> itemRequestResponse));
 
         mvc.perform(get("/requests/{requestId}", itemRequestResponse.getId())
                 .header("X-Sharer-User-Id", String.valueOf(requester.getId())))
@@ -103,8 +110,8 @@ class ItemRequestControllerTest {
         expectedList = List.of(itemRequestResponse, newItemRequestResponse);
 
         Mockito
-                .when(requestService.getUserRequests(requester.getId()))
-                .thenReturn(expectedList);
+                .when(requestService.getVersionedUserRequests(requester.getId()))
+                .thenReturn(Versioned.of(ETAG, () -> expectedList));
 
         mvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", String.valueOf(requester.getId())))
@@ -122,8 +129,8 @@ class ItemRequestControllerTest {
         expectedList = List.of(itemRequestResponse);
 
         Mockito
-                .when(requestService.getAllRequests(requester.getId(), 0, 1))
-                .thenReturn(expectedList);
+                .when(requestService.getVersionedAllRequests(requester.getId(), 0, 1))
+                .thenReturn(Versioned.of(ETAG, () -> expectedList));
 
         mvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", String.valueOf(requester.getId()))
@@ -133,4 +140,42 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id").value(itemRequestResponse.getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRequestsWithCursor() throws Exception {
+        ItemRequestPageDto page = ItemRequestPageDto.builder()
+                .requests(List.of(itemRequestResponse))
+                .nextCursor("next")
+                .build();
+
+        Mockito
+                .when(requestService.getVersionedAllRequestsPage(requester.getId(), "", 1))
+                .thenReturn(Versioned.of(ETAG, () -> page));
+
+        mvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", String.valueOf(requester.getId()))
+                        .param("size", String.valueOf(1))
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(itemRequestResponse.getId()));
+    }
+
+    @Test
+    void getAllRequestsNotModified() throws Exception {
+        Mockito
+                .when(requestService.getVersionedAllRequests(requester.getId(), 0, 1))
+                .thenReturn(Versioned.of(ETAG, () -> {
+                    throw new AssertionError("Not modified requests must not be mapped");
+                }));
+
+        mvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", String.valueOf(requester.getId()))
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                        .param("from", String.valueOf(0))
+                        .param("size", String.valueOf(1)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+    }
+}
@@ -2,9 +2,11 @@ package ru.practicum.shareit.request.mapper;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemRow;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestRow;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -67,4 +69,37 @@ class ItemRequestMapperTest {
 
         Assertions.assertEquals(expectedList, actualList);
     }
-}
\ No newline at end of file
+
+    @Test
+    void mapListToDtoWithItems() {
+        ItemRequest emptyRequest = ItemRequest.builder()
+                .id(2L)
+                .created(localDateTime)
+                .user(user)
+                .description("nobody answered")
+                .build();
+        Item answer = Item.builder()
+                .id(2L)
+                .user(user)
+                .name("drill")
+                .isAvailable(true)
+                .request(itemRequest)
+                .build();
+
+        List<ItemRequestDto> actualList = ItemRequestMapper.mapListToDto(List.of(rowOf(itemRequest), rowOf(emptyRequest)),
+                List.of(ItemRow.builder()
+                        .id(answer.getId())
+                        .ownerId(user.getId())
+                        .name(answer.getName())
+                        .available(answer.getIsAvailable())
+                        .requestId(itemRequest.getId())
+                        .build()));
+
+        Assertions.assertEquals(List.of(ItemMapper.itemDtoOf(answer)), actualList.get(0).getItems());
+        Assertions.assertEquals(List.of(), actualList.get(1).getItems());
+    }
+
+    private static ItemRequestRow rowOf(ItemRequest request) {
+        return new ItemRequestRow(request.getId(), request.getDescription(), request.getCreated(), request.getVersion());
+    }
+}
@@ -5,20 +5,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.cache.EntityCacheConfiguration;
+import ru.practicum.shareit.request.dto.ItemRequestRow;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @DataJpaTest
+@Import(EntityCacheConfiguration.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class ItemRequestRepositoryTest {
     @Autowired
@@ -53,7 +58,7 @@ class ItemRequestRepositoryTest {
     @Test
     void findAllByUserId() {
         List<ItemRequest> expectedList;
-        List<ItemRequest> actualList;
+        List<ItemRequestRow> actualList;
 
         itemRequestRepository.save(itemRequest);
         itemRequestRepository.save(itemRequestTwo);
@@ -62,40 +67,62 @@ class ItemRequestRepositoryTest {
         expectedList.sort(Comparator.comparing(ItemRequest::getCreated).reversed());
         actualList = itemRequestRepository.findAllByUserId(requester.getId());
 
-        Assertions.assertEquals(expectedList, actualList);
+        Assertions.assertEquals(idsOf(expectedList), ids(actualList));
+        Assertions.assertEquals(expectedList.get(0).getDescription(), actualList.get(0).getDescription());
+        Assertions.assertEquals(0L, actualList.get(0).getVersion());
     }
 
     @Test
-    void findRequests() {
-        List<ItemRequest> expectedList;
-        List<ItemRequest> actualList;
-        Pageable pageable;
+    void findOtherUsersRequests() {
+        User otherRequester = userRepository.save(User.builder()
+                .name("ivan")
+                .email("skvorzov@gmail.com")
+                .build());
+        itemRequestTwo.setUser(otherRequester);
 
         itemRequestRepository.save(itemRequest);
         itemRequestRepository.save(itemRequestTwo);
 
-        pageable = PageRequest.of(0, 1);
-
-        expectedList = List.of(itemRequest);
-        actualList = itemRequestRepository.findRequests(pageable);
-
-        Assertions.assertEquals(expectedList, actualList);
+        Assertions.assertEquals(List.of(itemRequestTwo.getId()),
+                ids(itemRequestRepository.findOtherUsersRequests(requester.getId(), PageRequest.of(0, 1))));
+        Assertions.assertEquals(List.of(itemRequest.getId()),
+                ids(itemRequestRepository.findOtherUsersRequests(otherRequester.getId(), Sort.by("id").descending())));
     }
 
     @Test
-    void testFindRequests() {
-        List<ItemRequest> expectedList;
-        List<ItemRequest> actualList;
-        Sort sort;
-
-        itemRequestRepository.save(itemRequest);
-        itemRequestRepository.save(itemRequestTwo);
-
-        sort = Sort.by("id").descending();
+    void findOtherUsersRequestsBefore() {
+        User otherRequester = userRepository.save(User.builder()
+                .name("ivan")
+                .email("skvorzov@gmail.com")
+                .build());
+        LocalDateTime created = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<ItemRequest> expectedList = new ArrayList<>();
+
+        for (int i = 0; i < 7; i++) {
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .created(created.minusDays(i % 3))
+                    .description("request " + i)
+                    .user(i == 3 ? requester : otherRequester)
+                    .build());
+            if (i != 3)
+                expectedList.add(request);
+        }
+        expectedList.sort(Comparator.comparing(ItemRequest::getCreated).thenComparing(ItemRequest::getId).reversed());
+
+        List<ItemRequestRow> actualList = new ArrayList<>(itemRequestRepository.findOtherUsersRequests(requester.getId(),
+                PageRequest.of(0, 4, Sort.by("created").descending().and(Sort.by("id").descending()))));
+        ItemRequestRow last = actualList.get(actualList.size() - 1);
+        actualList.addAll(itemRequestRepository.findOtherUsersRequestsBefore(requester.getId(), last.getCreated(),
+                last.getId(), PageRequest.ofSize(4)));
+
+        Assertions.assertEquals(idsOf(expectedList), ids(actualList));
+    }
 
-        expectedList = List.of(itemRequestTwo, itemRequest);
-        actualList = itemRequestRepository.findRequests(sort);
+    private static List<Long> ids(List<ItemRequestRow> rows) {
+        return rows.stream().map(ItemRequestRow::getId).collect(Collectors.toList());
+    }
 
-        Assertions.assertEquals(expectedList, actualList);
+    private static List<Long> idsOf(List<ItemRequest> requests) {
+        return requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -37,7 +38,8 @@ class RequestServiceIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        localDateTime = LocalDateTime.now();
+        // the precision of the created column, the listings read it back from the database
+        localDateTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 
         requester = User.builder()
                 .name("zima")
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RequestServiceStatementCountTest {
+    private static final int REQUESTS = 20;
+    private static final int ITEMS_PER_REQUEST = 3;
+
+    private final RequestService requestService;
+
+    private final ItemRequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    User requester;
+    User viewer;
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        requester = userRepository.save(User.builder().name("zima").email("zimablue@gmail.com").build());
+        viewer = userRepository.save(User.builder().name("ivan").email("skvorzov@gmail.com").build());
+
+        LocalDateTime created = LocalDateTime.now();
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest request = requestRepository.save(ItemRequest.builder()
+                    .description("request " + i)
+                    .created(created.minusHours(i))
+                    .user(requester)
+                    .items(new ArrayList<>())
+                    .build());
+
+            for (int j = 0; j < ITEMS_PER_REQUEST; j++) {
+                User owner = userRepository.save(User.builder()
+                        .name("owner " + i + " " + j)
+                        .email("owner" + i + "x" + j + "@mail.ru")
+                        .build());
+                itemRepository.save(Item.builder()
+                        .name("item " + i + " " + j)
+                        .description("answer to request " + i)
+                        .isAvailable(true)
+                        .user(owner)
+                        .request(request)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, REQUESTS})
+    void getAllRequestsRunsConstantStatements(int size) {
+        List<ItemRequestDto> requests = requestService.getAllRequests(viewer.getId(), 0, size);
+
+        Assertions.assertEquals(size, requests.size());
+        Assertions.assertTrue(requests.stream().allMatch(request -> request.getItems().size() == ITEMS_PER_REQUEST));
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUserRequestsRunsConstantStatements() {
+        List<ItemRequestDto> requests = requestService.getUserRequests(requester.getId());
+
+        Assertions.assertEquals(REQUESTS, requests.size());
+        Assertions.assertTrue(requests.stream().allMatch(request -> request.getItems().size() == ITEMS_PER_REQUEST));
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
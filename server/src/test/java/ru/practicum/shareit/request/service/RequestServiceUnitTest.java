@@ -8,9 +8,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.dto.ItemRow;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
+import ru.practicum.shareit.request.dto.ItemRequestRow;
 import ru.practicum.shareit.request.exception.PaginationDataException;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -22,8 +30,10 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(MockitoExtension.class)
 class RequestServiceUnitTest {
@@ -33,6 +43,8 @@ class RequestServiceUnitTest {
     ItemRequestRepository requestRepository;
     @Mock
     UserRepository userRepository;
+    @Mock
+    ItemRepository itemRepository;
 
     User requestCreator;
     ItemRequestDto requestDto;
@@ -125,7 +137,7 @@ class RequestServiceUnitTest {
                 .thenReturn(true);
         Mockito
                 .when(requestRepository.findAllByUserId(requestCreator.getId()))
-                .thenReturn(List.of(itemRequestSaved));
+                .thenReturn(List.of(rowOf(itemRequestSaved)));
 
         expectedList = List.of(responseDto);
         actualList = requestService.getUserRequests(requestCreator.getId());
@@ -143,8 +155,8 @@ class RequestServiceUnitTest {
         List<ItemRequest> items = List.of(itemRequestSaved, itemRequestSaved);
 
         Mockito
-                .when(requestRepository.findRequests(any(Pageable.class)))
-                .thenReturn(items);
+                .when(requestRepository.findOtherUsersRequests(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(rowOf(itemRequestSaved), rowOf(itemRequestSaved)));
 
         expectedList = ItemRequestMapper.mapListToDto(items);
         actualList = requestService.getAllRequests(2L, 0, 2);
@@ -152,21 +164,53 @@ class RequestServiceUnitTest {
         Assertions.assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void getUserRequestsWithItems() {
+        Item item = Item.builder()
+                .id(5L)
+                .name("magic stick")
+                .isAvailable(true)
+                .user(User.builder().id(2L).build())
+                .request(itemRequestSaved)
+                .build();
+
+        Mockito
+                .when(userRepository.existsById(requestCreator.getId()))
+                .thenReturn(true);
+        Mockito
+                .when(requestRepository.findAllByUserId(requestCreator.getId()))
+                .thenReturn(List.of(rowOf(itemRequestSaved)));
+        Mockito
+                .when(itemRepository.findRowsByRequestIds(Set.of(itemRequestSaved.getId())))
+                .thenReturn(List.of(ItemRow.builder()
+                        .id(item.getId())
+                        .ownerId(item.getUser().getId())
+                        .name(item.getName())
+                        .available(item.getIsAvailable())
+                        .requestId(itemRequestSaved.getId())
+                        .build()));
+
+        List<ItemRequestDto> actualList = requestService.getUserRequests(requestCreator.getId());
+
+        Assertions.assertEquals(List.of(ItemMapper.itemDtoOf(item)), actualList.get(0).getItems());
+    }
+
     @Test
     void getAllRequestsPageableForOwner() {
         List<ItemRequestDto> expectedList;
         List<ItemRequestDto> actualList;
 
-        List<ItemRequest> items = List.of(itemRequestSaved, itemRequestSaved);
-
         Mockito
-                .when(requestRepository.findRequests(any(Pageable.class)))
-                .thenReturn(items);
+                .when(requestRepository.findOtherUsersRequests(eq(1L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
 
         expectedList = Collections.emptyList();
-        actualList = requestService.getAllRequests(1L, 0, 2);
+        actualList = requestService.getAllRequests(1L, 2, 2);
 
         Assertions.assertEquals(expectedList, actualList);
+        Mockito.verify(requestRepository).findOtherUsersRequests(1L, PageRequest.of(1, 2,
+                Sort.by("created").descending().and(Sort.by("id").descending())));
+        Mockito.verifyNoInteractions(itemRepository);
     }
 
     @Test
@@ -177,11 +221,11 @@ class RequestServiceUnitTest {
         List<ItemRequest> items = List.of(itemRequestSaved, itemRequestSaved);
 
         Mockito
-                .when(requestRepository.findRequests(any(Sort.class)))
-                .thenReturn(items);
+                .when(requestRepository.findOtherUsersRequests(eq(2L), any(Sort.class)))
+                .thenReturn(List.of(rowOf(itemRequestSaved), rowOf(itemRequestSaved)));
 
         expectedList = ItemRequestMapper.mapListToDto(items);
-        actualList = requestService.getAllRequests(1L, null, null);
+        actualList = requestService.getAllRequests(2L, null, null);
 
         Assertions.assertEquals(expectedList, actualList);
     }
@@ -198,4 +242,36 @@ class RequestServiceUnitTest {
 
         Assertions.assertEquals(expectedMessage, actualMessage);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRequestsPage() {
+        ItemRequestCursor cursor = new ItemRequestCursor(itemRequestSaved.getCreated().plusHours(1), 9L);
+
+        Mockito
+                .when(requestRepository.findOtherUsersRequestsBefore(2L, cursor.getCreated(), cursor.getId(), PageRequest.ofSize(1)))
+                .thenReturn(List.of(rowOf(itemRequestSaved)));
+
+        ItemRequestPageDto page = requestService.getAllRequestsPage(2L, cursor.encode(), 1);
+
+        Assertions.assertEquals(ItemRequestMapper.mapListToDto(List.of(itemRequestSaved)), page.getRequests());
+        Assertions.assertEquals(ItemRequestCursor.of(itemRequestSaved), ItemRequestCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getAllRequestsFirstPage() {
+        Mockito
+                .when(requestRepository.findOtherUsersRequests(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(rowOf(itemRequestSaved)));
+
+        ItemRequestPageDto page = requestService.getAllRequestsPage(2L, "", null);
+
+        Assertions.assertEquals(1, page.getRequests().size());
+        Assertions.assertNull(page.getNextCursor());
+        Assertions.assertThrows(PaginationDataException.class, () -> requestService.getAllRequestsPage(2L, "%%%", 1));
+        Assertions.assertThrows(PaginationDataException.class, () -> requestService.getAllRequestsPage(2L, null, 0));
+    }
+
+    private static ItemRequestRow rowOf(ItemRequest request) {
+        return new ItemRequestRow(request.getId(), request.getDescription(), request.getCreated(), request.getVersion());
+    }
+}
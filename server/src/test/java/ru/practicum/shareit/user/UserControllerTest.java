@@ -7,8 +7,10 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.etag.Versioned;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -17,11 +19,15 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
 class UserControllerTest {
+    static final String ETAG = "\"5d1a3f0c9b7e2a64\"";
+
     @Autowired
     ObjectMapper mapper;
 
@@ -64,6 +70,21 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value(userResponseDto.getEmail()));
     }
 
+    @Test
+    void getUserNotModified() throws Exception {
+        Mockito
+                .when(userService.getVersionedUser(userResponseDto.getId()))
+                .thenReturn(Versioned.of(ETAG, () -> {
+                    throw new AssertionError("A not modified user must not be mapped");
+                }));
+
+        mvc.perform(get("/users/{userId}", userResponseDto.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getAllUsers() throws Exception {
         List<UserDto> expectedList;
@@ -89,11 +110,12 @@ class UserControllerTest {
     @Test
     void getUser() throws Exception {
         Mockito
-                .when(userService.getUser(userResponseDto.getId()))
-                .thenReturn(userResponseDto);
+                .when(userService.getVersionedUser(userResponseDto.getId()))
+                .thenReturn(Versioned.of(ETAG, () -> userResponseDto));
 
         mvc.perform(get("/users/{userId}", userResponseDto.getId()))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(jsonPath("$.id").value(userResponseDto.getId()))
                 .andExpect(jsonPath("$.name").value(userResponseDto.getName()))
                 .andExpect(jsonPath("$.email").value(userResponseDto.getEmail()));
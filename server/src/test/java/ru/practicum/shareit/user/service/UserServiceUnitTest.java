@@ -8,6 +8,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.cache.EntityCacheInvalidator;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -22,6 +24,10 @@ class UserServiceUnitTest {
 
     @Mock
     UserRepository userRepository;
+    @Mock
+    BookingViewRepository bookingViewRepository;
+    @Mock
+    EntityCacheInvalidator cacheInvalidator;
 
     UserDto firstUserDto;
     UserDto secondUserDto;
@@ -170,6 +176,7 @@ class UserServiceUnitTest {
         actualDto = userService.patchUser(secondUserDtoSaved);
 
         Assertions.assertEquals(expectedDto, actualDto);
+        Mockito.verify(cacheInvalidator).evictUser(firstUserSaved.getId());
     }
 
     @Test
@@ -178,5 +185,6 @@ class UserServiceUnitTest {
 
         Mockito.verify(userRepository, Mockito.times(1))
                 .deleteById(firstUserDtoSaved.getId());
+        Mockito.verify(cacheInvalidator).evictUser(firstUserDtoSaved.getId());
     }
 }
\ No newline at end of file